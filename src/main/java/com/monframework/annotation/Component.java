@@ -0,0 +1,31 @@
+package com.monframework.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Service partagé découvert lors du scan : créé une seule fois au démarrage
+ * et injecté dans les constructeurs des contrôleurs et des autres composants.
+ * <pre>
+ * &#64;Component
+ * public class ProduitDao {
+ *     public ProduitDao(PoolConnexions pool) { ... }
+ * }
+ *
+ * &#64;MyController("/catalogue")
+ * public class CatalogueController {
+ *     public CatalogueController(ProduitDao dao) { ... }
+ * }
+ * </pre>
+ * Un composant qui implémente AutoCloseable est fermé à l'arrêt de
+ * l'application. Un contrôleur annoté @Component devient lui-même un
+ * singleton (il ne doit alors pas garder d'état propre à une requête).
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Component {
+}
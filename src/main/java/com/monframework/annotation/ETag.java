@@ -0,0 +1,41 @@
+package com.monframework.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Désigne la méthode du contrôleur qui calcule la version de la ressource
+ * (numéro de version, empreinte...). Elle reçoit les mêmes paramètres que la
+ * méthode GET et doit être peu coûteuse : si la valeur correspond à
+ * l'en-tête If-None-Match, la réponse est un 304 sans appeler la méthode GET
+ * ni rendre la vue.
+ *
+ * Exemple :
+ * <pre>
+ * {@code
+ * @GET
+ * @HandleUrl("/produit/{id}")
+ * @ETag("versionProduit")
+ * public ModelView produit(int id) { ... }
+ *
+ * public long versionProduit(int id) {
+ *     return catalogue.version(id);
+ * }
+ * }
+ * </pre>
+ *
+ * Une méthode de validation qui retourne null désactive la vérification
+ * pour la requête.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ETag {
+    /**
+     * Nom de la méthode de validation, dans la même classe.
+     */
+    String value();
+}
@@ -0,0 +1,49 @@
+package com.monframework.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Réglages du flux Server-Sent Events d'une méthode recevant un
+ * {@code EventSink}. Sans cette annotation, les valeurs par défaut s'appliquent.
+ *
+ * Exemple :
+ * <pre>
+ * {@code
+ * @HandleUrl("/tableau/live")
+ * @EventStream(queueCapacity = 64, overflow = EventStream.Overflow.DROP_OLDEST)
+ * public void live(EventSink sink) { tableau.abonner(sink); }
+ * }
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface EventStream {
+
+    /**
+     * Comportement quand la file d'un client lent est pleine.
+     */
+    enum Overflow {
+        /** Retirer l'événement le plus ancien pour garder le plus récent. */
+        DROP_OLDEST,
+        /** Ignorer le nouvel événement. */
+        DROP_NEWEST,
+        /** Fermer la connexion du client trop lent. */
+        DISCONNECT
+    }
+
+    /** Nombre d'événements en attente d'envoi par connexion. */
+    int queueCapacity() default 256;
+
+    Overflow overflow() default Overflow.DROP_OLDEST;
+
+    /** Intervalle des commentaires de maintien de connexion (0 = aucun). */
+    int heartbeatSeconds() default 15;
+
+    /** Délai de reconnexion transmis au navigateur (champ retry, -1 = non envoyé). */
+    long retryMillis() default -1;
+}
@@ -0,0 +1,40 @@
+package com.monframework.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Désigne la méthode du contrôleur qui donne la date de dernière
+ * modification de la ressource (long en millisecondes, Instant, Date,
+ * OffsetDateTime ou ZonedDateTime). Elle reçoit les mêmes paramètres que la
+ * méthode GET : si la ressource n'a pas changé depuis If-Modified-Since, la
+ * réponse est un 304 sans appeler la méthode GET ni rendre la vue.
+ *
+ * Exemple :
+ * <pre>
+ * {@code
+ * @GET
+ * @HandleUrl("/article/{id}")
+ * @LastModified("modifieLe")
+ * public ModelView article(int id) { ... }
+ *
+ * public Instant modifieLe(int id) {
+ *     return articles.dateModification(id);
+ * }
+ * }
+ * </pre>
+ *
+ * Si @ETag est aussi présente, If-None-Match est prioritaire.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface LastModified {
+    /**
+     * Nom de la méthode de validation, dans la même classe.
+     */
+    String value();
+}
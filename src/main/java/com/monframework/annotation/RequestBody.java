@@ -0,0 +1,39 @@
+package com.monframework.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Lie le corps JSON de la requête à un argument de méthode (record, bean,
+ * liste, Map...). Le corps est lu en flux, sans copie intermédiaire.
+ *
+ * Exemple :
+ * <pre>
+ * {@code
+ * @POST
+ * @HandleUrl("/commandes")
+ * public String creer(@RequestBody Commande commande) {
+ *     ...
+ * }
+ * }
+ * </pre>
+ *
+ * Content-Type autre que JSON : 415. JSON invalide : 400. Corps trop gros : 413.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface RequestBody {
+    /**
+     * Si false, un corps vide donne null au lieu d'une erreur 400.
+     */
+    boolean required() default true;
+
+    /**
+     * Taille maximale du corps en octets ; -1 reprend le paramètre json.maxBodySize.
+     */
+    long maxBytes() default -1;
+}
@@ -0,0 +1,36 @@
+package com.monframework.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Durée maximale de traitement d'une route. La méthode du contrôleur est
+ * exécutée sur un thread séparé ; une fois le délai écoulé, elle est
+ * interrompue et le client reçoit immédiatement une réponse 504.
+ *
+ * Exemple :
+ * <pre>
+ * {@code
+ * @HandleUrl("/recherche")
+ * @RouteDeadline(2000)
+ * public ModelView recherche(String q) {
+ *     Duration budget = Deadline.remaining();
+ *     ...
+ * }
+ * }
+ * </pre>
+ *
+ * Remplace le délai par défaut {@code deadline.defaultMillis} ; peut être
+ * remplacée sans recompiler par le paramètre d'initialisation
+ * {@code deadline.GET:/recherche = 5000} (0 = pas de délai).
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface RouteDeadline {
+    /** Délai en millisecondes (0 = pas de délai, même si un délai par défaut est configuré). */
+    long value();
+}
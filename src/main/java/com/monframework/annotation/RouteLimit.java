@@ -0,0 +1,41 @@
+package com.monframework.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limite la charge acceptée par une route. Les requêtes en excès reçoivent
+ * immédiatement une réponse 503 avec un en-tête Retry-After, sans que le
+ * contrôleur ne soit appelé.
+ *
+ * Exemple :
+ * <pre>
+ * {@code
+ * @HandleUrl("/rapport")
+ * @RouteLimit(maxConcurrent = 4, permitsPerSecond = 20)
+ * public ModelView rapport() { ... }
+ * }
+ * </pre>
+ *
+ * Peut être remplacée sans recompiler par le paramètre d'initialisation
+ * {@code limit.GET:/rapport = maxConcurrent=8,permitsPerSecond=50,adaptive=true}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface RouteLimit {
+    /** Nombre maximal d'appels simultanés (0 = pas de limite). */
+    int maxConcurrent() default 0;
+
+    /** Débit maximal en requêtes par seconde (0 = pas de limite). */
+    double permitsPerSecond() default 0;
+
+    /** Rafale acceptée au-delà du débit (par défaut : une seconde de débit). */
+    int burst() default 0;
+
+    /** Ajuste la concurrence selon la latence observée. */
+    boolean adaptive() default false;
+}
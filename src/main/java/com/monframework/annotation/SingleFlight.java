@@ -0,0 +1,22 @@
+package com.monframework.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Regroupe les requêtes GET identiques simultanées : tant qu'un appel est en
+ * cours pour une route et des arguments donnés, les requêtes identiques
+ * attendent son résultat au lieu d'appeler à nouveau le contrôleur.
+ *
+ * Réservé aux méthodes GET sans effet de bord dont les paramètres sont des
+ * valeurs simples (String, nombres, enums, dates, tableaux ou listes de
+ * celles-ci) ; sinon l'annotation est ignorée au démarrage.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface SingleFlight {
+}
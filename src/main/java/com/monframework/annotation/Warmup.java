@@ -0,0 +1,27 @@
+package com.monframework.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * URLs d'exemple rejouées au démarrage quand warmup.enabled=true, avant que
+ * l'application ne soit déclarée prête :
+ * <pre>
+ * &#64;HandleUrl("/produits/{id}")
+ * &#64;Warmup({"/catalogue/produits/42?details=true", "/catalogue/produits/7"})
+ * public String produit(int id, boolean details) { ... }
+ * </pre>
+ *
+ * Sans cette annotation, une URL est déduite du pattern pour les routes GET
+ * ({id} de type int -> 1, etc.). Les routes POST ne sont rejouées que si
+ * elles portent l'annotation.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Warmup {
+    String[] value();
+}
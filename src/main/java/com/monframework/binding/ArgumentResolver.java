@@ -0,0 +1,21 @@
+package com.monframework.binding;
+
+import java.util.Map;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Produit la valeur d'un argument de méthode de contrôleur pour une requête.
+ * Un résolveur est construit une fois par paramètre au démarrage ; toute la
+ * recherche de type et de convertisseur est donc faite avant la première requête.
+ */
+@FunctionalInterface
+public interface ArgumentResolver {
+
+    /**
+     * @param urlParams paramètres extraits de l'URL
+     * @param request   la requête HTTP (peut être null)
+     * @return la valeur de l'argument
+     */
+    Object resolve(Map<String, String> urlParams, HttpServletRequest request) throws Exception;
+}
@@ -0,0 +1,391 @@
+package com.monframework.binding;
+
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import com.monframework.annotation.EventStream;
+import com.monframework.annotation.RequestBody;
+import com.monframework.annotation.RequestParam;
+import com.monframework.core.HttpException;
+import com.monframework.json.JsonReaders;
+import com.monframework.multipart.MultipartSettings;
+import com.monframework.multipart.MultipartStream;
+import com.monframework.multipart.RequestBodies;
+import com.monframework.multipart.UploadedFile;
+import com.monframework.sse.EventSink;
+
+/**
+ * Construit les {@link ArgumentResolver} d'une méthode de contrôleur.
+ * Appelé une fois par route au démarrage : le nom de chaque paramètre,
+ * sa source (URL ou requête) et son convertisseur sont figés ici.
+ */
+public final class ArgumentResolvers {
+
+    private ArgumentResolvers() {
+    }
+
+    /**
+     * Crée un résolveur par paramètre de la méthode.
+     *
+     * @param method        la méthode du contrôleur
+     * @param urlParamNames noms des paramètres dynamiques de l'URL
+     * @param registry      registre des convertisseurs
+     */
+    public static ArgumentResolver[] forMethod(Method method, List<String> urlParamNames, ConverterRegistry registry) {
+        Parameter[] parameters = method.getParameters();
+        ArgumentResolver[] resolvers = new ArgumentResolver[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            resolvers[i] = forParameter(parameters[i], urlParamNames, registry);
+        }
+        return resolvers;
+    }
+
+    private static ArgumentResolver forParameter(Parameter parameter, List<String> urlParamNames, ConverterRegistry registry) {
+        Class<?> type = parameter.getType();
+
+        // Corps JSON : lecteur du type déclaré (génériques compris) préparé une fois ici
+        RequestBody requestBody = parameter.getAnnotation(RequestBody.class);
+        if (requestBody != null) {
+            return new JsonBodyResolver(parameter.getParameterizedType(), requestBody);
+        }
+
+        // Cas spécial: un paramètre de type Map reçoit une vue sur tous les paramètres
+        if (type == Map.class) {
+            RequestParameterMap.Mode mode = mapMode(parameter.getParameterizedType());
+            return (urlParams, request) -> new RequestParameterMap(urlParams, request, mode);
+        }
+
+        // Corps de la requête : flux brut ou parties multipart en flux
+        if (type == InputStream.class) {
+            return (urlParams, request) -> RequestBodies.openBody(request, MultipartSettings.getDefault());
+        }
+        if (type == MultipartStream.class) {
+            return (urlParams, request) -> RequestBodies.stream(request, MultipartSettings.getDefault());
+        }
+
+        // Flux Server-Sent Events : ouvert ici, attaché à la réponse après l'appel
+        if (type == EventSink.class) {
+            EventStream settings = parameter.getDeclaringExecutable().getAnnotation(EventStream.class);
+            return (urlParams, request) -> EventSink.open(request, settings);
+        }
+
+        String name = parameterName(parameter);
+        boolean fromUrl = urlParamNames.contains(name);
+
+        // Fichiers d'un formulaire multipart
+        if (type == UploadedFile.class) {
+            return (urlParams, request) -> RequestBodies.isMultipart(request)
+                    ? RequestBodies.form(request, MultipartSettings.getDefault()).getFile(name)
+                    : null;
+        }
+        if ((type == List.class || type == Collection.class)
+                && elementType(parameter.getParameterizedType()) == UploadedFile.class) {
+            return (urlParams, request) -> RequestBodies.isMultipart(request)
+                    ? RequestBodies.form(request, MultipartSettings.getDefault()).getFileList(name)
+                    : Collections.emptyList();
+        }
+
+        // Tableaux et collections : paramètres répétés (?tag=a&tag=b)
+        if (type.isArray() && registry.canConvert(type.getComponentType())) {
+            Class<?> component = type.getComponentType();
+            return new ArrayResolver(name, fromUrl, component, registry.find(component));
+        }
+        if (type == List.class || type == Collection.class || type == Set.class) {
+            Class<?> element = elementType(parameter.getParameterizedType());
+            if (registry.canConvert(element)) {
+                return new CollectionResolver(name, fromUrl, element, registry.find(element), type == Set.class);
+            }
+        }
+
+        TypeConverter<?> converter = registry.find(type);
+        if (converter != null) {
+            return new ScalarResolver(name, fromUrl, type, converter);
+        }
+
+        // Objet de formulaire (bean ou record) : binder préparé une fois ici
+        if (BeanBinder.isBindable(type)) {
+            BeanBinder binder = BeanBinder.create(type, registry);
+            RequestParam requestParam = parameter.getAnnotation(RequestParam.class);
+            String prefix = requestParam != null && !requestParam.value().isEmpty() ? requestParam.value() + "." : "";
+            return new BeanResolver(binder, prefix);
+        }
+
+        // Type inconnu : transmettre la valeur brute comme auparavant
+        return (urlParams, request) -> rawValue(name, fromUrl, urlParams, request);
+    }
+
+    /**
+     * Indique si la méthode lit elle-même le corps de la requête (InputStream,
+     * MultipartStream ou @RequestBody) : le formulaire multipart ne doit alors pas être
+     * analysé automatiquement.
+     */
+    public static boolean readsBody(Method method) {
+        for (Parameter parameter : method.getParameters()) {
+            Class<?> type = parameter.getType();
+            if (type == InputStream.class || type == MultipartStream.class
+                    || parameter.isAnnotationPresent(RequestBody.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Nom HTTP du paramètre : valeur de @RequestParam, sinon nom de la variable.
+     */
+    public static String parameterName(Parameter parameter) {
+        RequestParam requestParam = parameter.getAnnotation(RequestParam.class);
+        if (requestParam != null && !requestParam.value().isEmpty()) {
+            return requestParam.value();
+        }
+        return parameter.getName();
+    }
+
+    /**
+     * Type des éléments d'une collection paramétrée (List&lt;Integer&gt; -> Integer).
+     */
+    public static Class<?> elementType(Type genericType) {
+        if (genericType instanceof ParameterizedType) {
+            Type[] args = ((ParameterizedType) genericType).getActualTypeArguments();
+            if (args.length == 1 && args[0] instanceof Class) {
+                return (Class<?>) args[0];
+            }
+        }
+        return String.class;
+    }
+
+    private static String rawValue(String name, boolean fromUrl, Map<String, String> urlParams, HttpServletRequest request) {
+        // 1. Priorité aux paramètres d'URL, 2. sinon paramètres HTTP
+        if (fromUrl) {
+            return urlParams.get(name);
+        }
+        return request != null ? request.getParameter(name) : null;
+    }
+
+    private static String[] rawValues(String name, boolean fromUrl, Map<String, String> urlParams, HttpServletRequest request) {
+        if (fromUrl) {
+            String value = urlParams.get(name);
+            return value != null ? new String[] { value } : null;
+        }
+        return request != null ? request.getParameterValues(name) : null;
+    }
+
+    private static Object convert(String name, String value, Class<?> type, TypeConverter<?> converter) {
+        try {
+            return converter.convert(value);
+        } catch (ConversionException e) {
+            throw e;
+        } catch (Exception e) {
+            throw ConversionException.invalid(name, value, type, e);
+        }
+    }
+
+    /**
+     * Variante de vue selon le type des valeurs : String[] ou List&lt;String&gt;
+     * donnent toutes les valeurs, tout autre type la première valeur.
+     */
+    private static RequestParameterMap.Mode mapMode(Type genericType) {
+        if (genericType instanceof ParameterizedType) {
+            Type[] args = ((ParameterizedType) genericType).getActualTypeArguments();
+            if (args.length == 2) {
+                if (args[1] == String[].class) {
+                    return RequestParameterMap.Mode.ARRAY;
+                }
+                if (args[1] instanceof ParameterizedType
+                        && ((ParameterizedType) args[1]).getRawType() == List.class) {
+                    return RequestParameterMap.Mode.LIST;
+                }
+            }
+        }
+        return RequestParameterMap.Mode.SINGLE;
+    }
+
+    /**
+     * Paramètre simple converti via le registre.
+     * Une valeur vide est traitée comme absente, sauf pour String.
+     */
+    private static final class ScalarResolver implements ArgumentResolver {
+        private final String name;
+        private final boolean fromUrl;
+        private final Class<?> type;
+        private final TypeConverter<?> converter;
+
+        ScalarResolver(String name, boolean fromUrl, Class<?> type, TypeConverter<?> converter) {
+            this.name = name;
+            this.fromUrl = fromUrl;
+            this.type = type;
+            this.converter = converter;
+        }
+
+        @Override
+        public Object resolve(Map<String, String> urlParams, HttpServletRequest request) {
+            String value = rawValue(name, fromUrl, urlParams, request);
+            if (value == null || (value.isEmpty() && type != String.class)) {
+                if (type.isPrimitive()) {
+                    throw new ConversionException("Paramètre requis manquant: '" + name + "'");
+                }
+                return null;
+            }
+            return convert(name, value, type, converter);
+        }
+    }
+
+    /**
+     * Paramètre de type bean ou record, rempli par un {@link BeanBinder}.
+     */
+    private static final class BeanResolver implements ArgumentResolver {
+        private final BeanBinder binder;
+        private final String prefix;
+
+        BeanResolver(BeanBinder binder, String prefix) {
+            this.binder = binder;
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Object resolve(Map<String, String> urlParams, HttpServletRequest request) throws Exception {
+            try {
+                return binder.bind(prefix, new ParameterSource(urlParams, request));
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+    }
+
+    /**
+     * Paramètre répété lié à un tableau (String[], int[], UUID[]...).
+     */
+    private static final class ArrayResolver implements ArgumentResolver {
+        private final String name;
+        private final boolean fromUrl;
+        private final Class<?> component;
+        private final TypeConverter<?> converter;
+
+        ArrayResolver(String name, boolean fromUrl, Class<?> component, TypeConverter<?> converter) {
+            this.name = name;
+            this.fromUrl = fromUrl;
+            this.component = component;
+            this.converter = converter;
+        }
+
+        @Override
+        public Object resolve(Map<String, String> urlParams, HttpServletRequest request) {
+            String[] values = rawValues(name, fromUrl, urlParams, request);
+            if (values == null) {
+                return Array.newInstance(component, 0);
+            }
+            if (component == String.class) {
+                return values;
+            }
+            Object array = Array.newInstance(component, values.length);
+            for (int i = 0; i < values.length; i++) {
+                // Array.set déballe les wrappers pour les tableaux primitifs
+                Array.set(array, i, convert(name, values[i], component, converter));
+            }
+            return array;
+        }
+    }
+
+    /**
+     * Paramètre répété lié à une List, Set ou Collection.
+     */
+    private static final class CollectionResolver implements ArgumentResolver {
+        private final String name;
+        private final boolean fromUrl;
+        private final Class<?> element;
+        private final TypeConverter<?> converter;
+        private final boolean asSet;
+
+        CollectionResolver(String name, boolean fromUrl, Class<?> element, TypeConverter<?> converter, boolean asSet) {
+            this.name = name;
+            this.fromUrl = fromUrl;
+            this.element = element;
+            this.converter = converter;
+            this.asSet = asSet;
+        }
+
+        @Override
+        public Object resolve(Map<String, String> urlParams, HttpServletRequest request) {
+            String[] values = rawValues(name, fromUrl, urlParams, request);
+            int size = values != null ? values.length : 0;
+            Collection<Object> result = asSet ? new LinkedHashSet<>() : new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                result.add(convert(name, values[i], element, converter));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Paramètre @RequestBody : corps JSON lu en flux vers le type déclaré.
+     */
+    private static final class JsonBodyResolver implements ArgumentResolver {
+        private final Type type;
+        private final JsonReaders.TypeReader reader;
+        private final boolean required;
+        private final long maxBytes;
+
+        JsonBodyResolver(Type type, RequestBody annotation) {
+            this.type = type;
+            this.reader = JsonReaders.forType(type);
+            this.required = annotation.required() || parameterIsPrimitive(type);
+            this.maxBytes = annotation.maxBytes();
+        }
+
+        private static boolean parameterIsPrimitive(Type type) {
+            return type instanceof Class && ((Class<?>) type).isPrimitive();
+        }
+
+        @Override
+        public Object resolve(Map<String, String> urlParams, HttpServletRequest request) throws Exception {
+            if (request == null) {
+                return null;
+            }
+            String contentType = request.getContentType();
+            if (contentType == null && request.getContentLengthLong() <= 0) {
+                // Aucun corps envoyé
+                if (required) {
+                    throw new ConversionException("Corps JSON requis");
+                }
+                return null;
+            }
+            if (!isJson(contentType)) {
+                throw new HttpException(415, "Corps JSON attendu (Content-Type: application/json), reçu "
+                        + contentType);
+            }
+            long max = maxBytes >= 0 ? maxBytes : JsonReaders.getMaxBodySize();
+            Object value;
+            try (InputStream in = RequestBodies.openBody(request, max)) {
+                value = JsonReaders.read(in, type, reader);
+            }
+            if (value == null && required) {
+                throw new ConversionException("Corps JSON requis");
+            }
+            return value;
+        }
+
+        private static boolean isJson(String contentType) {
+            if (contentType == null) {
+                return false;
+            }
+            int semicolon = contentType.indexOf(';');
+            String mime = (semicolon >= 0 ? contentType.substring(0, semicolon) : contentType).trim().toLowerCase();
+            return mime.equals("application/json") || (mime.startsWith("application/") && mime.endsWith("+json"));
+        }
+    }
+}
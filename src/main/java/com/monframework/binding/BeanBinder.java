@@ -0,0 +1,374 @@
+package com.monframework.binding;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Lie les paramètres d'une requête à un objet (bean ou record).
+ *
+ * Un binder est construit une seule fois par type au démarrage : les setters,
+ * champs publics ou composants de record sont résolus en {@link MethodHandle}
+ * et chaque propriété reçoit son convertisseur. Aucune réflexion n'est faite
+ * pendant la requête.
+ *
+ * Noms de paramètres reconnus (avec un préfixe éventuel) :
+ * <pre>
+ * nom=Rakoto                 -> setNom("Rakoto")
+ * adresse.ville=Tana         -> getAdresse().setVille("Tana") (objet imbriqué)
+ * tags=a&amp;tags=b              -> List&lt;String&gt; tags
+ * tags[0]=a&amp;tags[1]=b        -> List&lt;String&gt; tags
+ * lignes[0].produit=12       -> List&lt;Ligne&gt; lignes
+ * </pre>
+ */
+public final class BeanBinder {
+
+    /** Profondeur maximale d'imbrication, protège contre les types récursifs. */
+    private static final int MAX_DEPTH = 8;
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType FACTORY_TYPE = MethodType.methodType(Object.class);
+
+    private final Class<?> type;
+    private final boolean record;
+    private final MethodHandle factory;
+    // Renseigné après la création pour permettre les références circulaires
+    private Property[] properties;
+
+    private BeanBinder(Class<?> type, boolean record, MethodHandle factory) {
+        this.type = type;
+        this.record = record;
+        this.factory = factory;
+    }
+
+    /**
+     * Indique si un type peut être lié comme objet : record, ou classe concrète
+     * hors JDK disposant d'un constructeur sans argument.
+     */
+    public static boolean isBindable(Class<?> type) {
+        if (type.isPrimitive() || type.isArray() || type.isInterface() || type.isEnum()
+                || Modifier.isAbstract(type.getModifiers())) {
+            return false;
+        }
+        String name = type.getName();
+        if (name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jakarta.")) {
+            return false;
+        }
+        if (type.isRecord()) {
+            return true;
+        }
+        try {
+            type.getDeclaredConstructor();
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Construit le binder d'un type et de tous ses types imbriqués.
+     */
+    public static BeanBinder create(Class<?> type, ConverterRegistry registry) {
+        return create(type, registry, new HashMap<>());
+    }
+
+    private static BeanBinder create(Class<?> type, ConverterRegistry registry, Map<Class<?>, BeanBinder> building) {
+        BeanBinder existing = building.get(type);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            List<Property> props = new ArrayList<>();
+            BeanBinder binder;
+            if (type.isRecord()) {
+                RecordComponent[] components = type.getRecordComponents();
+                Class<?>[] ctorTypes = new Class<?>[components.length];
+                for (int i = 0; i < components.length; i++) {
+                    ctorTypes[i] = components[i].getType();
+                }
+                Constructor<?> ctor = type.getDeclaredConstructor(ctorTypes);
+                ctor.setAccessible(true);
+                MethodHandle factory = MethodHandles.lookup().unreflectConstructor(ctor)
+                        .asSpreader(Object[].class, components.length)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+                binder = new BeanBinder(type, true, factory);
+                building.put(type, binder);
+                for (RecordComponent c : components) {
+                    props.add(new Property(c.getName(), c.getType(), c.getGenericType(), null));
+                }
+            } else {
+                Constructor<?> ctor = type.getDeclaredConstructor();
+                ctor.setAccessible(true);
+                MethodHandle factory = MethodHandles.lookup().unreflectConstructor(ctor).asType(FACTORY_TYPE);
+                binder = new BeanBinder(type, false, factory);
+                building.put(type, binder);
+                collectBeanProperties(type, props);
+            }
+            Property[] array = props.toArray(new Property[0]);
+            for (Property p : array) {
+                p.prepare(registry, building);
+            }
+            binder.properties = array;
+            return binder;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Impossible de préparer la liaison du type " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Setters publics (setX à un argument), puis champs publics non finaux
+     * sans setter correspondant.
+     */
+    private static void collectBeanProperties(Class<?> type, List<Property> props) throws IllegalAccessException {
+        Map<String, Property> byName = new LinkedHashMap<>();
+        for (Method m : type.getMethods()) {
+            String name = m.getName();
+            if (name.length() > 3 && name.startsWith("set") && m.getParameterCount() == 1
+                    && !Modifier.isStatic(m.getModifiers())) {
+                String prop = Character.toLowerCase(name.charAt(3)) + name.substring(4);
+                m.setAccessible(true);
+                MethodHandle setter = MethodHandles.lookup().unreflect(m).asType(SETTER_TYPE);
+                byName.putIfAbsent(prop, new Property(prop, m.getParameterTypes()[0], m.getGenericParameterTypes()[0], setter));
+            }
+        }
+        for (Field f : type.getFields()) {
+            int mod = f.getModifiers();
+            if (!Modifier.isStatic(mod) && !Modifier.isFinal(mod) && !byName.containsKey(f.getName())) {
+                MethodHandle setter = MethodHandles.lookup().unreflectSetter(f).asType(SETTER_TYPE);
+                byName.put(f.getName(), new Property(f.getName(), f.getType(), f.getGenericType(), setter));
+            }
+        }
+        props.addAll(byName.values());
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * Crée et remplit une instance à partir des paramètres de la requête.
+     *
+     * @param prefix préfixe des noms ("" ou "commande.")
+     */
+    Object bind(String prefix, ParameterSource source) throws Throwable {
+        return bind(prefix, source, 0);
+    }
+
+    private Object bind(String prefix, ParameterSource source, int depth) throws Throwable {
+        Property[] props = properties;
+        if (record) {
+            Object[] args = new Object[props.length];
+            for (int i = 0; i < props.length; i++) {
+                Object value = props[i].read(prefix, source, depth);
+                args[i] = value != null ? value : defaultValue(props[i].type);
+            }
+            return factory.invokeExact(args);
+        }
+        Object instance = factory.invokeExact();
+        for (Property p : props) {
+            Object value = p.read(prefix, source, depth);
+            if (value != null) {
+                p.setter.invokeExact(instance, value);
+            }
+        }
+        return instance;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+    }
+
+    /**
+     * Indices présents pour un préfixe indexé : "lignes[" -> {0, 1, 3}.
+     */
+    private static TreeSet<Integer> indices(String indexedPrefix, ParameterSource source) {
+        TreeSet<Integer> result = new TreeSet<>();
+        for (String key : source.requestNames()) {
+            if (key.startsWith(indexedPrefix)) {
+                int start = indexedPrefix.length();
+                int end = key.indexOf(']', start);
+                if (end > start && NumberParsing.isInteger(key, start, end)) {
+                    result.add(canonicalIndex(key, start, end));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Indice entre crochets, écrit sans signe ni zéro initial : l'élément est
+     * ensuite relu sous la clé "prefixe[i]", un "[01]" ou un "[+1]" serait
+     * donc perdu en silence. Indice non canonique ou hors des int : 400.
+     */
+    private static int canonicalIndex(String key, int start, int end) {
+        boolean canonical = (key.charAt(start) != '0' || end - start == 1)
+                && key.charAt(start) != '+' && key.charAt(start) != '-'
+                && end - start <= 10;
+        if (canonical) {
+            long index = NumberParsing.parseLong(key, start, end);
+            if (index <= Integer.MAX_VALUE) {
+                return (int) index;
+            }
+        }
+        throw new ConversionException("Indice invalide dans le paramètre '" + key + "'");
+    }
+
+    private enum Kind { SCALAR, ARRAY, COLLECTION, BEAN_COLLECTION, BEAN }
+
+    /**
+     * Propriété d'un bean ou composant de record, avec sa stratégie de lecture figée.
+     */
+    private static final class Property {
+        final String name;
+        final Class<?> type;
+        final Type genericType;
+        final MethodHandle setter;
+        Kind kind;
+        Class<?> element;
+        TypeConverter<?> converter;
+        BeanBinder nested;
+
+        Property(String name, Class<?> type, Type genericType, MethodHandle setter) {
+            this.name = name;
+            this.type = type;
+            this.genericType = genericType;
+            this.setter = setter;
+        }
+
+        void prepare(ConverterRegistry registry, Map<Class<?>, BeanBinder> building) {
+            converter = registry.find(type);
+            if (converter != null) {
+                kind = Kind.SCALAR;
+            } else if (type.isArray() && registry.canConvert(type.getComponentType())) {
+                kind = Kind.ARRAY;
+                element = type.getComponentType();
+                converter = registry.find(element);
+            } else if (type == List.class || type == Collection.class || type == Set.class) {
+                element = ArgumentResolvers.elementType(genericType);
+                converter = registry.find(element);
+                if (converter != null) {
+                    kind = Kind.COLLECTION;
+                } else if (isBindable(element)) {
+                    kind = Kind.BEAN_COLLECTION;
+                    nested = create(element, registry, building);
+                }
+            } else if (isBindable(type)) {
+                kind = Kind.BEAN;
+                nested = create(type, registry, building);
+            }
+        }
+
+        Object read(String prefix, ParameterSource source, int depth) throws Throwable {
+            if (kind == null) {
+                return null;
+            }
+            String key = prefix + name;
+            switch (kind) {
+                case SCALAR: {
+                    String value = source.first(key);
+                    if (value == null || (value.isEmpty() && type != String.class)) {
+                        return null;
+                    }
+                    return convert(key, value, type);
+                }
+                case ARRAY: {
+                    List<String> values = values(key, source);
+                    if (values == null) {
+                        return null;
+                    }
+                    Object array = Array.newInstance(element, values.size());
+                    for (int i = 0; i < values.size(); i++) {
+                        Array.set(array, i, convert(key, values.get(i), element));
+                    }
+                    return array;
+                }
+                case COLLECTION: {
+                    List<String> values = values(key, source);
+                    if (values == null) {
+                        return null;
+                    }
+                    Collection<Object> result = newCollection(values.size());
+                    for (String v : values) {
+                        result.add(convert(key, v, element));
+                    }
+                    return result;
+                }
+                case BEAN_COLLECTION: {
+                    if (depth >= MAX_DEPTH) {
+                        return null;
+                    }
+                    TreeSet<Integer> idx = indices(key + "[", source);
+                    if (idx.isEmpty()) {
+                        return null;
+                    }
+                    Collection<Object> result = newCollection(idx.size());
+                    for (Integer i : idx) {
+                        result.add(nested.bind(key + "[" + i + "].", source, depth + 1));
+                    }
+                    return result;
+                }
+                case BEAN: {
+                    String nestedPrefix = key + ".";
+                    if (depth >= MAX_DEPTH || !source.hasPrefix(nestedPrefix)) {
+                        return null;
+                    }
+                    return nested.bind(nestedPrefix, source, depth + 1);
+                }
+                default:
+                    return null;
+            }
+        }
+
+        private Collection<Object> newCollection(int size) {
+            return type == Set.class ? new LinkedHashSet<>() : new ArrayList<>(size);
+        }
+
+        /**
+         * Valeurs répétées (tags=a&amp;tags=b) ou indexées (tags[0]=a&amp;tags[1]=b).
+         */
+        private static List<String> values(String key, ParameterSource source) {
+            String[] repeated = source.all(key);
+            if (repeated != null) {
+                return List.of(repeated);
+            }
+            TreeSet<Integer> idx = indices(key + "[", source);
+            if (idx.isEmpty()) {
+                return null;
+            }
+            List<String> values = new ArrayList<>(idx.size());
+            for (Integer i : idx) {
+                String v = source.first(key + "[" + i + "]");
+                if (v != null) {
+                    values.add(v);
+                }
+            }
+            return values;
+        }
+
+        private Object convert(String key, String value, Class<?> target) {
+            try {
+                return converter.convert(value);
+            } catch (ConversionException e) {
+                throw e;
+            } catch (Exception e) {
+                throw ConversionException.invalid(key, value, target, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.monframework.binding;
+
+import com.monframework.core.HttpException;
+
+/**
+ * Levée lorsqu'une valeur de paramètre ne peut pas être convertie vers le type
+ * attendu par le contrôleur. Se traduit par une réponse 400 (Bad Request).
+ */
+public class ConversionException extends HttpException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ConversionException(String message) {
+        super(400, message);
+    }
+
+    public ConversionException(String message, Throwable cause) {
+        super(400, message, cause);
+    }
+
+    /**
+     * Construit le message standard pour un paramètre invalide.
+     */
+    public static ConversionException invalid(String paramName, String value, Class<?> targetType, Throwable cause) {
+        return new ConversionException("Paramètre '" + paramName + "' invalide: '" + value
+                + "' n'est pas un " + targetType.getSimpleName(), cause);
+    }
+}
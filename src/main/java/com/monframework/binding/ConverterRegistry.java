@@ -0,0 +1,148 @@
+package com.monframework.binding;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registre des convertisseurs String -> type utilisés pour lier les paramètres
+ * des contrôleurs. Les convertisseurs sont recherchés une seule fois par
+ * paramètre au démarrage (voir {@link ArgumentResolvers}), jamais par requête.
+ *
+ * Types pris en charge par défaut : String, types primitifs et leurs wrappers,
+ * enums, UUID, BigDecimal, BigInteger, LocalDate, LocalTime, LocalDateTime,
+ * Instant, OffsetDateTime, ZonedDateTime et Duration.
+ *
+ * Les convertisseurs utilisateur doivent être enregistrés avant l'initialisation
+ * du FrontServlet (par exemple dans un ServletContextListener).
+ */
+public class ConverterRegistry {
+
+    private static final ConverterRegistry DEFAULT = new ConverterRegistry();
+
+    private final Map<Class<?>, TypeConverter<?>> converters = new ConcurrentHashMap<>();
+
+    public ConverterRegistry() {
+        registerBuiltIns();
+    }
+
+    /**
+     * Retourne le registre partagé utilisé par le FrontServlet.
+     */
+    public static ConverterRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Enregistre (ou remplace) le convertisseur d'un type.
+     */
+    public <T> void register(Class<T> type, TypeConverter<? extends T> converter) {
+        converters.put(type, converter);
+    }
+
+    /**
+     * Retourne le convertisseur d'un type, ou null si le type n'est pas convertible.
+     */
+    public TypeConverter<?> find(Class<?> type) {
+        Class<?> key = wrap(type);
+        TypeConverter<?> converter = converters.get(key);
+        if (converter == null && key.isEnum()) {
+            converter = enumConverter(key);
+            converters.put(key, converter);
+        }
+        return converter;
+    }
+
+    public boolean canConvert(Class<?> type) {
+        return find(type) != null;
+    }
+
+    private void registerBuiltIns() {
+        register(String.class, value -> value);
+        register(Integer.class, value -> NumberParsing.parseInt(value));
+        register(Long.class, value -> NumberParsing.parseLong(value));
+        register(Short.class, value -> Short.valueOf(value.trim()));
+        register(Byte.class, value -> Byte.valueOf(value.trim()));
+        register(Double.class, value -> Double.valueOf(value.trim()));
+        register(Float.class, value -> Float.valueOf(value.trim()));
+        register(Boolean.class, ConverterRegistry::parseBoolean);
+        register(Character.class, value -> {
+            if (value.length() != 1) {
+                throw new IllegalArgumentException("un seul caractère attendu");
+            }
+            return value.charAt(0);
+        });
+        register(BigDecimal.class, value -> new BigDecimal(value.trim()));
+        register(BigInteger.class, value -> new BigInteger(value.trim()));
+        register(UUID.class, value -> UUID.fromString(value.trim()));
+        register(LocalDate.class, value -> LocalDate.parse(value.trim()));
+        register(LocalTime.class, value -> LocalTime.parse(value.trim()));
+        register(LocalDateTime.class, value -> LocalDateTime.parse(value.trim()));
+        register(Instant.class, value -> Instant.parse(value.trim()));
+        register(OffsetDateTime.class, value -> OffsetDateTime.parse(value.trim()));
+        register(ZonedDateTime.class, value -> ZonedDateTime.parse(value.trim()));
+        register(Duration.class, value -> Duration.parse(value.trim()));
+    }
+
+    /**
+     * Compatible avec Boolean.parseBoolean, accepte aussi les valeurs envoyées
+     * par les cases à cocher HTML ("on") et "1"/"yes".
+     */
+    private static Boolean parseBoolean(String value) {
+        String v = value.trim();
+        return v.equalsIgnoreCase("true") || v.equalsIgnoreCase("on")
+                || v.equals("1") || v.equalsIgnoreCase("yes");
+    }
+
+    /**
+     * Convertisseur d'enum : nom exact d'abord, puis nom insensible à la casse.
+     */
+    private static TypeConverter<?> enumConverter(Class<?> enumType) {
+        Object[] constants = enumType.getEnumConstants();
+        Map<String, Object> byName = new ConcurrentHashMap<>();
+        for (Object c : constants) {
+            Enum<?> e = (Enum<?>) c;
+            byName.put(e.name(), e);
+            byName.putIfAbsent(e.name().toUpperCase(Locale.ROOT), e);
+        }
+        return value -> {
+            String v = value.trim();
+            Object found = byName.get(v);
+            if (found == null) {
+                found = byName.get(v.toUpperCase(Locale.ROOT));
+            }
+            if (found == null) {
+                throw new IllegalArgumentException("constante inconnue pour " + enumType.getSimpleName());
+            }
+            return found;
+        };
+    }
+
+    /**
+     * Retourne le type wrapper d'un type primitif (int -> Integer...).
+     */
+    public static Class<?> wrap(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == int.class) return Integer.class;
+        if (type == long.class) return Long.class;
+        if (type == double.class) return Double.class;
+        if (type == boolean.class) return Boolean.class;
+        if (type == float.class) return Float.class;
+        if (type == short.class) return Short.class;
+        if (type == byte.class) return Byte.class;
+        if (type == char.class) return Character.class;
+        return Void.class;
+    }
+}
@@ -0,0 +1,87 @@
+package com.monframework.binding;
+
+/**
+ * Analyse de nombres sur une portion de {@link CharSequence}, sans créer de
+ * sous-chaîne : les espaces de début et de fin sont ignorés par index au lieu
+ * d'appeler {@code trim()}.
+ */
+public final class NumberParsing {
+
+    private NumberParsing() {
+    }
+
+    public static int parseInt(CharSequence s) {
+        return parseInt(s, 0, s.length());
+    }
+
+    /**
+     * Analyse un entier décimal entre {@code start} (inclus) et {@code end} (exclu).
+     *
+     * @throws NumberFormatException si la portion n'est pas un entier valide
+     */
+    public static int parseInt(CharSequence s, int start, int end) {
+        int from = skipLeading(s, start, end);
+        int to = skipTrailing(s, from, end);
+        if (from == to) {
+            throw new NumberFormatException("valeur vide");
+        }
+        return Integer.parseInt(s, from, to, 10);
+    }
+
+    public static long parseLong(CharSequence s) {
+        return parseLong(s, 0, s.length());
+    }
+
+    /**
+     * Analyse un entier long décimal entre {@code start} (inclus) et {@code end} (exclu).
+     *
+     * @throws NumberFormatException si la portion n'est pas un entier valide
+     */
+    public static long parseLong(CharSequence s, int start, int end) {
+        int from = skipLeading(s, start, end);
+        int to = skipTrailing(s, from, end);
+        if (from == to) {
+            throw new NumberFormatException("valeur vide");
+        }
+        return Long.parseLong(s, from, to, 10);
+    }
+
+    /**
+     * Vérifie qu'une portion ne contient que des chiffres, avec un signe optionnel.
+     * Utilisé pour valider sans lever d'exception.
+     */
+    public static boolean isInteger(CharSequence s, int start, int end) {
+        if (start >= end) {
+            return false;
+        }
+        int i = start;
+        char first = s.charAt(i);
+        if (first == '-' || first == '+') {
+            i++;
+            if (i == end) {
+                return false;
+            }
+        }
+        for (; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipLeading(CharSequence s, int start, int end) {
+        while (start < end && Character.isWhitespace(s.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int skipTrailing(CharSequence s, int start, int end) {
+        while (end > start && Character.isWhitespace(s.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+}
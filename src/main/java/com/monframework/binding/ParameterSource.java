@@ -0,0 +1,58 @@
+package com.monframework.binding;
+
+import java.util.Collections;
+import java.util.Map;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Vue combinée des paramètres d'URL et des paramètres HTTP d'une requête,
+ * sans copie : les paramètres d'URL sont prioritaires.
+ */
+final class ParameterSource {
+    private final Map<String, String> urlParams;
+    private final Map<String, String[]> requestParams;
+
+    ParameterSource(Map<String, String> urlParams, HttpServletRequest request) {
+        this.urlParams = urlParams != null ? urlParams : Collections.emptyMap();
+        this.requestParams = request != null ? request.getParameterMap() : Collections.emptyMap();
+    }
+
+    String first(String key) {
+        String value = urlParams.get(key);
+        if (value != null) {
+            return value;
+        }
+        String[] values = requestParams.get(key);
+        return values != null && values.length > 0 ? values[0] : null;
+    }
+
+    String[] all(String key) {
+        String value = urlParams.get(key);
+        if (value != null) {
+            return new String[] { value };
+        }
+        return requestParams.get(key);
+    }
+
+    /**
+     * Vérifie si au moins un paramètre commence par le préfixe donné.
+     */
+    boolean hasPrefix(String prefix) {
+        for (String key : urlParams.keySet()) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        for (String key : requestParams.keySet()) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    Iterable<String> requestNames() {
+        return requestParams.keySet();
+    }
+}
@@ -0,0 +1,146 @@
+package com.monframework.binding;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Vue {@link Map} en lecture seule sur les paramètres d'URL et les paramètres
+ * HTTP d'une requête. Rien n'est copié : chaque clé est résolue à la demande,
+ * les paramètres d'URL étant prioritaires.
+ *
+ * Trois variantes selon la déclaration du paramètre du contrôleur :
+ * <pre>
+ * Map&lt;String, Object&gt; / Map&lt;String, String&gt;  -> première valeur (String)
+ * Map&lt;String, String[]&gt;                      -> toutes les valeurs
+ * Map&lt;String, List&lt;String&gt;&gt;                 -> toutes les valeurs en liste
+ * </pre>
+ */
+public final class RequestParameterMap extends AbstractMap<String, Object> {
+
+    /**
+     * Forme des valeurs exposées par la vue.
+     */
+    public enum Mode { SINGLE, ARRAY, LIST }
+
+    private final Map<String, String> urlParams;
+    private final HttpServletRequest request;
+    private final Mode mode;
+    private Set<Entry<String, Object>> entrySet;
+
+    public RequestParameterMap(Map<String, String> urlParams, HttpServletRequest request, Mode mode) {
+        this.urlParams = urlParams != null ? urlParams : Collections.emptyMap();
+        this.request = request;
+        this.mode = mode;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        String name = (String) key;
+        String urlValue = urlParams.get(name);
+        if (urlValue != null) {
+            switch (mode) {
+                case ARRAY: return new String[] { urlValue };
+                case LIST: return List.of(urlValue);
+                default: return urlValue;
+            }
+        }
+        if (request == null) {
+            return null;
+        }
+        if (mode == Mode.SINGLE) {
+            return request.getParameter(name);
+        }
+        String[] values = request.getParameterValues(name);
+        if (values == null || mode == Mode.ARRAY) {
+            return values;
+        }
+        return List.of(values);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (!(key instanceof String)) {
+            return false;
+        }
+        return urlParams.containsKey(key)
+                || (request != null && request.getParameterMap().containsKey(key));
+    }
+
+    /**
+     * Parcours complet : n'est calculé que si le contrôleur itère sur la Map
+     * (ou appelle size(), keySet()...).
+     */
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+            Iterator<String> urlKeys = urlParams.keySet().iterator();
+            Iterator<String> requestKeys = request != null
+                    ? request.getParameterMap().keySet().iterator()
+                    : Collections.<String>emptyIterator();
+            return new Iterator<Entry<String, Object>>() {
+                private String next = advance();
+
+                private String advance() {
+                    if (urlKeys.hasNext()) {
+                        return urlKeys.next();
+                    }
+                    while (requestKeys.hasNext()) {
+                        String key = requestKeys.next();
+                        // Une clé déjà fournie par l'URL la masque
+                        if (!urlParams.containsKey(key)) {
+                            return key;
+                        }
+                    }
+                    return null;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public Entry<String, Object> next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    String key = next;
+                    next = advance();
+                    return new SimpleImmutableEntry<>(key, get(key));
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            int size = urlParams.size();
+            if (request != null) {
+                for (String key : request.getParameterMap().keySet()) {
+                    if (!urlParams.containsKey(key)) {
+                        size++;
+                    }
+                }
+            }
+            return size;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.monframework.binding;
+
+/**
+ * Convertit la valeur textuelle d'un paramètre HTTP vers un type Java.
+ * Une implémentation doit être sans état : la même instance est partagée
+ * par toutes les requêtes.
+ *
+ * Exemple d'enregistrement :
+ * <pre>
+ * {@code
+ * ConverterRegistry.getDefault().register(Money.class, Money::parse);
+ * }
+ * </pre>
+ *
+ * @param <T> type produit
+ */
+@FunctionalInterface
+public interface TypeConverter<T> {
+
+    /**
+     * Convertit une valeur non nulle.
+     *
+     * @throws Exception toute exception est transformée en réponse 400
+     */
+    T convert(String value) throws Exception;
+}
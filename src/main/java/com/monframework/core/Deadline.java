@@ -0,0 +1,90 @@
+package com.monframework.core;
+
+import java.time.Duration;
+
+/**
+ * Échéance de la requête en cours, fixée par @RouteDeadline ou par
+ * deadline.defaultMillis. Le contrôleur peut consulter le temps restant pour
+ * le transmettre à ses propres appels (base de données, services distants)
+ * et appeler {@link #check()} aux étapes longues : l'interruption du thread
+ * n'arrête pas un calcul qui ne la vérifie pas.
+ *
+ * <pre>
+ * {@code
+ * Duration budget = Deadline.remaining();
+ * if (budget != null) {
+ *     statement.setQueryTimeout((int) Math.max(1, budget.toSeconds()));
+ * }
+ * }
+ * </pre>
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private final long timeoutMillis;
+
+    private Deadline(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.deadlineNanos = System.nanoTime() + timeoutMillis * 1_000_000L;
+    }
+
+    /**
+     * Échéance à timeoutMillis de l'instant présent.
+     */
+    static Deadline after(long timeoutMillis) {
+        return new Deadline(timeoutMillis);
+    }
+
+    /**
+     * Échéance de la requête traitée par le thread courant, ou null s'il n'y en a pas.
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Temps restant avant l'échéance de la requête courante (zéro si elle
+     * est dépassée), ou null si la route n'a pas de délai.
+     */
+    public static Duration remaining() {
+        Deadline deadline = CURRENT.get();
+        return deadline != null ? Duration.ofNanos(Math.max(0, deadline.remainingNanos())) : null;
+    }
+
+    /**
+     * Indique si l'échéance de la requête courante est dépassée.
+     */
+    public static boolean isExpired() {
+        Deadline deadline = CURRENT.get();
+        return deadline != null && deadline.remainingNanos() <= 0;
+    }
+
+    /**
+     * Point d'arrêt coopératif : lève une HttpException 504 si l'échéance est
+     * dépassée ou si le thread a été interrompu.
+     */
+    public static void check() {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null && (deadline.remainingNanos() <= 0 || Thread.currentThread().isInterrupted())) {
+            throw new HttpException(504, "Délai de " + deadline.timeoutMillis + " ms dépassé");
+        }
+    }
+
+    public long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    void bind() {
+        CURRENT.set(this);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+}
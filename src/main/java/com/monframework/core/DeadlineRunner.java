@@ -0,0 +1,230 @@
+package com.monframework.core;
+
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import com.monframework.mapper.RouteMapping;
+import com.monframework.trace.RequestTrace;
+
+/**
+ * Exécution des méthodes de contrôleur soumises à un délai : les arguments
+ * sont liés sur le thread de la requête, puis seul l'appel du contrôleur a
+ * lieu sur un thread du pool pendant que le thread de la requête attend au
+ * plus le délai de la route. Passé ce délai, l'appel est interrompu et le
+ * Dispatcher répond 504 sans attendre sa fin, sauf si la méthode lit encore
+ * le corps de la requête en flux : la réponse attend alors l'arrêt de l'appel.
+ *
+ * Un appel abandonné continue d'occuper une place (deadline.maxInFlight, 200
+ * par défaut) et le jeton de limite de sa route jusqu'à sa fin réelle ; une
+ * fois toutes les places prises, les routes à délai répondent 503.
+ *
+ * La trace de la requête est suivie sur le thread d'exécution puis reportée
+ * dans celle de la requête ; l'échéance y est visible via {@link Deadline}.
+ */
+final class DeadlineRunner {
+
+    private final ExecutorService executor;
+    private final Semaphore slots;
+    private final int maxInFlight;
+
+    DeadlineRunner(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+        this.slots = new Semaphore(maxInFlight);
+        this.executor = newExecutor(maxInFlight);
+    }
+
+    /**
+     * Threads virtuels si disponibles, sinon un pool sans file de maxThreads
+     * threads au plus (les places sont réservées avant la soumission).
+     */
+    private static ExecutorService newExecutor(int maxThreads) {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return new ThreadPoolExecutor(0, maxThreads, 60, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), r -> {
+                        Thread t = new Thread(r, "monframework-deadline-" + counter.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+        }
+    }
+
+    /**
+     * Appelle la méthode de la route avec un délai de timeoutMillis.
+     *
+     * @param permit libération du jeton de limite de la route (contenu null
+     *               sans limite) : reprise par l'appel s'il est abandonné,
+     *               elle n'est exécutée qu'à sa fin réelle
+     * @throws TimeoutException si le délai est dépassé (l'appel est alors interrompu)
+     */
+    Object call(RouteMapping route, Map<String, String> urlParams, HttpServletRequest request, long timeoutMillis,
+                AtomicReference<Runnable> permit) throws Exception {
+        Deadline deadline = Deadline.after(timeoutMillis);
+        RouteMapping.BoundCall call = route.bind(urlParams, request, true);
+        if (deadline.remainingNanos() <= 0) {
+            // Délai consommé par la lecture du corps : inutile d'appeler le contrôleur
+            call.cleanup();
+            throw new TimeoutException();
+        }
+        if (!slots.tryAcquire()) {
+            call.cleanup();
+            throw new HttpException(503, "Trop d'appels en cours (" + maxInFlight + " au plus)");
+        }
+
+        RequestTrace trace = RequestTrace.current();
+        RequestTrace[] delegate = new RequestTrace[1];
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        Completion completion = new Completion();
+
+        Future<Object> future;
+        try {
+            future = executor.submit(() -> {
+                if (!completion.claim()) {
+                    // Abandonné avant de démarrer : la requête a déjà tout libéré
+                    return null;
+                }
+                Thread thread = Thread.currentThread();
+                ClassLoader previousLoader = thread.getContextClassLoader();
+                thread.setContextClassLoader(loader);
+                deadline.bind();
+                if (trace != null) {
+                    delegate[0] = RequestTrace.startDelegate(trace);
+                }
+                try {
+                    return call.invoke();
+                } finally {
+                    if (delegate[0] != null) {
+                        delegate[0].finishDelegate();
+                    }
+                    Deadline.unbind();
+                    thread.setContextClassLoader(previousLoader);
+                    call.cleanup();
+                    slots.release();
+                    completion.finish();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            call.cleanup();
+            slots.release();
+            throw new HttpException(503, "Serveur en cours d'arrêt");
+        }
+
+        try {
+            Object result = future.get(Math.max(0, deadline.remainingNanos()), TimeUnit.NANOSECONDS);
+            if (delegate[0] != null) {
+                delegate[0].mergeInto(trace);
+            }
+            return result;
+        } catch (TimeoutException e) {
+            // Interruption : coopérative, le contrôleur doit la vérifier (E/S, Deadline.check())
+            abandon(future, call, completion, permit);
+            throw e;
+        } catch (InterruptedException e) {
+            abandon(future, call, completion, permit);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            if (delegate[0] != null) {
+                delegate[0].mergeInto(trace);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    /**
+     * Interrompt l'appel et lui confie le jeton de limite. Un appel qui lit
+     * le corps en flux est attendu : la requête ne doit pas être recyclée
+     * par le conteneur pendant qu'il la lit encore. Un appel qui n'a pas
+     * encore démarré ne démarrera plus : sa place et ses fichiers sont
+     * libérés ici.
+     */
+    private void abandon(Future<Object> future, RouteMapping.BoundCall call, Completion completion,
+                         AtomicReference<Runnable> permit) throws InterruptedException {
+        future.cancel(true);
+        completion.onFinish(permit.getAndSet(null));
+        if (completion.claim()) {
+            call.cleanup();
+            slots.release();
+            completion.finish();
+        }
+        if (call.readsRequest()) {
+            completion.await();
+        }
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Fin réelle d'un appel, éventuellement postérieure à la réponse 504.
+     */
+    private static final class Completion {
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private boolean finished;
+        private Runnable onFinish;
+
+        /**
+         * Réserve la fin de l'appel : au thread d'exécution s'il démarre, sinon
+         * à la requête qui l'abandonne. Un seul des deux l'obtient.
+         */
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        /**
+         * Exécute action à la fin de l'appel, tout de suite s'il est déjà terminé.
+         */
+        void onFinish(Runnable action) {
+            if (action == null) {
+                return;
+            }
+            synchronized (this) {
+                if (!finished) {
+                    onFinish = action;
+                    return;
+                }
+            }
+            action.run();
+        }
+
+        void finish() {
+            Runnable action;
+            synchronized (this) {
+                finished = true;
+                action = onFinish;
+                notifyAll();
+            }
+            if (action != null) {
+                action.run();
+            }
+        }
+
+        synchronized void await() throws InterruptedException {
+            while (!finished) {
+                wait();
+            }
+        }
+    }
+}
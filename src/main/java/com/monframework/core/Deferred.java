@@ -0,0 +1,205 @@
+package com.monframework.core;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Résultat différé d'un contrôleur, pour le long-polling : la méthode rend la
+ * main aussitôt et la réponse part quand une autre partie de l'application
+ * appelle {@link #complete(Object)}.
+ * <pre>
+ * {@code
+ * @HandleUrl("/messages/attente")
+ * public Deferred<String> attendre() {
+ *     Deferred<String> resultat = new Deferred<>(25_000);
+ *     boite.enAttente(resultat);
+ *     return resultat;
+ * }
+ * }
+ * </pre>
+ * La valeur est rendue comme un retour normal (String, objet JSON, ou
+ * ModelView, dont la vue est alors rendue par AsyncContext.dispatch). Sans
+ * valeur avant le délai, la réponse est 204 et le client relance sa requête.
+ *
+ * Dans un conteneur, aucun thread n'est retenu pendant l'attente
+ * (traitement asynchrone) ; sur le serveur embarqué, le thread de la
+ * connexion attend.
+ */
+public class Deferred<T> {
+
+    /**
+     * Rendu du résultat (appelé une seule fois).
+     */
+    interface Completion {
+        /**
+         * @return true si la réponse a été confiée à AsyncContext.dispatch
+         *         (le contexte ne doit alors pas être terminé ici)
+         */
+        boolean accept(Object value, Throwable error) throws Exception;
+    }
+
+    private static final Object TIMED_OUT = new Object();
+
+    private final long timeoutMillis;
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private boolean done;
+    /** Réponse en cours d'envoi ou envoyée : distinct de done, le rendu pouvant être encore planifié. */
+    private boolean delivered;
+    private Object value;
+    private Throwable error;
+    private Runnable onDone;
+
+    public Deferred() {
+        this(30_000);
+    }
+
+    /**
+     * @param timeoutMillis délai avant une réponse 204
+     */
+    public Deferred(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Fournit le résultat.
+     *
+     * @return false si le résultat était déjà fourni ou le délai écoulé
+     */
+    public boolean complete(T value) {
+        return finish(value, null);
+    }
+
+    /**
+     * Termine en erreur (une HttpException donne son statut, sinon 500).
+     */
+    public boolean fail(Throwable error) {
+        return finish(null, error);
+    }
+
+    public synchronized boolean isDone() {
+        return done;
+    }
+
+    private boolean finish(Object value, Throwable error) {
+        Runnable callback;
+        synchronized (this) {
+            if (done) {
+                return false;
+            }
+            done = true;
+            this.value = value;
+            this.error = error;
+            callback = onDone;
+        }
+        latch.countDown();
+        if (callback != null) {
+            callback.run();
+        }
+        return true;
+    }
+
+    /**
+     * Marque le délai comme écoulé, sauf si le résultat est arrivé entre-temps.
+     */
+    private synchronized void expire() {
+        if (!done) {
+            done = true;
+            value = TIMED_OUT;
+        }
+        latch.countDown();
+    }
+
+    /**
+     * Attend le résultat puis le rend via completion.
+     */
+    void attach(HttpServletRequest request, HttpServletResponse response, Completion completion) {
+        if (!request.isAsyncSupported()) {
+            // Serveur embarqué : attente dans le thread de la connexion
+            try {
+                if (!latch.await(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    expire();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                expire();
+            }
+            deliver(null, response, completion);
+            return;
+        }
+
+        AsyncContext context = request.startAsync();
+        context.setTimeout(timeoutMillis);
+        context.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                // Le conteneur exige une réponse dans ce rappel : la rendre ici
+                // tant qu'elle n'est pas partie, même si le résultat est arrivé
+                // et que son rendu attend encore un thread (context.start)
+                expire();
+                deliver(context, response, completion);
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                expire();
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        synchronized (this) {
+            if (!done) {
+                onDone = () -> context.start(() -> deliver(context, response, completion));
+                return;
+            }
+        }
+        // Résultat déjà disponible
+        deliver(context, response, completion);
+    }
+
+    private void deliver(AsyncContext context, HttpServletResponse response, Completion completion) {
+        Object result;
+        Throwable failure;
+        synchronized (this) {
+            if (delivered) {
+                return;
+            }
+            delivered = true;
+            result = value;
+            failure = error;
+        }
+        boolean dispatched = false;
+        try {
+            if (result == TIMED_OUT) {
+                response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+            } else {
+                dispatched = completion.accept(result, failure);
+            }
+        } catch (Exception e) {
+            System.err.println("Erreur lors de l'envoi d'un résultat différé: " + e);
+        } finally {
+            if (context != null && !dispatched) {
+                try {
+                    context.complete();
+                } catch (IllegalStateException e) {
+                    // Déjà terminé par le conteneur
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,716 @@
+package com.monframework.core;
+
+import jakarta.servlet.RequestDispatcher;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import com.monframework.annotation.RouteDeadline;
+import com.monframework.annotation.RouteLimit;
+import com.monframework.inject.Container;
+import com.monframework.jfr.CacheEvent;
+import com.monframework.json.JsonReaders;
+import com.monframework.json.JsonWriters;
+import com.monframework.jfr.DispatchEvent;
+import com.monframework.limit.RouteLimiter;
+import com.monframework.mapper.RouteMapping;
+import com.monframework.mapper.RouteTable;
+import com.monframework.multipart.MultipartSettings;
+import com.monframework.server.BatchEndpoint;
+import com.monframework.sse.EventSink;
+import com.monframework.sse.SseHeartbeats;
+import com.monframework.trace.AllocationAccounting;
+import com.monframework.trace.CountingResponse;
+import com.monframework.trace.FrameworkStats;
+import com.monframework.trace.RequestTrace;
+import com.monframework.trace.RouteStats;
+import com.monframework.trace.Stage;
+import com.monframework.trace.TraceExporter;
+import com.monframework.trace.Tracing;
+
+/**
+ * Traitement d'une requête, indépendant du conteneur : routage, limites de
+ * charge, liaison, appel du contrôleur et rendu du résultat.
+ *
+ * Utilisé par le {@link FrontServlet} dans un conteneur de servlets et par le
+ * serveur embarqué ({@code com.monframework.server.EmbeddedServer}) ; les
+ * deux passent donc par exactement le même pipeline.
+ */
+public class Dispatcher {
+
+    /** Attribut du ServletContext contenant le Dispatcher de l'application. */
+    public static final String CONTEXT_ATTRIBUTE = "framework.dispatcher";
+
+    /** Attribut du ServletContext valant TRUE une fois le démarrage (et le préchauffage) terminé. */
+    public static final String READY_ATTRIBUTE = "framework.ready";
+
+    /**
+     * Attribut de requête marquant un appel de préchauffage : ni limite de
+     * charge ni statistiques de route, et les vues JSP ne sont pas rendues.
+     */
+    public static final String WARMUP_ATTRIBUTE = "framework.warmup";
+
+    /**
+     * Ressources servies avant le routage (fichiers statiques du conteneur).
+     */
+    @FunctionalInterface
+    public interface StaticResources {
+        /**
+         * @return true si la requête a été servie
+         */
+        boolean serve(HttpServletRequest request, HttpServletResponse response, String path)
+                throws ServletException, IOException;
+    }
+
+    private final Map<String, RouteMapping> routeMap;
+    private final RouteTable routeTable;
+    /** Corps de la réponse 504, préparé une fois. */
+    private static final byte[] DEADLINE_BODY = "Délai de traitement dépassé\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] JSON_NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+    private BatchEndpoint batch;
+    private Container container;
+    private DeadlineRunner deadlines;
+
+    public Dispatcher(List<RouteMapping> routeMappings) {
+        // Convertir la liste en Map pour une recherche rapide
+        this.routeMap = Collections.unmodifiableMap(RouteMapping.toMap(routeMappings));
+        // Arbre de routage pour les routes à paramètres
+        this.routeTable = new RouteTable(routeMap.values());
+    }
+
+    /**
+     * Scanne les contrôleurs d'un répertoire de classes et configure le Dispatcher.
+     *
+     * @param config lecture des paramètres de configuration (retourne null si absent)
+     */
+    public static Dispatcher scan(Path classesRoot, ClassLoader loader, Function<String, String> config) throws Exception {
+        // Scanner et collecter les routes via RouteMapping, ainsi que les composants injectables
+        List<Class<?>> components = new ArrayList<>();
+        List<RouteMapping> routeMappings = RouteMapping.scanFromClassesRoot(classesRoot, loader, components);
+
+        System.out.println("[DEBUG] Found " + routeMappings.size() + " route mappings");
+        for (RouteMapping rm : routeMappings) {
+            System.out.println("[DEBUG]   -> " + rm);
+        }
+        return configure(routeMappings, config, Container.create(components));
+    }
+
+    /**
+     * Applique la configuration (corps des requêtes, limites, traçage,
+     * statistiques) aux routes et crée le Dispatcher.
+     */
+    public static Dispatcher configure(List<RouteMapping> routeMappings, Function<String, String> config) {
+        return configure(routeMappings, config, Container.empty());
+    }
+
+    /**
+     * Idem, les contrôleurs étant créés par le conteneur d'injection.
+     */
+    public static Dispatcher configure(List<RouteMapping> routeMappings, Function<String, String> config,
+                                       Container container) {
+        configureInjection(routeMappings, container);
+        configureMultipart(config);
+        configureJson(config);
+        configureLimits(routeMappings, config);
+        boolean anyDeadline = configureDeadlines(routeMappings, config);
+        configureTracing(routeMappings, config);
+        registerStats(routeMappings, config);
+        Dispatcher dispatcher = new Dispatcher(routeMappings);
+        dispatcher.container = container;
+        String maxInFlight = config.apply("deadline.maxInFlight");
+        dispatcher.deadlines = anyDeadline
+                ? new DeadlineRunner(maxInFlight != null ? Integer.parseInt(maxInFlight.trim()) : 200)
+                : null;
+        dispatcher.batch = BatchEndpoint.fromConfig(dispatcher, config);
+        return dispatcher;
+    }
+
+    public Map<String, RouteMapping> getRouteMap() {
+        return routeMap;
+    }
+
+    public Container getContainer() {
+        return container;
+    }
+
+    /**
+     * Libère les ressources du Dispatcher (threads du batch, des délais et du
+     * maintien SSE, composants AutoCloseable).
+     */
+    public void shutdown() {
+        if (batch != null) {
+            batch.shutdown();
+        }
+        if (deadlines != null) {
+            deadlines.shutdown();
+        }
+        SseHeartbeats.stop();
+        if (container != null) {
+            container.close();
+        }
+    }
+
+    /**
+     * Prépare la fabrique de contrôleur de chaque route : une dépendance
+     * manquante ou un cycle fait échouer le démarrage plutôt que la première requête.
+     */
+    private static void configureInjection(List<RouteMapping> routeMappings, Container container) {
+        for (RouteMapping rm : routeMappings) {
+            if (rm.getMethod() != null) {
+                rm.setControllerFactory(container.factoryFor(rm.getMethod().getDeclaringClass()));
+            }
+        }
+    }
+
+    /**
+     * Applique les limites de lecture du corps des requêtes (multipart.*).
+     */
+    private static void configureMultipart(Function<String, String> config) {
+        MultipartSettings settings = MultipartSettings.parse(
+                config.apply("multipart.memoryThreshold"),
+                config.apply("multipart.maxFileSize"),
+                config.apply("multipart.maxRequestSize"),
+                config.apply("multipart.maxParts"),
+                config.apply("multipart.maxMemorySize"),
+                config.apply("multipart.tempDir"));
+        MultipartSettings.setDefault(settings);
+        System.out.println("[DEBUG] " + settings);
+    }
+
+    /**
+     * Taille maximale par défaut des corps @RequestBody (json.maxBodySize).
+     */
+    private static void configureJson(Function<String, String> config) {
+        String maxBodySize = config.apply("json.maxBodySize");
+        if (maxBodySize != null) {
+            JsonReaders.setMaxBodySize(Long.parseLong(maxBodySize.trim()));
+        }
+    }
+
+    /**
+     * Crée le limiteur de chaque route à partir de @RouteLimit, remplacé le cas
+     * échéant par le paramètre d'initialisation "limit.METHODE:/url".
+     */
+    private static void configureLimits(List<RouteMapping> routeMappings, Function<String, String> config) {
+        for (RouteMapping rm : routeMappings) {
+            RouteLimit annotation = rm.getMethod() != null ? rm.getMethod().getAnnotation(RouteLimit.class) : null;
+            RouteLimiter limiter = RouteLimiter.create(annotation, config.apply("limit." + rm.getRouteKey()));
+            rm.setLimiter(limiter);
+            if (limiter != null) {
+                System.out.println("[DEBUG] Limite sur " + rm.getRouteKey() + " : " + limiter);
+            }
+        }
+    }
+
+    /**
+     * Fixe le délai de chaque route : @RouteDeadline, sinon deadline.defaultMillis,
+     * remplacé le cas échéant par le paramètre "deadline.METHODE:/url".
+     * Les flux SSE et les résultats différés n'ont pas de délai.
+     *
+     * @return true si au moins une route a un délai
+     */
+    private static boolean configureDeadlines(List<RouteMapping> routeMappings, Function<String, String> config) {
+        String defaultValue = config.apply("deadline.defaultMillis");
+        long defaultMillis = defaultValue != null ? Long.parseLong(defaultValue.trim()) : 0;
+        boolean any = false;
+        for (RouteMapping rm : routeMappings) {
+            RouteDeadline annotation = rm.getMethod() != null ? rm.getMethod().getAnnotation(RouteDeadline.class) : null;
+            String override = config.apply("deadline." + rm.getRouteKey());
+            long millis = override != null ? Long.parseLong(override.trim())
+                    : annotation != null ? annotation.value() : defaultMillis;
+            if (millis > 0 && rm.getMethod() != null && RouteMapping.isLongLived(rm.getMethod())) {
+                if (annotation != null || override != null) {
+                    System.err.println("Warning: délai ignoré sur " + rm.getRouteKey() + " (flux SSE ou résultat différé)");
+                }
+                millis = 0;
+            }
+            rm.setDeadlineMillis(Math.max(0, millis));
+            if (millis > 0) {
+                any = true;
+                if (annotation != null || override != null) {
+                    System.out.println("[DEBUG] Délai sur " + rm.getRouteKey() + " : " + millis + " ms");
+                }
+            }
+        }
+        if (defaultMillis > 0) {
+            System.out.println("[DEBUG] Délai par défaut des routes : " + defaultMillis + " ms");
+        }
+        return any;
+    }
+
+    /**
+     * Configure le traçage (trace.*) et le seuil de lenteur propre à chaque route.
+     */
+    private static void configureTracing(List<RouteMapping> routeMappings, Function<String, String> config) {
+        String exporterClass = config.apply("trace.exporter");
+        TraceExporter exporter = null;
+        if (exporterClass != null && !exporterClass.isBlank()) {
+            try {
+                ClassLoader loader = Thread.currentThread().getContextClassLoader();
+                exporter = (TraceExporter) Class.forName(exporterClass.trim(), true, loader)
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                System.err.println("Warning: exportateur de trace invalide " + exporterClass + " : " + e);
+            }
+        }
+        String sampleRate = config.apply("trace.sampleRate");
+        String slowMillis = config.apply("trace.slowMillis");
+        Tracing.configure(
+                Boolean.parseBoolean(config.apply("trace.enabled")),
+                sampleRate != null ? Double.parseDouble(sampleRate.trim()) : 0.01,
+                slowMillis != null ? Long.parseLong(slowMillis.trim()) : 1000,
+                exporter);
+
+        for (RouteMapping rm : routeMappings) {
+            String routeSlow = config.apply("trace.slowMillis." + rm.getRouteKey());
+            if (routeSlow != null) {
+                rm.setSlowThresholdNanos(Long.parseLong(routeSlow.trim()) * 1_000_000L);
+            }
+        }
+    }
+
+    /**
+     * Active la mesure des allocations si accounting.enabled=true et expose
+     * les statistiques des routes via JMX (activable à chaud).
+     */
+    private static void registerStats(List<RouteMapping> routeMappings, Function<String, String> config) {
+        AllocationAccounting.setEnabled(Boolean.parseBoolean(config.apply("accounting.enabled")));
+        Map<String, RouteStats> stats = new LinkedHashMap<>();
+        for (RouteMapping rm : routeMappings) {
+            stats.put(rm.getRouteKey(), rm.getStats());
+        }
+        Map<String, RouteStats> view = Collections.unmodifiableMap(stats);
+        FrameworkStats.register(new FrameworkStats(() -> view));
+    }
+
+    /**
+     * Traite une requête complète.
+     *
+     * @param resourcePath chemin de la requête sans le contexte de l'application
+     * @param statics      ressources statiques servies avant le routage (peut être null)
+     * @return la route appelée, ou null (ressource statique, route inconnue, batch)
+     */
+    public RouteMapping service(HttpServletRequest request, HttpServletResponse response,
+                        String resourcePath, StaticResources statics)
+            throws ServletException, IOException {
+        // Mesure des étapes (si trace.enabled) et événement JFR
+        RequestTrace trace = Tracing.begin(request.getMethod(), resourcePath, request.getHeader("traceparent"));
+        DispatchEvent event = new DispatchEvent();
+        event.begin();
+        // Mesure des allocations : compter aussi les octets écrits dans la réponse
+        CountingResponse counting = null;
+        if (trace != null && trace.isAccounting()) {
+            counting = new CountingResponse(response);
+            response = counting;
+        }
+        RouteMapping route = null;
+        try {
+            route = dispatch(request, response, resourcePath, statics, trace);
+        } finally {
+            if (counting != null) {
+                trace.setResponseBytes(counting.finish());
+            }
+            if (trace != null) {
+                if (route != null) {
+                    // Les appels de préchauffage ne comptent pas dans les statistiques de la route
+                    RouteStats stats = isWarmup(request) ? null : route.getStats();
+                    Tracing.end(trace, route.getRouteKey(), stats, route.getSlowThresholdNanos(), response.getStatus());
+                } else {
+                    Tracing.end(trace, null, null, -1, response.getStatus());
+                }
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = request.getMethod();
+                event.path = resourcePath;
+                event.routeKey = route != null ? route.getRouteKey() : "";
+                event.status = response.getStatus();
+                event.commit();
+            }
+        }
+        return route;
+    }
+
+    /**
+     * Sert une ressource statique ou appelle la route correspondante.
+     *
+     * @return la route appelée, ou null (ressource statique, route inconnue)
+     */
+    private RouteMapping dispatch(HttpServletRequest request, HttpServletResponse response,
+                                  String resourcePath, StaticResources statics, RequestTrace trace)
+            throws ServletException, IOException {
+        // Vérifier d'abord si c'est une ressource statique
+        if (statics != null && statics.serve(request, response, resourcePath)) {
+            if (trace != null) trace.mark(Stage.STATIC_PROBE);
+            return null;
+        }
+        if (trace != null) trace.mark(Stage.STATIC_PROBE);
+
+        // Récupérer la méthode HTTP de la requête
+        String httpMethod = request.getMethod();
+
+        // Requête batch : les sous-requêtes repassent chacune par le Dispatcher
+        if (batch != null && batch.matches(httpMethod, resourcePath)) {
+            try {
+                batch.handle(request, response);
+            } catch (HttpException e) {
+                sendHttpError(response, e);
+            }
+            return null;
+        }
+
+        // Chercher une route correspondante
+        // D'abord essayer un match exact avec la clé "METHOD:URL"
+        String exactKey = httpMethod + ":" + resourcePath;
+        RouteMapping matchedRoute = routeMap.get(exactKey);
+        if (matchedRoute != null && matchedRoute.isDynamic()) {
+            // "/etudiant/{id}" tapé tel quel : passer par les contraintes du pattern
+            matchedRoute = null;
+        }
+        CacheEvent.emit("route", exactKey, matchedRoute != null);
+        Map<String, String> urlParams = Collections.emptyMap();
+
+        // Si pas de match exact, chercher un pattern dynamique (les contraintes
+        // {id:int}... sont vérifiées ici, avant toute liaison)
+        if (matchedRoute == null) {
+            RouteTable.Match match = routeTable.find(httpMethod, resourcePath);
+            if (match != null) {
+                matchedRoute = match.getRoute();
+                urlParams = match.getParams();
+            }
+        }
+        if (trace != null) trace.mark(Stage.ROUTING);
+
+        if (matchedRoute != null) {
+            // Sous-requête batch : un flux SSE ou un Deferred retiendrait un thread
+            // du batch (et la mémoire de la réponse) sans fin
+            if (request.getAttribute(BatchEndpoint.SUB_REQUEST_ATTRIBUTE) != null
+                    && matchedRoute.getMethod() != null && RouteMapping.isLongLived(matchedRoute.getMethod())) {
+                sendHttpError(response, new HttpException(HttpServletResponse.SC_BAD_REQUEST,
+                        "Flux SSE et résultats différés indisponibles en batch"));
+                return matchedRoute;
+            }
+            // Vérifier la limite de charge de la route avant tout autre travail
+            // (le préchauffage ne consomme pas les jetons destinés aux vrais clients)
+            RouteLimiter limiter = isWarmup(request) ? null : matchedRoute.getLimiter();
+            if (limiter == null) {
+                showMatchedRoute(request, response, resourcePath, matchedRoute, urlParams, new AtomicReference<>());
+                if (trace != null) trace.mark(Stage.RENDER);
+                return matchedRoute;
+            }
+            long permit = limiter.tryAcquire();
+            if (permit == RouteLimiter.REJECTED) {
+                rejectOverloaded(response, limiter);
+                return matchedRoute;
+            }
+            // Jeton repris par un appel abandonné après son délai : libéré à sa fin réelle
+            AtomicReference<Runnable> release = new AtomicReference<>(() -> limiter.release(permit));
+            try {
+                // Route trouvée ! Afficher les informations
+                showMatchedRoute(request, response, resourcePath, matchedRoute, urlParams, release);
+                if (trace != null) trace.mark(Stage.RENDER);
+            } finally {
+                Runnable pending = release.getAndSet(null);
+                if (pending != null) {
+                    pending.run();
+                }
+            }
+        } else {
+            // Aucune route trouvée, afficher la page par défaut
+            showFrameworkPage(request, response, resourcePath);
+        }
+        return matchedRoute;
+    }
+
+    /**
+     * Affiche les informations de la route trouvée et gère le retour (String ou ModelView)
+     *
+     * @param permit libération du jeton de limite, reprise par un appel abandonné après son délai
+     */
+    private void showMatchedRoute(HttpServletRequest request, HttpServletResponse response,
+                                   String requestedPath, RouteMapping route, Map<String, String> urlParams,
+                                   AtomicReference<Runnable> permit)
+            throws IOException, ServletException {
+        try {
+            // Route JSON : refuser un Accept incompatible avant tout appel du contrôleur
+            if (route.rendersJson() && !JsonWriters.acceptsJson(request.getHeader("Accept"))) {
+                throw notAcceptable();
+            }
+
+            // GET conditionnel : 304 d'après les validateurs, sans appeler la méthode ni rendre la vue
+            if (route.handleConditional(urlParams, request, response)) {
+                return;
+            }
+
+            // Appeler la méthode du contrôleur avec les paramètres extraits et la requête HTTP,
+            // sur un thread séparé si la route a un délai
+            long deadlineMillis = route.getDeadlineMillis();
+            Object result = deadlineMillis > 0 && deadlines != null
+                    ? deadlines.call(route, urlParams, request, deadlineMillis, permit)
+                    : route.callMethod(urlParams, request);
+
+            // Flux SSE ouvert par le contrôleur : les événements suivent
+            EventSink sink = EventSink.openedBy(request);
+            if (sink != null) {
+                sink.attach(request, response);
+                return;
+            }
+            // Résultat différé (long-poll) : rendu quand il sera fourni
+            if (result instanceof Deferred) {
+                ((Deferred<?>) result).attach(request, response, (value, error) -> {
+                    Exception failure = error == null ? null
+                            : error instanceof Exception ? (Exception) error : new Exception(error);
+                    if (failure == null) {
+                        try {
+                            if (value instanceof ModelView && request.isAsyncStarted()
+                                    && dispatchView(request, (ModelView) value)) {
+                                return true;
+                            }
+                            render(request, response, value, false);
+                        } catch (Exception e) {
+                            failure = e;
+                        }
+                    }
+                    if (failure != null) {
+                        showError(response, requestedPath, route, failure);
+                    }
+                    // Rendu après la fin de service() : vider le writer d'une
+                    // réponse enveloppée (CountingResponse) avant complete()
+                    response.flushBuffer();
+                    return false;
+                });
+                return;
+            }
+            render(request, response, result, route.rendersJson());
+
+        } catch (TimeoutException e) {
+            rejectTimedOut(response);
+        } catch (Exception e) {
+            showError(response, requestedPath, route, e);
+        }
+    }
+
+    /**
+     * Écrit le résultat du contrôleur : String affiché directement, ModelView
+     * transmis à sa vue, tout autre objet sérialisé en JSON.
+     *
+     * @param json true si la route répond toujours en JSON : null y est écrit tel quel
+     */
+    private static void render(HttpServletRequest request, HttpServletResponse response, Object result,
+                               boolean json) throws IOException, ServletException {
+        // Tester le type de retour
+        if (result instanceof String) {
+            // Si c'est un String, afficher directement
+            response.setContentType("text/html; charset=UTF-8");
+            PrintWriter out = response.getWriter();
+            out.println((String) result);
+
+        } else if (result instanceof ModelView) {
+            // Si c'est un ModelView, faire un forward vers la JSP
+            ModelView mv = (ModelView) result;
+            String viewPath = mv.getView();
+
+            if (viewPath != null && !viewPath.isEmpty()) {
+                // Transférer toutes les données du ModelView vers le request
+                for (Map.Entry<String, Object> entry : mv.getData().entrySet()) {
+                    request.setAttribute(entry.getKey(), entry.getValue());
+                }
+
+                // Forward vers la JSP
+                RequestDispatcher dispatcher = request.getRequestDispatcher(viewPath);
+                if (dispatcher == null) {
+                    if (isWarmup(request)) {
+                        // Préchauffage : le contrôleur a été appelé, la JSP n'est pas rendue
+                        return;
+                    }
+                    // Hors conteneur (serveur embarqué) : pas de moteur JSP
+                    throw new HttpException(500, "Vue " + viewPath + " indisponible : aucun moteur JSP");
+                }
+                dispatcher.forward(request, response);
+            } else {
+                response.setContentType("text/plain; charset=UTF-8");
+                PrintWriter out = response.getWriter();
+                out.println("Erreur: ModelView sans vue définie");
+            }
+        } else if (result != null) {
+            // Tout autre objet (record, bean, collection...) : JSON écrit directement dans la réponse
+            // Type connu seulement à l'exécution (retour Object) : vérifié ici
+            if (!JsonWriters.acceptsJson(request.getHeader("Accept"))) {
+                throw notAcceptable();
+            }
+            response.setContentType("application/json; charset=UTF-8");
+            JsonWriters.write(result, response.getOutputStream());
+        } else if (json) {
+            // Route JSON : l'absence de valeur est le littéral null
+            response.setContentType("application/json; charset=UTF-8");
+            response.getOutputStream().write(JSON_NULL);
+        } else {
+            // null sans type JSON déclaré (String, ModelView, Object...) : rien à rendre
+            throw new HttpException(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    "La méthode a retourné null (String, ModelView ou objet JSON attendu)");
+        }
+    }
+
+    /**
+     * Vue d'un résultat différé : forward est interdit en mode asynchrone ;
+     * le modèle passe dans les attributs de la requête et la vue est rendue
+     * par AsyncContext.dispatch, qui termine lui-même le traitement.
+     *
+     * @return false si le ModelView n'a pas de vue (rendu habituel)
+     */
+    private static boolean dispatchView(HttpServletRequest request, ModelView mv) {
+        String viewPath = mv.getView();
+        if (viewPath == null || viewPath.isEmpty()) {
+            return false;
+        }
+        for (Map.Entry<String, Object> entry : mv.getData().entrySet()) {
+            request.setAttribute(entry.getKey(), entry.getValue());
+        }
+        // dispatch attend un chemin relatif au contexte
+        request.getAsyncContext().dispatch(viewPath.startsWith("/") ? viewPath : "/" + viewPath);
+        return true;
+    }
+
+    private static HttpException notAcceptable() {
+        return new HttpException(HttpServletResponse.SC_NOT_ACCEPTABLE,
+                "Réponse disponible uniquement en application/json");
+    }
+
+    /**
+     * Réponse d'erreur pour une exception levée par le contrôleur ou le rendu.
+     */
+    private static void showError(HttpServletResponse response, String requestedPath, RouteMapping route, Exception e)
+            throws IOException {
+        // Erreur portant un statut HTTP (paramètre invalide -> 400, etc.)
+        HttpException httpError = findHttpException(e);
+        if (httpError != null) {
+            sendHttpError(response, httpError);
+            return;
+        }
+
+        // Log l'erreur complète sur la console serveur
+        System.err.println("Erreur lors de l'appel de la méthode " + route.getMethodName() + ":");
+        e.printStackTrace();
+
+        // Rendu interrompu après l'envoi des premiers octets : le statut ne peut plus changer
+        if (response.isCommitted()) {
+            return;
+        }
+        // En cas d'erreur lors de l'appel de la méthode
+        response.resetBuffer();
+        response.setContentType("text/plain; charset=UTF-8");
+        writeText(response, "Erreur lors de l'appel de la méthode\n"
+                + "URL: " + requestedPath + "\n"
+                + "Classe: " + route.getClassName() + "\n"
+                + "Méthode: " + route.getMethodName() + "()\n"
+                + "\n"
+                + "Exception: " + e.getClass().getName() + "\n"
+                + "Message: " + e.getMessage() + "\n");
+    }
+
+    /**
+     * Écrit un texte d'erreur par le writer, ou par le flux binaire si le
+     * rendu (JSON) l'a déjà ouvert : les deux ne peuvent pas coexister.
+     */
+    private static void writeText(HttpServletResponse response, String text) throws IOException {
+        PrintWriter out;
+        try {
+            out = response.getWriter();
+        } catch (IllegalStateException e) {
+            response.getOutputStream().write(text.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        out.print(text);
+    }
+
+    private static boolean isWarmup(HttpServletRequest request) {
+        return request.getAttribute(WARMUP_ATTRIBUTE) != null;
+    }
+
+    /**
+     * Réponse 503 immédiate pour une route saturée.
+     */
+    private static void rejectOverloaded(HttpServletResponse response, RouteLimiter limiter) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", Long.toString(limiter.retryAfterSeconds()));
+        response.setContentType("text/plain; charset=UTF-8");
+        response.getWriter().println("Service temporairement surchargé");
+    }
+
+    /**
+     * Réponse 504 préparée : le contrôleur n'a pas terminé dans le délai de la route.
+     */
+    private static void rejectTimedOut(HttpServletResponse response) throws IOException {
+        if (response.isCommitted()) {
+            return;
+        }
+        response.resetBuffer();
+        response.setStatus(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+        response.setContentType("text/plain; charset=UTF-8");
+        response.setContentLength(DEADLINE_BODY.length);
+        response.getOutputStream().write(DEADLINE_BODY);
+    }
+
+    /**
+     * Cherche une HttpException dans la chaîne des causes
+     * (une exception levée par le contrôleur arrive enveloppée dans une InvocationTargetException).
+     */
+    private static HttpException findHttpException(Throwable t) {
+        while (t != null) {
+            if (t instanceof HttpException) {
+                return (HttpException) t;
+            }
+            t = t.getCause();
+        }
+        return null;
+    }
+
+    /**
+     * Renvoie une réponse d'erreur avec le statut porté par l'exception.
+     */
+    private static void sendHttpError(HttpServletResponse response, HttpException e) throws IOException {
+        if (response.isCommitted()) {
+            System.err.println("Erreur " + e.getStatus() + " après envoi de la réponse: " + e.getMessage());
+            return;
+        }
+        response.resetBuffer();
+        response.setStatus(e.getStatus());
+        response.setContentType("text/plain; charset=UTF-8");
+        writeText(response, "Erreur " + e.getStatus() + "\n" + e.getMessage() + "\n");
+    }
+
+    private void showFrameworkPage(HttpServletRequest request, HttpServletResponse response,
+                                 String requestedPath)
+            throws IOException {
+        // Aucune route, ou valeur refusée par une contrainte ({id:int}...) : 404
+        response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        response.setContentType("text/plain; charset=UTF-8");
+        PrintWriter out = response.getWriter();
+
+        out.println("Route non trouvée");
+        out.println("URL demandée: " + requestedPath);
+        out.println("Routes disponibles: " + routeMap.size());
+        if (routeMap.isEmpty()) {
+            out.println("(aucune)");
+        } else {
+            for (Map.Entry<String, RouteMapping> entry : routeMap.entrySet()) {
+                RouteMapping rm = entry.getValue();
+                // Minimal: fullUrl -> class#method
+                out.println(rm.getFullUrl() + " -> " + rm.getClassName() + "#" + rm.getMethodName());
+            }
+        }
+    }
+}
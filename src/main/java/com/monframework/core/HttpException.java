@@ -0,0 +1,29 @@
+package com.monframework.core;
+
+/**
+ * Exception portant un code de statut HTTP.
+ * Levée par le framework (ou par un contrôleur) pour produire directement
+ * une réponse d'erreur (400, 413, 503...) au lieu d'une erreur générique.
+ */
+public class HttpException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    public HttpException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public HttpException(int status, String message, Throwable cause) {
+        super(message, cause);
+        this.status = status;
+    }
+
+    /**
+     * Retourne le code de statut HTTP à renvoyer au client.
+     */
+    public int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,274 @@
+package com.monframework.inject;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import com.monframework.annotation.Component;
+import com.monframework.annotation.Inject;
+
+/**
+ * Conteneur d'injection par constructeur.
+ *
+ * Au démarrage, le graphe des constructeurs des {@link Component} est
+ * parcouru une fois (cycles et dépendances manquantes signalés avec le
+ * chemin complet) et chaque composant est créé dans l'ordre de ses
+ * dépendances. Les contrôleurs reçoivent ensuite une fabrique précompilée :
+ * constructeur résolu en MethodHandle, composants déjà liés en arguments, si
+ * bien qu'une requête ne fait plus ni recherche de constructeur ni résolution
+ * de dépendance.
+ *
+ * Un paramètre de type interface ou classe abstraite reçoit l'unique
+ * composant qui l'implémente.
+ */
+public final class Container implements AutoCloseable {
+
+    private final List<Class<?>> componentTypes;
+    private final Map<Class<?>, Object> singletons = new LinkedHashMap<>();
+    private final Map<Class<?>, ControllerFactory> factories = new ConcurrentHashMap<>();
+
+    private Container(Collection<Class<?>> componentTypes) {
+        this.componentTypes = new ArrayList<>(componentTypes);
+    }
+
+    /**
+     * Crée le conteneur et instancie tous les composants. En cas d'échec, les
+     * composants déjà créés sont fermés (ordre inverse) avant de propager l'erreur.
+     *
+     * @throws InjectionException dépendance introuvable ou ambiguë, cycle, constructeur en échec
+     */
+    public static Container create(Collection<Class<?>> componentTypes) {
+        Container container = new Container(componentTypes);
+        long start = System.nanoTime();
+        for (Class<?> type : container.componentTypes) {
+            if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+                throw new InjectionException("@Component sur un type non instanciable: " + type.getName());
+            }
+        }
+        try {
+            for (Class<?> type : container.componentTypes) {
+                container.instantiate(type, new LinkedHashSet<>());
+            }
+        } catch (RuntimeException | Error e) {
+            // Ne pas laisser ouverts les composants déjà créés (pools, fichiers...)
+            container.close();
+            throw e;
+        }
+        if (!container.singletons.isEmpty()) {
+            System.out.println("[DEBUG] Injection: " + container.singletons.size() + " composants créés en "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+        return container;
+    }
+
+    /**
+     * Conteneur sans composant (contrôleurs à constructeur sans argument).
+     */
+    public static Container empty() {
+        return new Container(Collections.emptyList());
+    }
+
+    /**
+     * Composant assignable au type demandé.
+     *
+     * @throws InjectionException aucun ou plusieurs composants
+     */
+    public <T> T get(Class<T> type) {
+        return type.cast(singletons.get(resolve(type, type.getName())));
+    }
+
+    /**
+     * Nombre de composants créés.
+     */
+    public int size() {
+        return singletons.size();
+    }
+
+    /**
+     * Types des composants, dans l'ordre de création.
+     */
+    public Set<Class<?>> getComponentTypes() {
+        return Collections.unmodifiableSet(singletons.keySet());
+    }
+
+    /**
+     * Fabrique des instances d'un contrôleur, préparée une fois par classe :
+     * le singleton s'il est lui-même un composant, sinon une nouvelle instance
+     * par requête construite avec les composants de son constructeur.
+     */
+    public ControllerFactory factoryFor(Class<?> controller) {
+        return factories.computeIfAbsent(controller, this::createFactory);
+    }
+
+    private ControllerFactory createFactory(Class<?> controller) {
+        Object singleton = singletons.get(controller);
+        if (singleton != null) {
+            return () -> singleton;
+        }
+        Constructor<?> constructor = injectableConstructor(controller);
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        Object[] args = new Object[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            Class<?> dependency = resolve(parameterTypes[i], controller.getName());
+            args[i] = singletons.get(dependency);
+        }
+        try {
+            constructor.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflectConstructor(constructor);
+            // Composants liés une fois pour toutes : il reste un appel sans argument
+            MethodHandle bound = MethodHandles.insertArguments(handle, 0, args)
+                    .asType(MethodType.methodType(Object.class));
+            return new HandleFactory(bound);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new InjectionException("Constructeur de " + controller.getName() + " inaccessible: " + e, e);
+        }
+    }
+
+    /**
+     * Ferme les composants AutoCloseable, dans l'ordre inverse de leur création.
+     */
+    @Override
+    public void close() {
+        List<Object> instances = new ArrayList<>(singletons.values());
+        Collections.reverse(instances);
+        for (Object instance : instances) {
+            if (instance instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) instance).close();
+                } catch (Exception e) {
+                    System.err.println("Warning: fermeture de " + instance.getClass().getName() + ": " + e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Crée un composant après ses dépendances (parcours en profondeur).
+     *
+     * @param path composants en cours de création, pour détecter les cycles
+     */
+    private Object instantiate(Class<?> type, LinkedHashSet<Class<?>> path) {
+        Object existing = singletons.get(type);
+        if (existing != null) {
+            return existing;
+        }
+        if (!path.add(type)) {
+            List<String> cycle = new ArrayList<>();
+            boolean inCycle = false;
+            for (Class<?> c : path) {
+                inCycle |= c == type;
+                if (inCycle) {
+                    cycle.add(c.getSimpleName());
+                }
+            }
+            cycle.add(type.getSimpleName());
+            throw new InjectionException("Cycle de dépendances: " + String.join(" -> ", cycle));
+        }
+        Constructor<?> constructor = injectableConstructor(type);
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        Object[] args = new Object[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            args[i] = instantiate(resolve(parameterTypes[i], type.getName()), path);
+        }
+        Object instance;
+        try {
+            constructor.setAccessible(true);
+            instance = constructor.newInstance(args);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new InjectionException("Création du composant " + type.getName() + " impossible: " + cause, cause);
+        }
+        path.remove(type);
+        singletons.put(type, instance);
+        return instance;
+    }
+
+    /**
+     * Composant à injecter pour un type de paramètre.
+     *
+     * @param requiredBy classe demandeuse (message d'erreur)
+     */
+    private Class<?> resolve(Class<?> type, String requiredBy) {
+        if (componentTypes.contains(type)) {
+            return type;
+        }
+        List<Class<?>> candidates = new ArrayList<>(1);
+        for (Class<?> component : componentTypes) {
+            if (type.isAssignableFrom(component)) {
+                candidates.add(component);
+            }
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        if (candidates.isEmpty()) {
+            throw new InjectionException(requiredBy + " dépend de " + type.getName()
+                    + " qui n'est pas un @Component");
+        }
+        throw new InjectionException(requiredBy + " dépend de " + type.getName() + ", ambigu entre "
+                + candidates.stream().map(Class::getName).collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * Constructeur annoté @Inject, sinon l'unique constructeur public, sinon
+     * le constructeur sans argument.
+     */
+    static Constructor<?> injectableConstructor(Class<?> type) {
+        Constructor<?> annotated = null;
+        for (Constructor<?> c : type.getDeclaredConstructors()) {
+            if (c.isAnnotationPresent(Inject.class)) {
+                if (annotated != null) {
+                    throw new InjectionException("Plusieurs constructeurs @Inject dans " + type.getName());
+                }
+                annotated = c;
+            }
+        }
+        if (annotated != null) {
+            return annotated;
+        }
+        Constructor<?>[] publicConstructors = type.getConstructors();
+        if (publicConstructors.length == 1) {
+            return publicConstructors[0];
+        }
+        try {
+            return type.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new InjectionException(type.getName()
+                    + " doit avoir un constructeur sans argument, un seul constructeur public ou un constructeur @Inject");
+        }
+    }
+
+    /**
+     * Fabrique appelant un constructeur dont les arguments sont déjà liés.
+     */
+    private static final class HandleFactory implements ControllerFactory {
+        private final MethodHandle constructor;
+
+        HandleFactory(MethodHandle constructor) {
+            this.constructor = constructor;
+        }
+
+        @Override
+        public Object newInstance() throws Exception {
+            try {
+                return (Object) constructor.invokeExact();
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.monframework.inject;
+
+/**
+ * Crée l'instance de contrôleur utilisée pour une requête.
+ */
+@FunctionalInterface
+public interface ControllerFactory {
+    Object newInstance() throws Exception;
+}
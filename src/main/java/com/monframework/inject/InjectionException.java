@@ -0,0 +1,18 @@
+package com.monframework.inject;
+
+/**
+ * Levée au démarrage lorsque le graphe des composants ne peut pas être
+ * construit (dépendance manquante ou ambiguë, cycle, constructeur en échec).
+ */
+public class InjectionException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InjectionException(String message) {
+        super(message);
+    }
+
+    public InjectionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
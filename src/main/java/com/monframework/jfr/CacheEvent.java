@@ -0,0 +1,41 @@
+package com.monframework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Succès ou échec d'une recherche dans un cache du framework
+ * ("route" : table des routes exactes, "singleflight" : appel en cours partagé).
+ */
+@Name("com.monframework.Cache")
+@Label("Cache Lookup")
+@Category({ "Framework", "Cache" })
+@StackTrace(false)
+public class CacheEvent extends Event {
+
+    @Label("Cache")
+    public String cache;
+
+    @Label("Clé")
+    public String key;
+
+    @Label("Succès")
+    public boolean hit;
+
+    /**
+     * Enregistre une recherche ; sans enregistrement JFR actif, seul
+     * shouldCommit() est évalué.
+     */
+    public static void emit(String cache, String key, boolean hit) {
+        CacheEvent event = new CacheEvent();
+        if (event.shouldCommit()) {
+            event.cache = cache;
+            event.key = key;
+            event.hit = hit;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.monframework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Scan des classes au démarrage (scanFromClassesRoot).
+ */
+@Name("com.monframework.ClassScan")
+@Label("Class Scan")
+@Category({ "Framework", "Startup" })
+public class ClassScanEvent extends Event {
+
+    @Label("Racine")
+    public String root;
+
+    @Label("Fichiers .class")
+    public int classFiles;
+
+    @Label("Contrôleurs")
+    public int controllers;
+
+    @Label("Routes")
+    public int routes;
+
+    @Label("Échecs de chargement")
+    public int failures;
+}
@@ -0,0 +1,29 @@
+package com.monframework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Création du contrôleur et exécution de sa méthode.
+ */
+@Name("com.monframework.ControllerInvocation")
+@Label("Controller Invocation")
+@Category({ "Framework", "HTTP" })
+@StackTrace(false)
+public class ControllerInvocationEvent extends Event {
+
+    @Label("Route")
+    public String routeKey;
+
+    @Label("Contrôleur")
+    public Class<?> controller;
+
+    @Label("Méthode")
+    public String methodName;
+
+    @Label("Succès")
+    public boolean success;
+}
@@ -0,0 +1,32 @@
+package com.monframework.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Traitement complet d'une requête par le FrontServlet (durée = temps de dispatch).
+ */
+@Name("com.monframework.Dispatch")
+@Label("Dispatch")
+@Category({ "Framework", "HTTP" })
+@Description("Requête HTTP traitée par le FrontServlet")
+@StackTrace(false)
+public class DispatchEvent extends Event {
+
+    @Label("Méthode HTTP")
+    public String method;
+
+    @Label("Chemin")
+    public String path;
+
+    @Label("Route")
+    @Description("Clé METHODE:/url de la route appelée, vide si aucune")
+    public String routeKey;
+
+    @Label("Statut")
+    public int status;
+}
@@ -0,0 +1,197 @@
+package com.monframework.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Écriture JSON en UTF-8 directement dans un flux d'octets, via un tampon
+ * interne : les chaînes sont échappées et encodées caractère par caractère,
+ * sans String ni byte[] intermédiaire.
+ */
+public final class JsonOutput {
+
+    private static final byte[] NULL = { 'n', 'u', 'l', 'l' };
+    private static final byte[] TRUE = { 't', 'r', 'u', 'e' };
+    private static final byte[] FALSE = { 'f', 'a', 'l', 's', 'e' };
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes();
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int count;
+
+    public JsonOutput(OutputStream out) {
+        this(out, 8192);
+    }
+
+    public JsonOutput(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[Math.max(64, bufferSize)];
+    }
+
+    public void writeByte(int b) throws IOException {
+        if (count == buffer.length) {
+            flushBuffer();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    /**
+     * Octets déjà encodés (noms de champs précalculés...).
+     */
+    public void writeRaw(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - count) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+    }
+
+    public void writeNull() throws IOException {
+        writeRaw(NULL);
+    }
+
+    public void writeBoolean(boolean value) throws IOException {
+        writeRaw(value ? TRUE : FALSE);
+    }
+
+    public void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writeRaw(MIN_LONG);
+            return;
+        }
+        if (buffer.length - count < 20) {
+            flushBuffer();
+        }
+        if (value < 0) {
+            buffer[count++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        int pos = count + digits;
+        do {
+            buffer[--pos] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        count += digits;
+    }
+
+    /**
+     * Nombre décimal ; NaN et les infinis, absents de JSON, deviennent null.
+     */
+    public void writeDouble(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            writeNull();
+        } else if (value == (long) value && Math.abs(value) < 1e15) {
+            writeLong((long) value);
+        } else {
+            writeAscii(Double.toString(value));
+        }
+    }
+
+    /**
+     * Nombre float écrit avec sa plus courte représentation en float (0.1f
+     * donne 0.1, pas l'élargissement en double) ; NaN et infinis donnent null.
+     */
+    public void writeFloat(float value) throws IOException {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            writeNull();
+        } else if (value == (long) value && Math.abs(value) < 1e15f) {
+            writeLong((long) value);
+        } else {
+            writeAscii(Float.toString(value));
+        }
+    }
+
+    /**
+     * Texte ASCII sans échappement (nombres, littéraux).
+     */
+    public void writeAscii(String s) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            writeByte(s.charAt(i));
+        }
+    }
+
+    /**
+     * Chaîne JSON entre guillemets, échappée et encodée en UTF-8.
+     */
+    public void writeString(CharSequence s) throws IOException {
+        writeByte('"');
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (buffer.length - count < 12) {
+                flushBuffer();
+            }
+            if (c >= 0x20 && c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    buffer[count++] = '\\';
+                }
+                buffer[count++] = (byte) c;
+            } else if (c < 0x20) {
+                buffer[count++] = '\\';
+                switch (c) {
+                    case '\n': buffer[count++] = 'n'; break;
+                    case '\r': buffer[count++] = 'r'; break;
+                    case '\t': buffer[count++] = 't'; break;
+                    case '\b': buffer[count++] = 'b'; break;
+                    case '\f': buffer[count++] = 'f'; break;
+                    default: writeUnicodeEscape(c);
+                }
+            } else if (c < 0x800) {
+                buffer[count++] = (byte) (0xC0 | (c >> 6));
+                buffer[count++] = (byte) (0x80 | (c & 0x3F));
+            } else if (c == '\u2028' || c == '\u2029') {
+                // Valides en JSON mais pas dans du JavaScript inclus dans une page
+                buffer[count++] = '\\';
+                writeUnicodeEscape(c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                buffer[count++] = (byte) (0xF0 | (cp >> 18));
+                buffer[count++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buffer[count++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Demi-caractère isolé : non encodable en UTF-8
+                buffer[count++] = '\\';
+                writeUnicodeEscape(c);
+            } else {
+                buffer[count++] = (byte) (0xE0 | (c >> 12));
+                buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        writeByte('"');
+    }
+
+    /** Écrit "uXXXX" (l'antislash est déjà écrit). */
+    private void writeUnicodeEscape(char c) {
+        buffer[count++] = 'u';
+        buffer[count++] = HEX[(c >> 12) & 0xF];
+        buffer[count++] = HEX[(c >> 8) & 0xF];
+        buffer[count++] = HEX[(c >> 4) & 0xF];
+        buffer[count++] = HEX[c & 0xF];
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    /**
+     * Envoie le tampon dans le flux sous-jacent (sans le fermer).
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+}
@@ -0,0 +1,20 @@
+package com.monframework.json;
+
+import com.monframework.core.HttpException;
+
+/**
+ * Levée lorsqu'un corps JSON est mal formé ou ne correspond pas au type
+ * attendu. Se traduit par une réponse 400 (Bad Request).
+ */
+public class JsonParseException extends HttpException {
+
+    private static final long serialVersionUID = 1L;
+
+    public JsonParseException(String message) {
+        super(400, message);
+    }
+
+    public JsonParseException(String message, Throwable cause) {
+        super(400, message, cause);
+    }
+}
@@ -0,0 +1,553 @@
+package com.monframework.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Analyseur JSON "pull" lisant directement un flux UTF-8 : l'appelant
+ * demande les éléments un par un (beginObject, nextName, nextLong...) et
+ * aucun arbre n'est construit. Seul le texte de la valeur courante est
+ * décodé, dans un tampon réutilisé.
+ */
+public final class JsonReader {
+
+    /** Élément suivant du document. */
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, TRUE, FALSE, NULL, END_DOCUMENT
+    }
+
+    private static final int MAX_DEPTH = 256;
+
+    // Contexte de chaque niveau d'imbrication
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int NONEMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[8192];
+    private int pos;
+    private int limit;
+    private long consumedBefore;
+
+    private final int[] stack = new int[MAX_DEPTH + 1];
+    private int depth = 1;
+    private Token peeked;
+    /** Texte d'un nombre lu d'avance par peek(). */
+    private final StringBuilder text = new StringBuilder(32);
+
+    public JsonReader(InputStream in) {
+        this.in = in;
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Type de l'élément suivant, sans le consommer.
+     */
+    public Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+        int c;
+        switch (stack[depth - 1]) {
+            case EMPTY_ARRAY:
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                return peeked = readValueStart(c);
+            case NONEMPTY_ARRAY:
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                if (c != ',') {
+                    throw syntaxError("',' ou ']' attendu");
+                }
+                return peeked = readValueStart(nextNonWhitespace());
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                boolean empty = stack[depth - 1] == EMPTY_OBJECT;
+                stack[depth - 1] = DANGLING_NAME;
+                c = nextNonWhitespace();
+                if (c == '}') {
+                    return peeked = Token.END_OBJECT;
+                }
+                if (!empty) {
+                    if (c != ',') {
+                        throw syntaxError("',' ou '}' attendu");
+                    }
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw syntaxError("nom de propriété attendu");
+                }
+                return peeked = Token.NAME;
+            case DANGLING_NAME:
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                if (nextNonWhitespace() != ':') {
+                    throw syntaxError("':' attendu");
+                }
+                return peeked = readValueStart(nextNonWhitespace());
+            case EMPTY_DOCUMENT:
+                stack[depth - 1] = NONEMPTY_DOCUMENT;
+                c = nextNonWhitespace();
+                // Document vide : signalé comme tel, l'appelant décide s'il est accepté
+                return peeked = c == -1 ? Token.END_DOCUMENT : readValueStart(c);
+            default:
+                if (nextNonWhitespace() != -1) {
+                    throw syntaxError("données après la fin du document");
+                }
+                return peeked = Token.END_DOCUMENT;
+        }
+    }
+
+    public boolean hasNext() throws IOException {
+        Token t = peek();
+        return t != Token.END_OBJECT && t != Token.END_ARRAY && t != Token.END_DOCUMENT;
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        depth--;
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        depth--;
+    }
+
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        return readString();
+    }
+
+    /**
+     * Chaîne ; un nombre est rendu sous sa forme textuelle.
+     */
+    public String nextString() throws IOException {
+        Token t = peek();
+        if (t == Token.STRING) {
+            peeked = null;
+            return readString();
+        }
+        if (t == Token.NUMBER) {
+            peeked = null;
+            return text.toString();
+        }
+        throw typeError("une chaîne", t);
+    }
+
+    public boolean nextBoolean() throws IOException {
+        Token t = peek();
+        if (t == Token.TRUE || t == Token.FALSE) {
+            peeked = null;
+            return t == Token.TRUE;
+        }
+        throw typeError("un booléen", t);
+    }
+
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+    }
+
+    /**
+     * Entier ; un nombre à virgule ou hors limites est refusé.
+     */
+    public long nextLong() throws IOException {
+        String number = nextNumberText();
+        try {
+            return Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            throw new JsonParseException("Entier attendu, trouvé " + number + " (octet " + offset() + ")");
+        }
+    }
+
+    public double nextDouble() throws IOException {
+        String number = nextNumberText();
+        try {
+            return Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            throw new JsonParseException("Nombre invalide " + number + " (octet " + offset() + ")");
+        }
+    }
+
+    /**
+     * Texte brut du nombre suivant (BigDecimal...). Une chaîne contenant un nombre est acceptée.
+     */
+    public String nextNumberText() throws IOException {
+        Token t = peek();
+        if (t == Token.NUMBER) {
+            peeked = null;
+            return text.toString();
+        }
+        if (t == Token.STRING) {
+            peeked = null;
+            String number = readString().trim();
+            if (number.length() > 64) {
+                throw new JsonParseException("Nombre trop long (octet " + offset() + ")");
+            }
+            return number;
+        }
+        throw typeError("un nombre", t);
+    }
+
+    /**
+     * Ignore la valeur suivante, quelle que soit sa taille.
+     */
+    public void skipValue() throws IOException {
+        int nested = 0;
+        do {
+            Token t = peek();
+            switch (t) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    nested++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    nested++;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    nested--;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    nested--;
+                    break;
+                case NAME:
+                    peeked = null;
+                    skipString();
+                    break;
+                case STRING:
+                    peeked = null;
+                    skipString();
+                    break;
+                case END_DOCUMENT:
+                    throw syntaxError("fin du document inattendue");
+                default:
+                    peeked = null;
+            }
+        } while (nested > 0);
+    }
+
+    /**
+     * Vérifie qu'il ne reste rien après la valeur lue.
+     */
+    public void endDocument() throws IOException {
+        expect(Token.END_DOCUMENT);
+    }
+
+    /**
+     * Position courante (octets consommés), pour les messages d'erreur.
+     */
+    public long offset() {
+        return consumedBefore + pos;
+    }
+
+    // ---- Lecture bas niveau ----
+
+    private void expect(Token token) throws IOException {
+        Token t = peek();
+        if (t != token) {
+            throw typeError(describe(token), t);
+        }
+        peeked = null;
+    }
+
+    private void push(int context) {
+        if (depth == MAX_DEPTH) {
+            throw new JsonParseException("JSON trop imbriqué (profondeur maximale " + MAX_DEPTH + ")");
+        }
+        stack[depth++] = context;
+    }
+
+    private Token readValueStart(int c) throws IOException {
+        switch (c) {
+            case '{':
+                return Token.BEGIN_OBJECT;
+            case '[':
+                return Token.BEGIN_ARRAY;
+            case '"':
+                return Token.STRING;
+            case 't':
+                readLiteral("rue");
+                return Token.TRUE;
+            case 'f':
+                readLiteral("alse");
+                return Token.FALSE;
+            case 'n':
+                readLiteral("ull");
+                return Token.NULL;
+            case -1:
+                throw syntaxError("fin du document inattendue");
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    readNumber(c);
+                    return Token.NUMBER;
+                }
+                throw syntaxError("valeur attendue, trouvé '" + (char) c + "'");
+        }
+    }
+
+    private void readLiteral(String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            if (read() != rest.charAt(i)) {
+                throw syntaxError("littéral invalide");
+            }
+        }
+    }
+
+    /**
+     * Lit un nombre selon la grammaire JSON :
+     * -? (0 | [1-9][0-9]*) (.[0-9]+)? ([eE][+-]?[0-9]+)?
+     */
+    private void readNumber(int first) throws IOException {
+        text.setLength(0);
+        text.append((char) first);
+        int c = first;
+        if (c == '-') {
+            c = appendNext();
+            if (c < '0' || c > '9') {
+                throw syntaxError("chiffre attendu après '-'");
+            }
+        }
+        if (c == '0') {
+            if (isDigit(peekByte())) {
+                throw syntaxError("zéro initial dans un nombre");
+            }
+        } else {
+            appendDigits();
+        }
+        if (peekByte() == '.') {
+            appendNext();
+            if (!isDigit(peekByte())) {
+                throw syntaxError("chiffre attendu après '.'");
+            }
+            appendDigits();
+        }
+        int e = peekByte();
+        if (e == 'e' || e == 'E') {
+            appendNext();
+            int sign = peekByte();
+            if (sign == '+' || sign == '-') {
+                appendNext();
+            }
+            if (!isDigit(peekByte())) {
+                throw syntaxError("chiffre attendu dans l'exposant");
+            }
+            appendDigits();
+        }
+        int next = peekByte();
+        if (next == '.' || next == '-' || next == '+' || next == 'e' || next == 'E' || isDigit(next)) {
+            throw syntaxError("nombre invalide " + text + (char) next);
+        }
+    }
+
+    private int appendNext() throws IOException {
+        int c = read();
+        if (text.length() >= 64) {
+            throw syntaxError("nombre trop long");
+        }
+        if (c >= 0) {
+            text.append((char) c);
+        }
+        return c;
+    }
+
+    private void appendDigits() throws IOException {
+        while (isDigit(peekByte())) {
+            appendNext();
+        }
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Lit une chaîne dont le guillemet ouvrant est consommé, en décodant l'UTF-8 et les échappements.
+     */
+    private String readString() throws IOException {
+        StringBuilder sb = text;
+        sb.setLength(0);
+        while (true) {
+            // Parcours rapide des octets ASCII sans échappement
+            int start = pos;
+            while (pos < limit) {
+                byte b = buffer[pos];
+                if (b == '"' || b == '\\' || b < 0x20) {
+                    break;
+                }
+                pos++;
+            }
+            for (int i = start; i < pos; i++) {
+                sb.append((char) buffer[i]);
+            }
+            int c = read();
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c == '\\') {
+                readEscape(sb);
+            } else if (c == -1) {
+                throw syntaxError("chaîne non terminée");
+            } else if (c < 0x20) {
+                throw syntaxError("caractère de contrôle dans une chaîne");
+            } else if (c < 0x80) {
+                // Fin du tampon atteinte au milieu de l'ASCII
+                sb.append((char) c);
+            } else {
+                readUtf8(c, sb);
+            }
+        }
+    }
+
+    private void skipString() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                read();
+            } else if (c == -1) {
+                throw syntaxError("chaîne non terminée");
+            }
+        }
+    }
+
+    private void readEscape(StringBuilder sb) throws IOException {
+        int c = read();
+        switch (c) {
+            case '"': sb.append('"'); break;
+            case '\\': sb.append('\\'); break;
+            case '/': sb.append('/'); break;
+            case 'b': sb.append('\b'); break;
+            case 'f': sb.append('\f'); break;
+            case 'n': sb.append('\n'); break;
+            case 'r': sb.append('\r'); break;
+            case 't': sb.append('\t'); break;
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("échappement \\u invalide");
+                    }
+                    value = (value << 4) | digit;
+                }
+                sb.append((char) value);
+                break;
+            default:
+                throw syntaxError("échappement invalide");
+        }
+    }
+
+    /**
+     * Décode un caractère UTF-8 multi-octets dont le premier octet est lead.
+     */
+    private void readUtf8(int lead, StringBuilder sb) throws IOException {
+        int extra;
+        int cp;
+        if ((lead & 0xE0) == 0xC0) {
+            extra = 1;
+            cp = lead & 0x1F;
+        } else if ((lead & 0xF0) == 0xE0) {
+            extra = 2;
+            cp = lead & 0x0F;
+        } else if ((lead & 0xF8) == 0xF0) {
+            extra = 3;
+            cp = lead & 0x07;
+        } else {
+            throw syntaxError("UTF-8 invalide");
+        }
+        for (int i = 0; i < extra; i++) {
+            int b = read();
+            if ((b & 0xC0) != 0x80) {
+                throw syntaxError("UTF-8 invalide");
+            }
+            cp = (cp << 6) | (b & 0x3F);
+        }
+        if (!Character.isValidCodePoint(cp)) {
+            throw syntaxError("UTF-8 invalide");
+        }
+        sb.appendCodePoint(cp);
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            int c = read();
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+        }
+    }
+
+    /** Octet suivant (0-255) ou -1 en fin de flux. */
+    private int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++] & 0xFF;
+    }
+
+    private int peekByte() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        consumedBefore += limit;
+        pos = 0;
+        limit = 0;
+        int n = in.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        limit = n;
+        return true;
+    }
+
+    private JsonParseException syntaxError(String message) {
+        return new JsonParseException("JSON invalide à l'octet " + offset() + " : " + message);
+    }
+
+    private JsonParseException typeError(String expected, Token found) {
+        return new JsonParseException("JSON : " + expected + " était attendu, trouvé " + describe(found)
+                + " (octet " + offset() + ")");
+    }
+
+    private static String describe(Token token) {
+        switch (token) {
+            case BEGIN_OBJECT: return "un objet";
+            case END_OBJECT: return "la fin d'un objet";
+            case BEGIN_ARRAY: return "un tableau";
+            case END_ARRAY: return "la fin d'un tableau";
+            case NAME: return "un nom de propriété";
+            case STRING: return "une chaîne";
+            case NUMBER: return "un nombre";
+            case TRUE:
+            case FALSE: return "un booléen";
+            case NULL: return "null";
+            default: return "la fin du document";
+        }
+    }
+}
@@ -0,0 +1,654 @@
+package com.monframework.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.monframework.binding.ConverterRegistry;
+import com.monframework.binding.TypeConverter;
+
+/**
+ * Lecture d'un corps JSON vers le type déclaré d'un paramètre.
+ *
+ * Un {@link TypeReader} est construit une seule fois par type (générique
+ * compris : List&lt;Ligne&gt;) : constructeur canonique des records, setters et
+ * champs publics des beans résolus en {@link MethodHandle}, table nom ->
+ * propriété. La lecture consomme ensuite le flux via {@link JsonReader} sans
+ * construire d'arbre. Les propriétés inconnues sont ignorées.
+ */
+public final class JsonReaders {
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * Lit une valeur non nulle d'un type donné (le null JSON est traité avant).
+     */
+    @FunctionalInterface
+    public interface TypeReader {
+        Object read(JsonReader in) throws IOException;
+    }
+
+    private static volatile long maxBodySize = 1024 * 1024;
+
+    private static final Map<Type, TypeReader> READERS = new ConcurrentHashMap<>();
+    /** Types en cours de construction, pour les types récursifs. */
+    private static final Set<Type> BUILDING = new HashSet<>();
+
+    private JsonReaders() {
+    }
+
+    /**
+     * Taille maximale par défaut d'un corps JSON (json.maxBodySize, -1 = illimitée).
+     */
+    public static long getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    public static void setMaxBodySize(long max) {
+        maxBodySize = max;
+    }
+
+    /**
+     * Lit un document JSON complet du type demandé.
+     *
+     * @return la valeur lue, ou null pour un document vide ou "null"
+     */
+    public static Object read(InputStream body, Type type) throws IOException {
+        return read(body, type, forType(type));
+    }
+
+    /**
+     * Idem avec un lecteur déjà obtenu par {@link #forType(Type)}.
+     */
+    public static Object read(InputStream body, Type type, TypeReader reader) throws IOException {
+        JsonReader in = new JsonReader(body);
+        if (in.peek() == JsonReader.Token.END_DOCUMENT) {
+            return null;
+        }
+        Object value = readNullable(reader, rawClass(type), in);
+        in.endDocument();
+        return value;
+    }
+
+    /**
+     * Lecteur préparé pour un type (créé à la première demande).
+     */
+    public static TypeReader forType(Type type) {
+        TypeReader reader = READERS.get(type);
+        if (reader != null) {
+            return reader;
+        }
+        synchronized (BUILDING) {
+            reader = READERS.get(type);
+            if (reader != null) {
+                return reader;
+            }
+            if (!BUILDING.add(type)) {
+                // Type récursif (Noeud contenant List<Noeud>) : résolu à la lecture
+                return in -> forType(type).read(in);
+            }
+            try {
+                reader = createReader(type);
+                READERS.put(type, reader);
+                return reader;
+            } finally {
+                BUILDING.remove(type);
+            }
+        }
+    }
+
+    private static Object readNullable(TypeReader reader, Class<?> raw, JsonReader in) throws IOException {
+        if (in.peek() == JsonReader.Token.NULL) {
+            in.nextNull();
+            if (raw.isPrimitive()) {
+                throw new JsonParseException("null interdit pour un " + raw.getName() + " (octet " + in.offset() + ")");
+            }
+            return raw == Optional.class ? Optional.empty() : null;
+        }
+        return reader.read(in);
+    }
+
+    // ---- Construction des lecteurs ----
+
+    private static TypeReader createReader(Type type) {
+        Class<?> raw = rawClass(type);
+        if (raw == String.class || raw == CharSequence.class) {
+            return JsonReader::nextString;
+        }
+        if (raw == int.class || raw == Integer.class) {
+            return in -> (int) ranged(in, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+        if (raw == long.class || raw == Long.class) {
+            return JsonReader::nextLong;
+        }
+        if (raw == short.class || raw == Short.class) {
+            return in -> (short) ranged(in, Short.MIN_VALUE, Short.MAX_VALUE);
+        }
+        if (raw == byte.class || raw == Byte.class) {
+            return in -> (byte) ranged(in, Byte.MIN_VALUE, Byte.MAX_VALUE);
+        }
+        if (raw == double.class || raw == Double.class) {
+            return JsonReader::nextDouble;
+        }
+        if (raw == float.class || raw == Float.class) {
+            return in -> (float) in.nextDouble();
+        }
+        if (raw == boolean.class || raw == Boolean.class) {
+            return JsonReader::nextBoolean;
+        }
+        if (raw == char.class || raw == Character.class) {
+            return in -> {
+                String s = in.nextString();
+                if (s.length() != 1) {
+                    throw new JsonParseException("Un seul caractère attendu, trouvé \"" + s + "\"");
+                }
+                return s.charAt(0);
+            };
+        }
+        if (raw == BigDecimal.class) {
+            return in -> {
+                String number = in.nextNumberText();
+                try {
+                    return new BigDecimal(number);
+                } catch (NumberFormatException e) {
+                    throw new JsonParseException("Nombre invalide " + number);
+                }
+            };
+        }
+        if (raw == BigInteger.class) {
+            return in -> {
+                String number = in.nextNumberText();
+                try {
+                    return new BigInteger(number);
+                } catch (NumberFormatException e) {
+                    throw new JsonParseException("Entier attendu, trouvé " + number);
+                }
+            };
+        }
+        if (raw == Object.class) {
+            return JsonReaders::readNatural;
+        }
+        if (raw.isEnum()) {
+            return enumReader(raw);
+        }
+        if (raw == Optional.class) {
+            Type element = typeArgument(type, 0);
+            TypeReader reader = forType(element);
+            Class<?> elementRaw = rawClass(element);
+            return in -> Optional.ofNullable(readNullable(reader, elementRaw, in));
+        }
+        if (raw.isArray()) {
+            Type component = type instanceof GenericArrayType
+                    ? ((GenericArrayType) type).getGenericComponentType() : raw.getComponentType();
+            return arrayReader(component);
+        }
+        if (Collection.class.isAssignableFrom(raw) || raw == Iterable.class) {
+            return collectionReader(raw, typeArgument(type, 0));
+        }
+        if (Map.class.isAssignableFrom(raw)) {
+            return mapReader(raw, typeArgument(type, 0), typeArgument(type, 1));
+        }
+        // Scalaire connu des formulaires (UUID, dates...) : même conversion que les paramètres HTTP
+        TypeConverter<?> converter = ConverterRegistry.getDefault().find(raw);
+        if (converter != null) {
+            return in -> {
+                String s = in.nextString();
+                try {
+                    return converter.convert(s);
+                } catch (Exception e) {
+                    throw new JsonParseException("Valeur \"" + s + "\" invalide pour " + raw.getSimpleName(), e);
+                }
+            };
+        }
+        if (raw.isRecord()) {
+            return recordReader(raw);
+        }
+        return beanReader(raw);
+    }
+
+    private static long ranged(JsonReader in, long min, long max) throws IOException {
+        long value = in.nextLong();
+        if (value < min || value > max) {
+            throw new JsonParseException("Nombre " + value + " hors limites (octet " + in.offset() + ")");
+        }
+        return value;
+    }
+
+    /**
+     * Valeur sans type déclaré : Map, List, String, Long/Double ou Boolean.
+     */
+    private static Object readNatural(JsonReader in) throws IOException {
+        switch (in.peek()) {
+            case BEGIN_OBJECT:
+                Map<String, Object> map = new LinkedHashMap<>();
+                in.beginObject();
+                while (in.hasNext()) {
+                    String name = in.nextName();
+                    map.put(name, readNullable(JsonReaders::readNatural, Object.class, in));
+                }
+                in.endObject();
+                return map;
+            case BEGIN_ARRAY:
+                List<Object> list = new ArrayList<>();
+                in.beginArray();
+                while (in.hasNext()) {
+                    list.add(readNullable(JsonReaders::readNatural, Object.class, in));
+                }
+                in.endArray();
+                return list;
+            case NUMBER:
+                // Le lexer a validé la grammaire JSON du nombre
+                String number = in.nextNumberText();
+                if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                    try {
+                        return Long.parseLong(number);
+                    } catch (NumberFormatException e) {
+                        return new BigInteger(number);
+                    }
+                }
+                return Double.parseDouble(number);
+            case TRUE:
+            case FALSE:
+                return in.nextBoolean();
+            default:
+                return in.nextString();
+        }
+    }
+
+    private static TypeReader enumReader(Class<?> enumType) {
+        Map<String, Object> constants = new HashMap<>();
+        for (Object constant : enumType.getEnumConstants()) {
+            constants.put(((Enum<?>) constant).name(), constant);
+        }
+        return in -> {
+            String name = in.nextString();
+            Object constant = constants.get(name);
+            if (constant == null) {
+                throw new JsonParseException("Valeur \"" + name + "\" inconnue pour " + enumType.getSimpleName());
+            }
+            return constant;
+        };
+    }
+
+    private static TypeReader arrayReader(Type componentType) {
+        Class<?> component = rawClass(componentType);
+        TypeReader element = forType(componentType);
+        return in -> {
+            List<Object> values = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                values.add(readNullable(element, component, in));
+            }
+            in.endArray();
+            Object array = Array.newInstance(component, values.size());
+            for (int i = 0; i < values.size(); i++) {
+                Array.set(array, i, values.get(i));
+            }
+            return array;
+        };
+    }
+
+    private static TypeReader collectionReader(Class<?> raw, Type elementType) {
+        Class<?> elementRaw = rawClass(elementType);
+        TypeReader element = forType(elementType);
+        Supplier<Collection<Object>> factory = collectionFactory(raw);
+        return in -> {
+            Collection<Object> values = factory.get();
+            in.beginArray();
+            while (in.hasNext()) {
+                Object value = readNullable(element, elementRaw, in);
+                try {
+                    values.add(value);
+                } catch (NullPointerException | IllegalArgumentException e) {
+                    // ArrayDeque et consorts refusent null
+                    throw new JsonParseException("Élément " + value + " refusé par " + raw.getSimpleName(), e);
+                }
+            }
+            in.endArray();
+            return values;
+        };
+    }
+
+    /**
+     * Collection du type déclaré : implémentation usuelle pour une interface
+     * (List, Set, SortedSet, Queue, Deque...), sinon la classe elle-même via
+     * son constructeur public sans argument. Un type impossible à créer est
+     * refusé dès la construction du lecteur, donc à l'enregistrement de la route.
+     */
+    private static Supplier<Collection<Object>> collectionFactory(Class<?> raw) {
+        if (raw.isAssignableFrom(ArrayList.class)) {
+            return ArrayList::new;
+        }
+        if (raw.isAssignableFrom(LinkedHashSet.class)) {
+            return LinkedHashSet::new;
+        }
+        if (raw.isAssignableFrom(TreeSet.class)) {
+            return TreeSet::new;
+        }
+        if (raw.isAssignableFrom(LinkedList.class)) {
+            return LinkedList::new;
+        }
+        return instanceFactory(raw);
+    }
+
+    private static Supplier<Map<Object, Object>> mapFactory(Class<?> raw) {
+        if (raw.isAssignableFrom(LinkedHashMap.class)) {
+            return LinkedHashMap::new;
+        }
+        if (raw.isAssignableFrom(TreeMap.class)) {
+            return TreeMap::new;
+        }
+        return instanceFactory(raw);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Supplier<T> instanceFactory(Class<?> raw) {
+        if (raw.isInterface() || Modifier.isAbstract(raw.getModifiers())) {
+            throw new IllegalArgumentException("Type abstrait non lisible en JSON: " + raw.getName());
+        }
+        MethodHandle constructor;
+        try {
+            constructor = MethodHandles.lookup().unreflectConstructor(raw.getConstructor())
+                    .asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(raw.getName()
+                    + " doit avoir un constructeur public sans argument pour être lu en JSON", e);
+        }
+        return () -> {
+            try {
+                return (T) (Object) constructor.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException("Création de " + raw.getName() + " impossible", t);
+            }
+        };
+    }
+
+    private static TypeReader mapReader(Class<?> raw, Type keyType, Type valueType) {
+        Class<?> keyRaw = rawClass(keyType);
+        TypeConverter<?> keyConverter = keyRaw == String.class || keyRaw == Object.class
+                ? null : ConverterRegistry.getDefault().find(keyRaw);
+        if (keyRaw != String.class && keyRaw != Object.class && keyConverter == null) {
+            throw new IllegalArgumentException("Clé de Map non convertible: " + keyRaw.getName());
+        }
+        Class<?> valueRaw = rawClass(valueType);
+        TypeReader value = forType(valueType);
+        Supplier<Map<Object, Object>> factory = mapFactory(raw);
+        return in -> {
+            Map<Object, Object> map = factory.get();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                Object key = name;
+                if (keyConverter != null) {
+                    try {
+                        key = keyConverter.convert(name);
+                    } catch (Exception e) {
+                        throw new JsonParseException("Clé \"" + name + "\" invalide pour " + keyRaw.getSimpleName(), e);
+                    }
+                }
+                Object entry = readNullable(value, valueRaw, in);
+                try {
+                    map.put(key, entry);
+                } catch (NullPointerException | IllegalArgumentException e) {
+                    // ConcurrentHashMap et consorts refusent null
+                    throw new JsonParseException("Valeur de \"" + name + "\" refusée par " + raw.getSimpleName(), e);
+                }
+            }
+            in.endObject();
+            return map;
+        };
+    }
+
+    // ---- Objets ----
+
+    private static TypeReader recordReader(Class<?> type) {
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+        Map<String, Integer> indexes = new HashMap<>();
+        TypeReader[] readers = new TypeReader[components.length];
+        Object[] defaults = new Object[components.length];
+        for (int i = 0; i < components.length; i++) {
+            parameterTypes[i] = components[i].getType();
+            indexes.put(components[i].getName(), i);
+            readers[i] = forType(components[i].getGenericType());
+            defaults[i] = defaultValue(parameterTypes[i]);
+        }
+        MethodHandle constructor;
+        try {
+            Constructor<?> canonical = type.getDeclaredConstructor(parameterTypes);
+            canonical.setAccessible(true);
+            constructor = MethodHandles.lookup().unreflectConstructor(canonical)
+                    .asSpreader(Object[].class, components.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException("Record " + type.getName() + " non instanciable: " + e, e);
+        }
+        return in -> {
+            Object[] args = defaults.clone();
+            in.beginObject();
+            while (in.hasNext()) {
+                Integer index = indexes.get(in.nextName());
+                if (index == null) {
+                    in.skipValue();
+                } else {
+                    Object value = readNullable(readers[index], parameterTypes[index], in);
+                    args[index] = value != null ? value : defaults[index];
+                }
+            }
+            in.endObject();
+            return construct(constructor, args, type);
+        };
+    }
+
+    private static Object construct(MethodHandle constructor, Object[] args, Class<?> type) {
+        try {
+            return (Object) constructor.invokeExact(args);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            // Validation dans le constructeur compact du record (dont requireNonNull) : donnée refusée
+            throw new JsonParseException(type.getSimpleName() + " invalide: " + e.getMessage(), e);
+        } catch (RuntimeException | Error e) {
+            // Défaut du record ou de la JVM : erreur serveur, pas un 400
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    /**
+     * Setter ou champ public d'un bean, avec le lecteur de son type.
+     */
+    private static final class BeanProperty {
+        final MethodHandle setter;
+        final Class<?> raw;
+        final TypeReader reader;
+
+        BeanProperty(MethodHandle setter, Type type) {
+            this.setter = setter.asType(SETTER_TYPE);
+            this.raw = rawClass(type);
+            this.reader = forType(type);
+        }
+    }
+
+    /**
+     * Ajoute une propriété, ou la signale et l'ignore si son type n'est pas
+     * lisible en JSON (interface sans implémentation connue, classe sans
+     * constructeur sans argument...).
+     */
+    private static void addProperty(Map<String, BeanProperty> properties, Class<?> type, String name,
+                                    MethodHandle setter, Type propertyType) {
+        try {
+            properties.put(name, new BeanProperty(setter, propertyType));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Warning: propriété " + type.getSimpleName() + "." + name
+                    + " ignorée en JSON : " + e.getMessage());
+        }
+    }
+
+    private static TypeReader beanReader(Class<?> type) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            throw new IllegalArgumentException("Type abstrait non lisible en JSON: " + type.getName());
+        }
+        MethodHandle factory;
+        try {
+            Constructor<?> ctor = type.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            factory = MethodHandles.lookup().unreflectConstructor(ctor).asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException(type.getName() + " doit avoir un constructeur sans argument pour être lu en JSON", e);
+        }
+        Map<String, BeanProperty> properties = new HashMap<>();
+        for (Method m : type.getMethods()) {
+            if (!Modifier.isStatic(m.getModifiers()) && m.getParameterCount() == 1
+                    && m.getName().startsWith("set") && m.getName().length() > 3) {
+                String name = Character.toLowerCase(m.getName().charAt(3)) + m.getName().substring(4);
+                MethodHandle setter;
+                try {
+                    m.setAccessible(true);
+                    setter = MethodHandles.lookup().unreflect(m);
+                } catch (IllegalAccessException | RuntimeException e) {
+                    // Setter inaccessible : ignoré
+                    continue;
+                }
+                addProperty(properties, type, name, setter, m.getGenericParameterTypes()[0]);
+            }
+        }
+        for (Field f : type.getFields()) {
+            int mod = f.getModifiers();
+            if (!Modifier.isStatic(mod) && !Modifier.isFinal(mod) && !properties.containsKey(f.getName())) {
+                MethodHandle setter;
+                try {
+                    setter = MethodHandles.lookup().unreflectSetter(f);
+                } catch (IllegalAccessException | RuntimeException e) {
+                    // Champ inaccessible : ignoré
+                    continue;
+                }
+                addProperty(properties, type, f.getName(), setter, f.getGenericType());
+            }
+        }
+        return in -> {
+            Object bean;
+            try {
+                bean = (Object) factory.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException("Création de " + type.getName() + " impossible", t);
+            }
+            in.beginObject();
+            while (in.hasNext()) {
+                BeanProperty property = properties.get(in.nextName());
+                if (property == null) {
+                    in.skipValue();
+                    continue;
+                }
+                Object value = readNullable(property.reader, property.raw, in);
+                try {
+                    property.setter.invokeExact(bean, value);
+                } catch (IllegalArgumentException | NullPointerException e) {
+                    // Validation dans le setter : donnée refusée
+                    throw new JsonParseException(type.getSimpleName() + " invalide: " + e.getMessage(), e);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new IllegalStateException(t);
+                }
+            }
+            in.endObject();
+            return bean;
+        };
+    }
+
+    // ---- Types génériques ----
+
+    static Class<?> rawClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        if (type instanceof GenericArrayType) {
+            return Array.newInstance(rawClass(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+        }
+        if (type instanceof WildcardType) {
+            return rawClass(((WildcardType) type).getUpperBounds()[0]);
+        }
+        if (type instanceof TypeVariable) {
+            Type[] bounds = ((TypeVariable<?>) type).getBounds();
+            return bounds.length > 0 ? rawClass(bounds[0]) : Object.class;
+        }
+        return Object.class;
+    }
+
+    private static Type typeArgument(Type type, int index) {
+        if (type instanceof ParameterizedType) {
+            Type[] args = ((ParameterizedType) type).getActualTypeArguments();
+            if (index < args.length) {
+                Type arg = args[index];
+                // List<? extends Ligne> -> Ligne ; variable de type -> sa borne
+                return arg instanceof WildcardType || arg instanceof TypeVariable ? rawClass(arg) : arg;
+            }
+        }
+        return Object.class;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type == Optional.class ? Optional.empty() : null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,471 @@
+package com.monframework.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Sérialisation JSON des objets retournés par les contrôleurs.
+ *
+ * Un {@link TypeWriter} est construit une seule fois par classe (cache
+ * {@link ClassValue}) : les accesseurs des records, getters et champs
+ * publics sont résolus en {@link MethodHandle} et chaque nom de propriété est
+ * encodé d'avance en octets ("nom":). L'écriture se fait ensuite directement
+ * dans le flux de la réponse, sans chaîne ni arbre intermédiaire.
+ *
+ * Types pris en charge : null, String/CharSequence, nombres, booléens,
+ * caractères, enums (nom), UUID, dates java.time (ISO-8601), Date
+ * (millisecondes), Optional, tableaux, Iterable, Map (clés converties en
+ * texte), records et beans.
+ */
+public final class JsonWriters {
+
+    /** Protège contre les graphes d'objets cycliques. */
+    private static final int MAX_DEPTH = 64;
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    /**
+     * Écrit une valeur d'un type donné.
+     */
+    @FunctionalInterface
+    public interface TypeWriter {
+        void write(Object value, JsonOutput out, int depth) throws IOException;
+    }
+
+    private static final ClassValue<TypeWriter> WRITERS = new ClassValue<TypeWriter>() {
+        @Override
+        protected TypeWriter computeValue(Class<?> type) {
+            return createWriter(type);
+        }
+    };
+
+    private JsonWriters() {
+    }
+
+    /**
+     * Écrit value en JSON dans out (le flux n'est pas fermé).
+     */
+    public static void write(Object value, OutputStream out) throws IOException {
+        JsonOutput json = new JsonOutput(out);
+        writeValue(value, json, 0);
+        json.flush();
+    }
+
+    /**
+     * Writer préparé pour une classe (créé à la première demande).
+     */
+    public static TypeWriter forClass(Class<?> type) {
+        return WRITERS.get(type);
+    }
+
+    /**
+     * Écrit une valeur de type quelconque en choisissant le writer de sa classe réelle.
+     */
+    public static void writeValue(Object value, JsonOutput out, int depth) throws IOException {
+        if (value == null) {
+            out.writeNull();
+            return;
+        }
+        if (depth > MAX_DEPTH) {
+            throw new IllegalStateException("Objet trop profond ou cyclique pour JSON (" + value.getClass().getName() + ")");
+        }
+        WRITERS.get(value.getClass()).write(value, out, depth);
+    }
+
+    /**
+     * Indique si l'en-tête Accept autorise une réponse application/json
+     * (en-tête absent, application/json, application/*, *&#47;* ou type en +json,
+     * avec une qualité non nulle).
+     */
+    public static boolean acceptsJson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        int bestSpecificity = -1;
+        boolean bestAccepts = false;
+        for (String range : accept.split(",")) {
+            int semicolon = range.indexOf(';');
+            String type = (semicolon >= 0 ? range.substring(0, semicolon) : range).trim().toLowerCase();
+            int specificity;
+            if (type.equals("application/json") || (type.startsWith("application/") && type.endsWith("+json"))) {
+                specificity = 2;
+            } else if (type.equals("application/*")) {
+                specificity = 1;
+            } else if (type.equals("*/*") || type.equals("*")) {
+                specificity = 0;
+            } else {
+                continue;
+            }
+            if (specificity > bestSpecificity) {
+                bestSpecificity = specificity;
+                bestAccepts = quality(range, semicolon) > 0;
+            }
+        }
+        return bestAccepts;
+    }
+
+    private static double quality(String range, int semicolon) {
+        if (semicolon < 0) {
+            return 1;
+        }
+        for (String param : range.substring(semicolon + 1).split(";")) {
+            int eq = param.indexOf('=');
+            if (eq > 0 && param.substring(0, eq).trim().equalsIgnoreCase("q")) {
+                try {
+                    return Double.parseDouble(param.substring(eq + 1).trim());
+                } catch (NumberFormatException e) {
+                    return 1;
+                }
+            }
+        }
+        return 1;
+    }
+
+    // ---- Construction des writers ----
+
+    private static TypeWriter createWriter(Class<?> type) {
+        if (CharSequence.class.isAssignableFrom(type)) {
+            return (v, out, d) -> out.writeString((CharSequence) v);
+        }
+        if (type == Integer.class || type == Long.class || type == Short.class || type == Byte.class) {
+            return (v, out, d) -> out.writeLong(((Number) v).longValue());
+        }
+        if (type == Double.class) {
+            return (v, out, d) -> out.writeDouble((Double) v);
+        }
+        if (type == Float.class) {
+            return (v, out, d) -> out.writeFloat((Float) v);
+        }
+        if (Number.class.isAssignableFrom(type)) {
+            // BigDecimal, BigInteger, AtomicLong... : représentation exacte
+            return (v, out, d) -> out.writeAscii(v.toString());
+        }
+        if (type == Boolean.class) {
+            return (v, out, d) -> out.writeBoolean((Boolean) v);
+        }
+        if (type == Character.class) {
+            return (v, out, d) -> out.writeString(String.valueOf((char) (Character) v));
+        }
+        if (type.isEnum() || (type.getSuperclass() != null && type.getSuperclass().isEnum())) {
+            return enumWriter(type.isEnum() ? type : type.getSuperclass());
+        }
+        if (type == UUID.class || TemporalAccessor.class.isAssignableFrom(type)) {
+            return (v, out, d) -> out.writeString(v.toString());
+        }
+        if (Date.class.isAssignableFrom(type)) {
+            return (v, out, d) -> out.writeLong(((Date) v).getTime());
+        }
+        if (type == Optional.class) {
+            return (v, out, d) -> writeValue(((Optional<?>) v).orElse(null), out, d);
+        }
+        if (type.isArray()) {
+            return arrayWriter(type.getComponentType());
+        }
+        if (Map.class.isAssignableFrom(type)) {
+            return JsonWriters::writeMap;
+        }
+        if (Iterable.class.isAssignableFrom(type)) {
+            return JsonWriters::writeIterable;
+        }
+        if (type.isRecord()) {
+            return objectWriter(type, recordProperties(type));
+        }
+        return objectWriter(type, beanProperties(type));
+    }
+
+    private static TypeWriter enumWriter(Class<?> enumType) {
+        Object[] constants = enumType.getEnumConstants();
+        byte[][] names = new byte[constants.length][];
+        for (int i = 0; i < constants.length; i++) {
+            names[i] = quoted(((Enum<?>) constants[i]).name());
+        }
+        return (v, out, d) -> out.writeRaw(names[((Enum<?>) v).ordinal()]);
+    }
+
+    private static TypeWriter arrayWriter(Class<?> component) {
+        if (component == int.class) {
+            return (v, out, d) -> {
+                int[] a = (int[]) v;
+                out.writeByte('[');
+                for (int i = 0; i < a.length; i++) {
+                    if (i > 0) out.writeByte(',');
+                    out.writeLong(a[i]);
+                }
+                out.writeByte(']');
+            };
+        }
+        if (component == long.class) {
+            return (v, out, d) -> {
+                long[] a = (long[]) v;
+                out.writeByte('[');
+                for (int i = 0; i < a.length; i++) {
+                    if (i > 0) out.writeByte(',');
+                    out.writeLong(a[i]);
+                }
+                out.writeByte(']');
+            };
+        }
+        if (component == double.class) {
+            return (v, out, d) -> {
+                double[] a = (double[]) v;
+                out.writeByte('[');
+                for (int i = 0; i < a.length; i++) {
+                    if (i > 0) out.writeByte(',');
+                    out.writeDouble(a[i]);
+                }
+                out.writeByte(']');
+            };
+        }
+        if (component == float.class) {
+            return (v, out, d) -> {
+                float[] a = (float[]) v;
+                out.writeByte('[');
+                for (int i = 0; i < a.length; i++) {
+                    if (i > 0) out.writeByte(',');
+                    out.writeFloat(a[i]);
+                }
+                out.writeByte(']');
+            };
+        }
+        if (component == char.class) {
+            return (v, out, d) -> out.writeString(new String((char[]) v));
+        }
+        if (component.isPrimitive()) {
+            // byte, short, boolean : cas rares, accès générique
+            return (v, out, d) -> {
+                int length = Array.getLength(v);
+                out.writeByte('[');
+                for (int i = 0; i < length; i++) {
+                    if (i > 0) out.writeByte(',');
+                    writeValue(Array.get(v, i), out, d + 1);
+                }
+                out.writeByte(']');
+            };
+        }
+        return (v, out, d) -> {
+            Object[] a = (Object[]) v;
+            out.writeByte('[');
+            for (int i = 0; i < a.length; i++) {
+                if (i > 0) out.writeByte(',');
+                writeValue(a[i], out, d + 1);
+            }
+            out.writeByte(']');
+        };
+    }
+
+    private static void writeIterable(Object value, JsonOutput out, int depth) throws IOException {
+        out.writeByte('[');
+        boolean first = true;
+        if (value instanceof List && value instanceof java.util.RandomAccess) {
+            List<?> list = (List<?>) value;
+            for (int i = 0, n = list.size(); i < n; i++) {
+                if (i > 0) out.writeByte(',');
+                writeValue(list.get(i), out, depth + 1);
+            }
+        } else {
+            for (Object element : (Iterable<?>) value) {
+                if (!first) out.writeByte(',');
+                first = false;
+                writeValue(element, out, depth + 1);
+            }
+        }
+        out.writeByte(']');
+    }
+
+    private static void writeMap(Object value, JsonOutput out, int depth) throws IOException {
+        out.writeByte('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+            if (!first) out.writeByte(',');
+            first = false;
+            Object key = entry.getKey();
+            out.writeString(key instanceof Enum ? ((Enum<?>) key).name() : String.valueOf(key));
+            out.writeByte(':');
+            writeValue(entry.getValue(), out, depth + 1);
+        }
+        out.writeByte('}');
+    }
+
+    // ---- Objets : records et beans ----
+
+    /**
+     * Propriété d'un objet : nom encodé d'avance et accesseur.
+     */
+    private static final class Property {
+        /** "nom": (virgule initiale pour les propriétés suivantes) */
+        final byte[] prefix;
+        final MethodHandle getter;
+        /**
+         * Writer fixé au démarrage pour les types finals du JDK (String, Integer...),
+         * sinon choisi selon la classe réelle de la valeur.
+         */
+        final TypeWriter writer;
+
+        Property(byte[] prefix, MethodHandle getter, Class<?> declaredType) {
+            this.prefix = prefix;
+            this.getter = getter.asType(GETTER_TYPE);
+            boolean exact = Modifier.isFinal(declaredType.getModifiers()) && !declaredType.isArray()
+                    && declaredType.getName().startsWith("java.");
+            this.writer = exact ? WRITERS.get(declaredType) : null;
+        }
+    }
+
+    private static TypeWriter objectWriter(Class<?> type, Map<String, Accessor> accessors) {
+        List<Property> list = new ArrayList<>(accessors.size());
+        for (Map.Entry<String, Accessor> e : accessors.entrySet()) {
+            String prefix = (list.isEmpty() ? "" : ",") + quotedString(e.getKey()) + ":";
+            list.add(new Property(prefix.getBytes(StandardCharsets.UTF_8), e.getValue().handle, e.getValue().type));
+        }
+        Property[] properties = list.toArray(new Property[0]);
+        return (v, out, depth) -> {
+            out.writeByte('{');
+            for (Property p : properties) {
+                out.writeRaw(p.prefix);
+                Object propertyValue;
+                try {
+                    propertyValue = p.getter.invokeExact(v);
+                } catch (IOException | RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new IllegalStateException("Lecture de " + type.getName() + " impossible", t);
+                }
+                if (propertyValue == null) {
+                    out.writeNull();
+                } else if (p.writer != null) {
+                    p.writer.write(propertyValue, out, depth + 1);
+                } else {
+                    writeValue(propertyValue, out, depth + 1);
+                }
+            }
+            out.writeByte('}');
+        };
+    }
+
+    private static final class Accessor {
+        final MethodHandle handle;
+        final Class<?> type;
+
+        Accessor(MethodHandle handle, Class<?> type) {
+            this.handle = handle;
+            this.type = type;
+        }
+    }
+
+    private static Map<String, Accessor> recordProperties(Class<?> type) {
+        Map<String, Accessor> properties = new LinkedHashMap<>();
+        for (RecordComponent component : type.getRecordComponents()) {
+            try {
+                Method accessor = component.getAccessor();
+                accessor.setAccessible(true);
+                properties.put(component.getName(),
+                        new Accessor(MethodHandles.lookup().unreflect(accessor), component.getType()));
+            } catch (IllegalAccessException | RuntimeException e) {
+                System.err.println("Warning: composant " + component.getName() + " de " + type.getName()
+                        + " ignoré pour JSON: " + e);
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Getters publics (getX, isX pour un boolean) puis champs publics, dans
+     * l'ordre de déclaration des champs quand il existe.
+     */
+    private static Map<String, Accessor> beanProperties(Class<?> type) {
+        Map<String, Accessor> getters = new LinkedHashMap<>();
+        for (Method m : type.getMethods()) {
+            if (Modifier.isStatic(m.getModifiers()) || m.getParameterCount() != 0
+                    || m.getReturnType() == void.class || m.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            String name = m.getName();
+            String property;
+            if (name.startsWith("get") && name.length() > 3) {
+                property = decapitalize(name.substring(3));
+            } else if (name.startsWith("is") && name.length() > 2 && m.getReturnType() == boolean.class) {
+                property = decapitalize(name.substring(2));
+            } else {
+                continue;
+            }
+            try {
+                m.setAccessible(true);
+                getters.put(property, new Accessor(MethodHandles.lookup().unreflect(m), m.getReturnType()));
+            } catch (IllegalAccessException | RuntimeException e) {
+                // Getter inaccessible (classe interne du JDK...) : ignoré
+            }
+        }
+        for (Field f : type.getFields()) {
+            if (!Modifier.isStatic(f.getModifiers()) && !getters.containsKey(f.getName())) {
+                try {
+                    f.setAccessible(true);
+                    getters.put(f.getName(), new Accessor(MethodHandles.lookup().unreflectGetter(f), f.getType()));
+                } catch (IllegalAccessException | RuntimeException e) {
+                    // Champ inaccessible : ignoré
+                }
+            }
+        }
+
+        // Ordre de déclaration des champs (classes parentes d'abord), puis le reste par nom
+        Map<String, Accessor> ordered = new LinkedHashMap<>();
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.add(0, c);
+        }
+        for (Class<?> c : hierarchy) {
+            for (Field f : c.getDeclaredFields()) {
+                Accessor accessor = getters.remove(f.getName());
+                if (accessor != null) {
+                    ordered.put(f.getName(), accessor);
+                }
+            }
+        }
+        getters.keySet().stream().sorted().forEach(name -> ordered.put(name, getters.get(name)));
+        return ordered;
+    }
+
+    private static String decapitalize(String name) {
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(0)) && Character.isUpperCase(name.charAt(1))) {
+            return name; // URL, ID...
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static byte[] quoted(String s) {
+        return quotedString(s).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Chaîne JSON (avec guillemets) calculée au démarrage pour les noms.
+     */
+    private static String quotedString(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
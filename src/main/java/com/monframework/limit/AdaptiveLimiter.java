@@ -0,0 +1,83 @@
+package com.monframework.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limite de concurrence ajustée selon la latence (approche « gradient ») :
+ * tant que la latence observée reste proche de la latence minimale, la limite
+ * augmente ; quand elle se dégrade (file d'attente en aval), la limite baisse
+ * proportionnellement. Les requêtes au-delà de la limite sont refusées tout de
+ * suite au lieu de s'accumuler dans le pool de threads du conteneur.
+ *
+ * Tout l'état est dans des atomiques ; une mise à jour de la limite perdue
+ * lors d'une course est simplement ignorée (l'échantillon suivant la refera).
+ */
+final class AdaptiveLimiter {
+    private static final double SMOOTHING = 0.2;
+    /** Nombre d'échantillons avant de réévaluer la latence minimale. */
+    private static final long PROBE_INTERVAL = 1000;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong minRtt = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong samples = new AtomicLong();
+
+    AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limitBits = new AtomicLong(Double.doubleToRawLongBits(initialLimit));
+    }
+
+    int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    boolean tryAcquire() {
+        int limit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(long rttNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (rttNanos <= 0) {
+            return;
+        }
+
+        // Latence minimale, réinitialisée périodiquement pour suivre les changements de charge
+        if (samples.incrementAndGet() % PROBE_INTERVAL == 0) {
+            minRtt.set(rttNanos);
+        } else {
+            long min;
+            while (rttNanos < (min = minRtt.get()) && !minRtt.compareAndSet(min, rttNanos)) {
+                // réessayer
+            }
+        }
+
+        long bits = limitBits.get();
+        double limit = Double.longBitsToDouble(bits);
+        // Ne pas augmenter la limite si elle n'est pas réellement utilisée
+        if (inFlightBefore < limit / 2 && rttNanos <= minRtt.get() * 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, (double) minRtt.get() / rttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        double next = limit * (1 - SMOOTHING) + target * SMOOTHING;
+        next = Math.max(minLimit, Math.min(maxLimit, next));
+        limitBits.compareAndSet(bits, Double.doubleToRawLongBits(next));
+    }
+}
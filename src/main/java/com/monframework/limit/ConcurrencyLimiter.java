@@ -0,0 +1,37 @@
+package com.monframework.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cloison (bulkhead) à nombre fixe d'appels simultanés.
+ * Un compteur atomique remplace le sémaphore : l'acquisition est un seul
+ * compare-and-set et un refus ne met jamais le thread en attente.
+ */
+final class ConcurrencyLimiter {
+    private final int max;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    ConcurrencyLimiter(int max) {
+        this.max = max;
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= max) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
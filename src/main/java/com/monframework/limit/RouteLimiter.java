@@ -0,0 +1,151 @@
+package com.monframework.limit;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.monframework.annotation.RouteLimit;
+
+/**
+ * Limiteur d'une route : combine un débit maximal, une concurrence maximale
+ * fixe ou adaptative. Vérifié par le FrontServlet juste après le routage ;
+ * une requête refusée reçoit une 503 avant toute liaison ou appel du contrôleur.
+ *
+ * Usage :
+ * <pre>
+ * long permit = limiter.tryAcquire();
+ * if (permit == RouteLimiter.REJECTED) { ... 503 ... }
+ * try { ... } finally { limiter.release(permit); }
+ * </pre>
+ */
+public final class RouteLimiter {
+
+    /** Valeur retournée par {@link #tryAcquire()} lorsque la requête est refusée. */
+    public static final long REJECTED = Long.MIN_VALUE;
+
+    private static final int DEFAULT_ADAPTIVE_LIMIT = 20;
+    private static final int DEFAULT_ADAPTIVE_MAX = 1000;
+
+    private final TokenBucket rate;
+    private final ConcurrencyLimiter fixed;
+    private final AdaptiveLimiter adaptive;
+    private final LongAdder rejected = new LongAdder();
+
+    private RouteLimiter(TokenBucket rate, ConcurrencyLimiter fixed, AdaptiveLimiter adaptive) {
+        this.rate = rate;
+        this.fixed = fixed;
+        this.adaptive = adaptive;
+    }
+
+    /**
+     * Crée le limiteur d'une route à partir de son annotation et d'une
+     * configuration textuelle optionnelle qui la remplace
+     * ("maxConcurrent=8,permitsPerSecond=50,burst=10,adaptive=true").
+     *
+     * @return le limiteur, ou null si la route n'est pas limitée
+     */
+    public static RouteLimiter create(RouteLimit annotation, String override) {
+        int maxConcurrent = annotation != null ? annotation.maxConcurrent() : 0;
+        double permitsPerSecond = annotation != null ? annotation.permitsPerSecond() : 0;
+        int burst = annotation != null ? annotation.burst() : 0;
+        boolean isAdaptive = annotation != null && annotation.adaptive();
+
+        if (override != null && !override.isBlank()) {
+            for (String entry : override.split(",")) {
+                int eq = entry.indexOf('=');
+                if (eq < 0) {
+                    continue;
+                }
+                String key = entry.substring(0, eq).trim().toLowerCase(Locale.ROOT);
+                String value = entry.substring(eq + 1).trim();
+                switch (key) {
+                    case "maxconcurrent": maxConcurrent = Integer.parseInt(value); break;
+                    case "permitspersecond": permitsPerSecond = Double.parseDouble(value); break;
+                    case "burst": burst = Integer.parseInt(value); break;
+                    case "adaptive": isAdaptive = Boolean.parseBoolean(value); break;
+                    default:
+                        throw new IllegalArgumentException("Option de limite inconnue: " + key);
+                }
+            }
+        }
+
+        TokenBucket rate = null;
+        if (permitsPerSecond > 0) {
+            int effectiveBurst = burst > 0 ? burst : (int) Math.max(1, Math.ceil(permitsPerSecond));
+            rate = new TokenBucket(permitsPerSecond, effectiveBurst);
+        }
+        ConcurrencyLimiter fixed = null;
+        AdaptiveLimiter adaptive = null;
+        if (isAdaptive) {
+            int max = maxConcurrent > 0 ? maxConcurrent : DEFAULT_ADAPTIVE_MAX;
+            adaptive = new AdaptiveLimiter(Math.min(DEFAULT_ADAPTIVE_LIMIT, max), 1, max);
+        } else if (maxConcurrent > 0) {
+            fixed = new ConcurrencyLimiter(maxConcurrent);
+        }
+        if (rate == null && fixed == null && adaptive == null) {
+            return null;
+        }
+        return new RouteLimiter(rate, fixed, adaptive);
+    }
+
+    /**
+     * Tente d'admettre une requête.
+     *
+     * @return un jeton à passer à {@link #release(long)}, ou {@link #REJECTED}
+     */
+    public long tryAcquire() {
+        long now = System.nanoTime();
+        if (rate != null && !rate.tryAcquire(now)) {
+            rejected.increment();
+            return REJECTED;
+        }
+        if (fixed != null && !fixed.tryAcquire()) {
+            rejected.increment();
+            return REJECTED;
+        }
+        if (adaptive != null && !adaptive.tryAcquire()) {
+            rejected.increment();
+            return REJECTED;
+        }
+        return now;
+    }
+
+    /**
+     * Libère une requête admise ; la durée écoulée alimente la limite adaptative.
+     */
+    public void release(long permit) {
+        if (permit == REJECTED) {
+            return;
+        }
+        if (fixed != null) {
+            fixed.release();
+        }
+        if (adaptive != null) {
+            adaptive.release(System.nanoTime() - permit);
+        }
+    }
+
+    /**
+     * Valeur de l'en-tête Retry-After (en secondes, au moins 1).
+     */
+    public long retryAfterSeconds() {
+        if (rate != null) {
+            long nanos = rate.nanosUntilAvailable(System.nanoTime());
+            return Math.max(1, (nanos + 999_999_999L) / 1_000_000_000L);
+        }
+        return 1;
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("RouteLimiter{");
+        if (rate != null) sb.append("rate ");
+        if (fixed != null) sb.append("inFlight=").append(fixed.getInFlight()).append(' ');
+        if (adaptive != null) sb.append("adaptiveLimit=").append(adaptive.getLimit())
+                .append(" inFlight=").append(adaptive.getInFlight()).append(' ');
+        return sb.append("rejected=").append(getRejectedCount()).append('}').toString();
+    }
+}
@@ -0,0 +1,47 @@
+package com.monframework.limit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limiteur de débit sans verrou (algorithme GCRA, équivalent à un seau à jetons).
+ * Tout l'état tient dans un seul {@link AtomicLong} : l'instant théorique
+ * d'arrivée de la prochaine requête, mis à jour par compare-and-set.
+ */
+final class TokenBucket {
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param permitsPerSecond débit soutenu
+     * @param burst            nombre de requêtes acceptées d'un coup (au moins 1)
+     */
+    TokenBucket(double permitsPerSecond, int burst) {
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * (Math.max(1, burst) - 1);
+    }
+
+    boolean tryAcquire(long now) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = tat == Long.MIN_VALUE ? now : Math.max(tat, now);
+            if (base - now > toleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(tat, base + intervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Délai avant qu'une requête soit de nouveau acceptée.
+     */
+    long nanosUntilAvailable(long now) {
+        long tat = theoreticalArrival.get();
+        if (tat == Long.MIN_VALUE) {
+            return 0;
+        }
+        return Math.max(0, tat - toleranceNanos - now);
+    }
+}
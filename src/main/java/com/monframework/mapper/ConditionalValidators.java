@@ -0,0 +1,216 @@
+package com.monframework.mapper;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.Instant;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import com.monframework.annotation.ETag;
+import com.monframework.annotation.LastModified;
+import com.monframework.binding.ArgumentResolver;
+import com.monframework.binding.ArgumentResolvers;
+import com.monframework.binding.ConverterRegistry;
+import com.monframework.inject.ControllerFactory;
+
+/**
+ * Validateurs d'une route GET déclarés par @ETag et @LastModified.
+ * Évalués avant la méthode du contrôleur : si la requête conditionnelle
+ * (If-None-Match, If-Modified-Since) correspond, la réponse est un 304 et
+ * ni la méthode GET ni la vue ne sont exécutées. Sinon les en-têtes ETag et
+ * Last-Modified sont posés pour la réponse normale.
+ */
+public final class ConditionalValidators {
+    private final Method etagMethod;
+    private final ArgumentResolver[] etagResolvers;
+    private final Method lastModifiedMethod;
+    private final ArgumentResolver[] lastModifiedResolvers;
+
+    private ConditionalValidators(Method etagMethod, ArgumentResolver[] etagResolvers,
+                                  Method lastModifiedMethod, ArgumentResolver[] lastModifiedResolvers) {
+        this.etagMethod = etagMethod;
+        this.etagResolvers = etagResolvers;
+        this.lastModifiedMethod = lastModifiedMethod;
+        this.lastModifiedResolvers = lastModifiedResolvers;
+    }
+
+    /**
+     * Prépare les validateurs d'une méthode, ou retourne null si elle n'en
+     * déclare pas (ou si la route ne répond pas en GET).
+     */
+    static ConditionalValidators create(Method handler, String httpMethod, String routeKey,
+                                        List<String> urlParamNames, ConverterRegistry registry) {
+        ETag etag = handler.getAnnotation(ETag.class);
+        LastModified lastModified = handler.getAnnotation(LastModified.class);
+        if (etag == null && lastModified == null) {
+            return null;
+        }
+        if (httpMethod != null && !httpMethod.isEmpty() && !"GET".equalsIgnoreCase(httpMethod)) {
+            System.err.println("Warning: @ETag/@LastModified ignorés sur " + routeKey + " (GET uniquement)");
+            return null;
+        }
+        Method etagMethod = etag != null ? findValidator(handler, etag.value(), routeKey) : null;
+        Method lastModifiedMethod = lastModified != null ? findValidator(handler, lastModified.value(), routeKey) : null;
+        if (etagMethod == null && lastModifiedMethod == null) {
+            return null;
+        }
+        return new ConditionalValidators(
+                etagMethod,
+                etagMethod != null ? ArgumentResolvers.forMethod(etagMethod, urlParamNames, registry) : null,
+                lastModifiedMethod,
+                lastModifiedMethod != null ? ArgumentResolvers.forMethod(lastModifiedMethod, urlParamNames, registry) : null);
+    }
+
+    private static Method findValidator(Method handler, String name, String routeKey) {
+        for (Method m : handler.getDeclaringClass().getDeclaredMethods()) {
+            if (m.getName().equals(name) && m.getReturnType() != void.class) {
+                m.setAccessible(true);
+                return m;
+            }
+        }
+        System.err.println("Warning: méthode de validation '" + name + "' introuvable pour " + routeKey);
+        return null;
+    }
+
+    /**
+     * Évalue les validateurs pour la requête et pose les en-têtes correspondants.
+     *
+     * @return true si la réponse 304 a été envoyée (le contrôleur ne doit pas être appelé)
+     */
+    public boolean handle(Map<String, String> urlParams, HttpServletRequest request, HttpServletResponse response,
+                          ControllerFactory factory) throws Exception {
+        String requestMethod = request.getMethod();
+        if (!"GET".equals(requestMethod) && !"HEAD".equals(requestMethod)) {
+            return false;
+        }
+        Object controller = null;
+        String etag = null;
+        if (etagMethod != null) {
+            controller = instanceFor(etagMethod, factory, null);
+            Object version = call(etagMethod, controller, etagResolvers, urlParams, request);
+            etag = version != null ? formatETag(version.toString()) : null;
+        }
+        long lastModified = -1;
+        if (lastModifiedMethod != null) {
+            controller = instanceFor(lastModifiedMethod, factory, controller);
+            lastModified = toEpochMillis(call(lastModifiedMethod, controller, lastModifiedResolvers, urlParams, request));
+        }
+
+        if (etag != null) {
+            response.setHeader("ETag", etag);
+        }
+        if (lastModified >= 0) {
+            response.setDateHeader("Last-Modified", lastModified);
+        }
+        if (!isNotModified(request, etag, lastModified)) {
+            return false;
+        }
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        return true;
+    }
+
+    /**
+     * If-None-Match est prioritaire ; If-Modified-Since n'est consulté qu'en son absence.
+     */
+    private static boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            return etag != null && matchesAny(ifNoneMatch, etag);
+        }
+        if (lastModified < 0) {
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader("If-Modified-Since");
+        } catch (IllegalArgumentException e) {
+            // Date illisible : l'en-tête est ignoré
+            return false;
+        }
+        // Les dates HTTP sont à la seconde près
+        return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    /**
+     * Comparaison faible (GET) : W/"x" et "x" désignent la même version.
+     */
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || stripWeak(c).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    /**
+     * Met la version entre guillemets ; une valeur contenant des caractères
+     * interdits dans un ETag est remplacée par son empreinte.
+     */
+    static String formatETag(String version) {
+        if (version.startsWith("\"") || version.startsWith("W/\"")) {
+            return version;
+        }
+        for (int i = 0; i < version.length(); i++) {
+            char c = version.charAt(i);
+            if (c <= 0x20 || c == '"' || c >= 0x7F) {
+                return "\"" + Integer.toHexString(version.hashCode()) + "-" + version.length() + "\"";
+            }
+        }
+        return "\"" + version + "\"";
+    }
+
+    private static long toEpochMillis(Object value) {
+        if (value == null) {
+            return -1;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        if (value instanceof TemporalAccessor) {
+            return Instant.from((TemporalAccessor) value).toEpochMilli();
+        }
+        throw new IllegalStateException("Date de modification non reconnue: " + value.getClass().getName());
+    }
+
+    private static Object instanceFor(Method validator, ControllerFactory factory, Object existing) throws Exception {
+        if (Modifier.isStatic(validator.getModifiers())) {
+            return existing;
+        }
+        if (existing != null) {
+            return existing;
+        }
+        return factory != null
+                ? factory.newInstance()
+                : validator.getDeclaringClass().getDeclaredConstructor().newInstance();
+    }
+
+    private static Object call(Method validator, Object controller, ArgumentResolver[] resolvers,
+                               Map<String, String> urlParams, HttpServletRequest request) throws Exception {
+        Object[] args = new Object[resolvers.length];
+        for (int i = 0; i < resolvers.length; i++) {
+            args[i] = resolvers[i].resolve(urlParams, request);
+        }
+        try {
+            return validator.invoke(controller, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.monframework.mapper;
+
+import java.util.regex.Pattern;
+
+/**
+ * Contrainte d'un paramètre d'URL ({id:int}, {slug:[a-z-]+}...), vérifiée
+ * pendant le routage : une valeur refusée fait passer à la route suivante
+ * au lieu d'échouer plus tard à la conversion.
+ *
+ * Types prédéfinis, vérifiés caractère par caractère sans expression
+ * régulière : int, long, uuid, alpha, alnum, bool. Toute autre contrainte
+ * est une expression régulière appliquée au segment entier.
+ */
+abstract class PathConstraint {
+
+    /** Sans contrainte : tout segment non vide. */
+    static final PathConstraint ANY = new PathConstraint("", 3, "[^/]+") {
+        @Override
+        boolean accepts(String path, int start, int end) {
+            return end > start;
+        }
+
+        @Override
+        String sample() {
+            return "warmup";
+        }
+    };
+
+    private final String spec;
+    /** Priorité lors du routage : les contraintes les plus précises sont essayées d'abord. */
+    private final int rank;
+    /** Équivalent en expression régulière, pour un segment à plusieurs paramètres. */
+    private final String regex;
+
+    private PathConstraint(String spec, int rank, String regex) {
+        this.spec = spec;
+        this.rank = rank;
+        this.regex = regex;
+    }
+
+    /**
+     * Contrainte décrite après les deux-points de {nom:contrainte}.
+     *
+     * @throws java.util.regex.PatternSyntaxException expression régulière invalide
+     */
+    static PathConstraint parse(String spec) {
+        switch (spec) {
+            case "":
+                return ANY;
+            case "int":
+                return new PathConstraint(spec, 1, "-?[0-9]{1,10}") {
+                    @Override
+                    boolean accepts(String path, int start, int end) {
+                        return fitsInteger(path, start, end, 10, Integer.MIN_VALUE, Integer.MAX_VALUE);
+                    }
+
+                    @Override
+                    String sample() {
+                        return "1";
+                    }
+                };
+            case "long":
+                return new PathConstraint(spec, 1, "-?[0-9]{1,19}") {
+                    @Override
+                    boolean accepts(String path, int start, int end) {
+                        return fitsInteger(path, start, end, 19, Long.MIN_VALUE, Long.MAX_VALUE);
+                    }
+
+                    @Override
+                    String sample() {
+                        return "1";
+                    }
+                };
+            case "uuid":
+                return new PathConstraint(spec, 1,
+                        "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}") {
+                    @Override
+                    boolean accepts(String path, int start, int end) {
+                        if (end - start != 36) {
+                            return false;
+                        }
+                        for (int i = 0; i < 36; i++) {
+                            char c = path.charAt(start + i);
+                            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                                if (c != '-') {
+                                    return false;
+                                }
+                            } else if (Character.digit(c, 16) < 0) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+
+                    @Override
+                    String sample() {
+                        return "00000000-0000-0000-0000-000000000000";
+                    }
+                };
+            case "alpha":
+                return new PathConstraint(spec, 1, "[A-Za-z]+") {
+                    @Override
+                    boolean accepts(String path, int start, int end) {
+                        return allAscii(path, start, end, false);
+                    }
+
+                    @Override
+                    String sample() {
+                        return "warmup";
+                    }
+                };
+            case "alnum":
+                return new PathConstraint(spec, 1, "[A-Za-z0-9]+") {
+                    @Override
+                    boolean accepts(String path, int start, int end) {
+                        return allAscii(path, start, end, true);
+                    }
+
+                    @Override
+                    String sample() {
+                        return "warmup";
+                    }
+                };
+            case "bool":
+                return new PathConstraint(spec, 1, "(?i:true|false)") {
+                    @Override
+                    boolean accepts(String path, int start, int end) {
+                        int length = end - start;
+                        return (length == 4 && path.regionMatches(true, start, "true", 0, 4))
+                                || (length == 5 && path.regionMatches(true, start, "false", 0, 5));
+                    }
+
+                    @Override
+                    String sample() {
+                        return "true";
+                    }
+                };
+            default:
+                Pattern regex = Pattern.compile(spec);
+                return new PathConstraint(spec, 2, "(?:" + spec + ")") {
+                    @Override
+                    boolean accepts(String path, int start, int end) {
+                        return end > start && regex.matcher(path).region(start, end).matches();
+                    }
+
+                    @Override
+                    String sample() {
+                        return null;
+                    }
+                };
+        }
+    }
+
+    /**
+     * Indique si path[start, end) satisfait la contrainte.
+     */
+    abstract boolean accepts(String path, int start, int end);
+
+    /**
+     * Valeur acceptée par la contrainte (préchauffage), ou null si inconnue.
+     */
+    abstract String sample();
+
+    int rank() {
+        return rank;
+    }
+
+    String spec() {
+        return spec;
+    }
+
+    String regex() {
+        return regex;
+    }
+
+    /**
+     * Entier décimal signé compris entre min et max, sans conversion ni allocation.
+     */
+    private static boolean fitsInteger(String s, int start, int end, int maxDigits, long min, long max) {
+        boolean negative = start < end && s.charAt(start) == '-';
+        int first = negative ? start + 1 : start;
+        int digits = end - first;
+        if (digits <= 0 || digits > maxDigits) {
+            return false;
+        }
+        // Accumulation négative : couvre aussi Long.MIN_VALUE
+        long limit = negative ? min : -max;
+        long value = 0;
+        for (int i = first; i < end; i++) {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9) {
+                return false;
+            }
+            if (value < limit / 10) {
+                return false;
+            }
+            value *= 10;
+            if (value < limit + d) {
+                return false;
+            }
+            value -= d;
+        }
+        return true;
+    }
+
+    private static boolean allAscii(String s, int start, int end, boolean digits) {
+        if (end <= start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            boolean ok = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (digits && c >= '0' && c <= '9');
+            if (!ok) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return spec.isEmpty() ? "*" : spec;
+    }
+}
@@ -1,26 +1,51 @@
 package com.monframework.mapper;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
 import java.nio.file.Path;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Stream;
 import java.util.stream.Collectors;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
+import com.monframework.annotation.Component;
 import com.monframework.annotation.MyController;
 import com.monframework.annotation.HandleUrl;
-import com.monframework.annotation.RequestParam;
 import com.monframework.annotation.GET;
 import com.monframework.annotation.POST;
+import com.monframework.annotation.SingleFlight;
+import com.monframework.binding.ArgumentResolver;
+import com.monframework.binding.ArgumentResolvers;
+import com.monframework.binding.ConverterRegistry;
+import com.monframework.binding.RequestParameterMap;
+import com.monframework.core.Deferred;
 import com.monframework.core.ModelView;
+import com.monframework.inject.ControllerFactory;
+import com.monframework.jfr.ClassScanEvent;
+import com.monframework.jfr.ControllerInvocationEvent;
+import com.monframework.limit.RouteLimiter;
+import com.monframework.multipart.MultipartForm;
+import com.monframework.multipart.MultipartSettings;
+import com.monframework.multipart.MultipartStream;
+import com.monframework.multipart.RequestBodies;
+import com.monframework.sse.EventSink;
+import com.monframework.trace.RequestTrace;
+import com.monframework.trace.RouteStats;
+import com.monframework.trace.Stage;
 
 public class RouteMapping {
     private final String className;
@@ -29,6 +54,17 @@ public class RouteMapping {
     private final String methodName;
     private final UrlPattern urlPattern;
     private final String httpMethod; // GET, POST, PUT, DELETE, etc.
+    private volatile Method method;
+    private volatile ArgumentResolver[] resolvers;
+    private boolean readsBody;
+    private boolean rendersJson;
+    private volatile RouteLimiter limiter;
+    private SingleFlightGroup singleFlight;
+    private volatile ConditionalValidators validators;
+    private volatile ControllerFactory controllerFactory;
+    private final RouteStats stats = new RouteStats();
+    private volatile long slowThresholdNanos = -1;
+    private volatile long deadlineMillis;
 
     public RouteMapping(String className, String controllerValue, String urlValue, String methodName, String httpMethod) {
         this.className = className;
@@ -44,6 +80,16 @@ public class RouteMapping {
     public String getUrlValue() { return urlValue; }
     public String getMethodName() { return methodName; }
     public String getHttpMethod() { return httpMethod; }
+    public Method getMethod() { return method; }
+    public RouteLimiter getLimiter() { return limiter; }
+    public void setLimiter(RouteLimiter limiter) { this.limiter = limiter; }
+    public SingleFlightGroup getSingleFlight() { return singleFlight; }
+    public void setControllerFactory(ControllerFactory factory) { this.controllerFactory = factory; }
+    public RouteStats getStats() { return stats; }
+    public long getSlowThresholdNanos() { return slowThresholdNanos; }
+    public void setSlowThresholdNanos(long nanos) { this.slowThresholdNanos = nanos; }
+    public long getDeadlineMillis() { return deadlineMillis; }
+    public void setDeadlineMillis(long millis) { this.deadlineMillis = millis; }
     
     /**
      * Vérifie si cette route correspond à la méthode HTTP spécifiée.
@@ -119,141 +165,297 @@ public class RouteMapping {
                 '}';
     }
 
+    /**
+     * Associe la méthode du contrôleur à cette route et prépare un résolveur
+     * par paramètre. Appelé une fois au démarrage par scanFromClassesRoot.
+     */
+    public void resolveHandler(Method method, ConverterRegistry registry) {
+        this.resolvers = ArgumentResolvers.forMethod(method, urlPattern.getParamNames(), registry);
+        this.readsBody = ArgumentResolvers.readsBody(method);
+        this.rendersJson = isJsonResult(method);
+        this.singleFlight = createSingleFlight(method, registry);
+        this.validators = ConditionalValidators.create(method, httpMethod, getRouteKey(),
+                urlPattern.getParamNames(), registry);
+        this.method = method;
+    }
+
+    /**
+     * Initialise la classe du contrôleur (le scan la charge sans l'initialiser)
+     * et résout la méthode si ce n'est pas déjà fait.
+     */
+    public void prepare(ClassLoader loader) throws Exception {
+        Method method = this.method;
+        if (method != null) {
+            Class<?> clazz = method.getDeclaringClass();
+            Class.forName(clazz.getName(), true, clazz.getClassLoader());
+            return;
+        }
+        Class<?> clazz = Class.forName(className, true, loader);
+        resolveHandler(findMethod(clazz, methodName), ConverterRegistry.getDefault());
+    }
+
     /**
      * Appelle la méthode du contrôleur en utilisant la réflexion.
-     * La méthode peut retourner un String ou un ModelView.
+     * La méthode peut retourner un String, un ModelView, un Deferred ou tout
+     * objet sérialisable en JSON (void si elle reçoit un EventSink).
      * 
      * @param urlParams Paramètres extraits de l'URL
      * @param request La requête HTTP pour extraire les paramètres additionnels
-     * @return Le résultat Object retourné par la méthode (String ou ModelView)
+     * @return Le résultat Object retourné par la méthode
      * @throws Exception Si l'invocation échoue
      */
     public Object callMethod(Map<String, String> urlParams, HttpServletRequest request) throws Exception {
-        // Charger la classe du contrôleur
-        ClassLoader loader = Thread.currentThread().getContextClassLoader();
-        Class<?> clazz = Class.forName(className, true, loader);
-
-        // Créer une instance du contrôleur (constructeur par défaut)
-        Object controllerInstance = clazz.getDeclaredConstructor().newInstance();
+        BoundCall call = bind(urlParams, request, false);
+        try {
+            return call.invoke();
+        } finally {
+            // Supprimer les fichiers temporaires non conservés par le contrôleur
+            call.cleanup();
+        }
+    }
 
-        // Trouver la méthode à invoquer
-        Method method = findMethod(clazz, methodName, urlParams, request);
+    /**
+     * Lie les arguments de la méthode sans l'appeler. Avec detached, les
+     * paramètres reçus en Map sont copiés : l'appel peut alors s'exécuter sur
+     * un autre thread sans relire la requête, sauf si la méthode lit le corps
+     * en flux (voir {@link BoundCall#readsRequest()}).
+     *
+     * @return l'appel prêt ; le formulaire multipart éventuel est supprimé
+     *         par {@link BoundCall#cleanup()}
+     */
+    public BoundCall bind(Map<String, String> urlParams, HttpServletRequest request, boolean detached)
+            throws Exception {
+        Method method = this.method;
+        if (method == null) {
+            // Route créée hors du scan : résoudre la méthode à la première requête
+            ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            Class<?> clazz = Class.forName(className, true, loader);
+            resolveHandler(findMethod(clazz, methodName), ConverterRegistry.getDefault());
+            method = this.method;
+        }
 
-        // Vérifier que la méthode retourne un String ou un ModelView
+        // Vérifier que la méthode retourne une valeur (String, ModelView, objet JSON...)
         Class<?> returnType = method.getReturnType();
-        if (!returnType.equals(String.class) && !returnType.equals(ModelView.class)) {
+        if (returnType == void.class && !opensEventStream(method)) {
             throw new Exception("La méthode " + methodName + " de la classe " + className + 
-                              " doit retourner un String ou un ModelView (retourne: " + returnType.getName() + ")");
+                              " doit retourner une valeur (String, ModelView ou objet sérialisé en JSON)");
         }
 
-        // Préparer les arguments pour l'invocation
-        Object[] args = prepareMethodArgs(method, urlParams, request);
-
-        // Invoquer la méthode avec les arguments
-        Object result = method.invoke(controllerInstance, args);
+        // Formulaire multipart : exposer ses champs comme paramètres HTTP,
+        // sauf si le contrôleur lit lui-même le corps en flux
+        if (!readsBody && resolvers.length > 0 && RequestBodies.isMultipart(request)) {
+            request = RequestBodies.withMultipartParameters(request, MultipartSettings.getDefault());
+        }
 
-        // Retourner le résultat (String ou ModelView)
-        return result;
+        Object[] args;
+        try {
+            // Préparer les arguments avant de créer le contrôleur : une valeur
+            // invalide (400) ne coûte ainsi aucune instanciation
+            args = prepareMethodArgs(urlParams, request);
+        } catch (Exception | Error e) {
+            RequestBodies.cleanup(request);
+            throw e;
+        }
+        RequestTrace.markCurrent(Stage.BINDING);
+        if (detached) {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i] instanceof RequestParameterMap) {
+                    args[i] = Collections.unmodifiableMap(new LinkedHashMap<>((Map<?, ?>) args[i]));
+                }
+            }
+        }
+        return new BoundCall(method, args, RequestBodies.parsedForm(request));
     }
 
     /**
-     * Trouve la méthode correspondante dans la classe.
+     * Appel de la méthode avec ses arguments déjà liés.
      */
-    private Method findMethod(Class<?> clazz, String methodName, Map<String, String> urlParams, HttpServletRequest request) throws NoSuchMethodException {
-        // Chercher toutes les méthodes avec ce nom
-        for (Method m : clazz.getDeclaredMethods()) {
-            if (m.getName().equals(methodName)) {
-                return m;
+    public final class BoundCall {
+        private final Method method;
+        private final Object[] args;
+        private final MultipartForm form;
+
+        private BoundCall(Method method, Object[] args, MultipartForm form) {
+            this.method = method;
+            this.args = args;
+            this.form = form;
+        }
+
+        /**
+         * Crée le contrôleur et appelle la méthode (appel partagé si la route porte @SingleFlight).
+         */
+        public Object invoke() throws Exception {
+            // GET regroupés : les requêtes identiques partagent un même appel
+            SingleFlightGroup flights = singleFlight;
+            if (flights != null) {
+                Object shared = flights.execute(args, () -> RouteMapping.this.invoke(method, args));
+                RequestTrace.markCurrent(Stage.INVOKE);
+                return shared;
             }
+            return RouteMapping.this.invoke(method, args);
         }
-        
-        // Si aucune méthode trouvée, essayer sans paramètres
-        return clazz.getDeclaredMethod(methodName);
-    }
 
-    /**
-     * Prépare les arguments pour l'invocation de la méthode.
-     * Convertit les paramètres String en types appropriés.
-     * Combine les paramètres d'URL et les paramètres HTTP.
-     * Supporte l'annotation @RequestParam pour mapper explicitement les paramètres.
-     */
-    private Object[] prepareMethodArgs(Method method, Map<String, String> urlParams, HttpServletRequest request) {
-        Class<?>[] paramTypes = method.getParameterTypes();
-        java.lang.reflect.Parameter[] parameters = method.getParameters();
-        Object[] args = new Object[paramTypes.length];
-        
-        List<String> urlParamNames = urlPattern.getParamNames();
-        
-        for (int i = 0; i < paramTypes.length; i++) {
-            // Cas spécial: si le paramètre est de type Map, copier tous les paramètres dedans
-            if (paramTypes[i] == Map.class) {
-                Map<String, Object> dataMap = new HashMap<>();
-                
-                // Copier tous les paramètres d'URL
-                dataMap.putAll(urlParams);
-                
-                // Copier tous les paramètres HTTP de la requête
-                if (request != null) {
-                    java.util.Enumeration<String> paramNames = request.getParameterNames();
-                    while (paramNames.hasMoreElements()) {
-                        String paramName = paramNames.nextElement();
-                        dataMap.put(paramName, request.getParameter(paramName));
-                    }
+        /**
+         * Indique si un argument lit encore la requête pendant l'appel
+         * (corps reçu en InputStream ou en MultipartStream).
+         */
+        public boolean readsRequest() {
+            for (Object arg : args) {
+                if (arg instanceof InputStream || arg instanceof MultipartStream) {
+                    return true;
                 }
-                
-                args[i] = dataMap;
-                continue; // Passer au paramètre suivant
             }
-            
-            // Traitement normal pour les autres types
-            String paramName = parameters[i].getName(); // nom par défaut de la variable
-            String paramValue = null;
-            
-            // Vérifier si le paramètre a l'annotation @RequestParam
-            RequestParam requestParamAnnotation = parameters[i].getAnnotation(RequestParam.class);
-            if (requestParamAnnotation != null && !requestParamAnnotation.value().isEmpty()) {
-                // Si @RequestParam est présent avec une valeur, utiliser cette valeur
-                paramName = requestParamAnnotation.value();
+            return false;
+        }
+
+        /**
+         * Supprime les fichiers temporaires du formulaire non conservés par le contrôleur.
+         */
+        public void cleanup() {
+            if (form != null) {
+                form.cleanup();
             }
-            
-            // 1. Vérifier d'abord si c'est un paramètre d'URL (priorité aux paramètres d'URL)
-            if (urlParamNames.contains(paramName)) {
-                paramValue = urlParams.get(paramName);
+        }
+    }
+
+    /**
+     * Requête conditionnelle sur une route GET portant @ETag ou @LastModified :
+     * évalue les validateurs et envoie le 304 si la ressource n'a pas changé.
+     *
+     * @return true si la réponse 304 est envoyée (ne pas appeler callMethod)
+     */
+    public boolean handleConditional(Map<String, String> urlParams, HttpServletRequest request,
+                                     HttpServletResponse response) throws Exception {
+        ConditionalValidators validators = this.validators;
+        return validators != null && validators.handle(urlParams, request, response, controllerFactory);
+    }
+
+    /**
+     * Indique si la route répond toujours en JSON : son type de retour déclaré
+     * ne peut être ni un String, ni un ModelView, ni un résultat différé.
+     */
+    public boolean rendersJson() {
+        return rendersJson;
+    }
+
+    private static boolean isJsonResult(Method method) {
+        Class<?> type = method.getReturnType();
+        return type != void.class && type != Deferred.class
+                && !type.isAssignableFrom(String.class) && !type.isAssignableFrom(ModelView.class);
+    }
+
+    /**
+     * Flux SSE ou long-poll : la réponse se prolonge au-delà de l'appel du contrôleur.
+     */
+    public static boolean isLongLived(Method method) {
+        return method.getReturnType() == Deferred.class || opensEventStream(method);
+    }
+
+    /**
+     * Indique si la méthode reçoit un EventSink (flux SSE : le retour est ignoré).
+     */
+    private static boolean opensEventStream(Method method) {
+        for (Class<?> type : method.getParameterTypes()) {
+            if (type == EventSink.class) {
+                return true;
             }
-            // 2. Sinon, vérifier dans les paramètres HTTP (request.getParameter)
-            else if (request != null) {
-                paramValue = request.getParameter(paramName);
+        }
+        return false;
+    }
+
+    /**
+     * Crée une instance du contrôleur et invoque la méthode.
+     */
+    private Object invoke(Method method, Object[] args) throws Exception {
+        ControllerInvocationEvent event = new ControllerInvocationEvent();
+        event.begin();
+        boolean success = false;
+        try {
+            // Créer une instance du contrôleur : fabrique du conteneur d'injection,
+            // sinon constructeur par défaut (route créée hors du scan)
+            ControllerFactory factory = this.controllerFactory;
+            Object controllerInstance = factory != null
+                    ? factory.newInstance()
+                    : method.getDeclaringClass().getDeclaredConstructor().newInstance();
+            RequestTrace.markCurrent(Stage.CONSTRUCT);
+
+            // Invoquer la méthode avec les arguments et retourner le résultat (String ou ModelView)
+            Object result = method.invoke(controllerInstance, args);
+            RequestTrace.markCurrent(Stage.INVOKE);
+            success = true;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.routeKey = getRouteKey();
+                event.controller = method.getDeclaringClass();
+                event.methodName = methodName;
+                event.success = success;
+                event.commit();
             }
-            
-            // Convertir la valeur String vers le type approprié
-            args[i] = convertParameter(paramValue, paramTypes[i]);
         }
-        
-        return args;
     }
 
     /**
-     * Convertit un paramètre String vers le type demandé.
+     * Active le regroupement des requêtes si la méthode porte @SingleFlight,
+     * répond en GET sans flux ni résultat différé et ne reçoit que des valeurs
+     * comparables (la clé de regroupement est formée des arguments liés).
      */
-    private Object convertParameter(String value, Class<?> targetType) {
-        if (value == null) {
+    private SingleFlightGroup createSingleFlight(Method method, ConverterRegistry registry) {
+        if (!method.isAnnotationPresent(SingleFlight.class)) {
             return null;
         }
-        
-        if (targetType == String.class) {
-            return value;
-        } else if (targetType == int.class || targetType == Integer.class) {
-            return Integer.parseInt(value);
-        } else if (targetType == long.class || targetType == Long.class) {
-            return Long.parseLong(value);
-        } else if (targetType == double.class || targetType == Double.class) {
-            return Double.parseDouble(value);
-        } else if (targetType == boolean.class || targetType == Boolean.class) {
-            return Boolean.parseBoolean(value);
+        if (!"GET".equalsIgnoreCase(httpMethod)) {
+            System.err.println("Warning: @SingleFlight ignoré sur " + getRouteKey() + " (GET uniquement)");
+            return null;
+        }
+        if (isLongLived(method)) {
+            // Un flux SSE ou un Deferred ne se partage pas : une seule réponse serait complétée
+            System.err.println("Warning: @SingleFlight ignoré sur " + getRouteKey() + " (flux SSE ou résultat différé)");
+            return null;
+        }
+        for (Parameter p : method.getParameters()) {
+            Class<?> type = p.getType();
+            boolean comparable = registry.canConvert(type)
+                    || (type.isArray() && registry.canConvert(type.getComponentType()))
+                    || ((type == List.class || type == Set.class || type == Collection.class)
+                        && registry.canConvert(ArgumentResolvers.elementType(p.getParameterizedType())));
+            if (!comparable) {
+                System.err.println("Warning: @SingleFlight ignoré sur " + getRouteKey()
+                        + " (paramètre '" + p.getName() + "' de type " + type.getSimpleName() + ")");
+                return null;
+            }
+        }
+        return new SingleFlightGroup();
+    }
+
+    /**
+     * Trouve la méthode correspondante dans la classe.
+     */
+    private static Method findMethod(Class<?> clazz, String methodName) throws NoSuchMethodException {
+        // Chercher toutes les méthodes avec ce nom
+        for (Method m : clazz.getDeclaredMethods()) {
+            if (m.getName().equals(methodName)) {
+                return m;
+            }
         }
         
-        // Par défaut, retourner la valeur String
-        return value;
+        // Si aucune méthode trouvée, essayer sans paramètres
+        return clazz.getDeclaredMethod(methodName);
+    }
+
+    /**
+     * Prépare les arguments pour l'invocation de la méthode à partir des
+     * résolveurs calculés au démarrage (voir {@link ArgumentResolvers}).
+     * Une valeur impossible à convertir lève une ConversionException (400).
+     */
+    private Object[] prepareMethodArgs(Map<String, String> urlParams, HttpServletRequest request) throws Exception {
+        ArgumentResolver[] resolvers = this.resolvers;
+        Object[] args = new Object[resolvers.length];
+        for (int i = 0; i < resolvers.length; i++) {
+            args[i] = resolvers[i].resolve(urlParams, request);
+        }
+        return args;
     }
 
     /**
@@ -297,6 +499,16 @@ public class RouteMapping {
      * @MyController et collecte les méthodes avec @HandleURL.
      */
     public static List<RouteMapping> scanFromClassesRoot(Path classesRoot, ClassLoader contextClassLoader) throws Exception {
+        return scanFromClassesRoot(classesRoot, contextClassLoader, null);
+    }
+
+    /**
+     * Scanne les contrôleurs et collecte au passage les classes @Component.
+     *
+     * @param components reçoit les classes annotées @Component (ignoré si null)
+     */
+    public static List<RouteMapping> scanFromClassesRoot(Path classesRoot, ClassLoader contextClassLoader,
+                                                         List<Class<?>> components) throws Exception {
         List<RouteMapping> result = new ArrayList<>();
         
         // Utiliser le ClassLoader approprié
@@ -316,9 +528,15 @@ public class RouteMapping {
             shouldCloseLoader = true;
         }
         
+        ClassScanEvent scanEvent = new ClassScanEvent();
+        scanEvent.begin();
+        int controllers = 0;
+        int failures = 0;
+        int classCount = 0;
         try {
             // Lister tous les fichiers .class
             List<Path> classFiles = listClassFiles(classesRoot);
+            classCount = classFiles.size();
             System.out.println("[DEBUG RouteMapping] Found " + classFiles.size() + " class files");
             
             // Pour chaque fichier .class
@@ -332,10 +550,15 @@ public class RouteMapping {
                     // Charger la classe
                     Class<?> clazz = Class.forName(className, false, loader);
                     
+                    if (components != null && clazz.isAnnotationPresent(Component.class)) {
+                        components.add(clazz);
+                    }
+
                     // Vérifier si elle a l'annotation @MyController
                     if (clazz.isAnnotationPresent(MyController.class)) {
                         MyController ctrl = clazz.getAnnotation(MyController.class);
                         String controllerValue = ctrl.value();
+                        controllers++;
                         
                         System.out.println("[DEBUG RouteMapping] Found controller: " + className + " with value: " + controllerValue);
                         
@@ -354,16 +577,27 @@ public class RouteMapping {
                                     httpMethod = "POST";
                                 }
                                 RouteMapping mapping = new RouteMapping(clazz.getName(), controllerValue, urlValue, m.getName(), httpMethod);
+                                mapping.resolveHandler(m, ConverterRegistry.getDefault());
                                 result.add(mapping);
                                 System.out.println("[DEBUG RouteMapping] Added route: " + mapping);
                             }
                         }
                     }
                 } catch (Throwable t) {
+                    failures++;
                     System.err.println("Warning: unable to load " + className + " : " + t.getClass().getSimpleName() + " " + t.getMessage());
                 }
             }
         } finally {
+            scanEvent.end();
+            if (scanEvent.shouldCommit()) {
+                scanEvent.root = classesRoot.toString();
+                scanEvent.classFiles = classCount;
+                scanEvent.controllers = controllers;
+                scanEvent.routes = result.size();
+                scanEvent.failures = failures;
+                scanEvent.commit();
+            }
             if (shouldCloseLoader && urlLoader != null) {
                 try {
                     urlLoader.close();
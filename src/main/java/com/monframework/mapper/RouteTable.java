@@ -0,0 +1,167 @@
+package com.monframework.mapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routage par arbre de segments : le chemin est parcouru segment par
+ * segment, le texte fixe par une table de hachage, puis les paramètres par
+ * ordre de précision (types prédéfinis, expressions régulières, paramètre
+ * libre, reste du chemin). Seules les branches compatibles avec le chemin
+ * sont explorées, au lieu de tester le pattern de chaque route.
+ *
+ * Une valeur refusée par une contrainte ({id:int} et "abc") écarte la route
+ * dès le routage, avant toute liaison ou appel de contrôleur.
+ */
+public final class RouteTable {
+
+    /**
+     * Route trouvée et valeurs de ses paramètres d'URL.
+     */
+    public static final class Match {
+        private final RouteMapping route;
+        private final Map<String, String> params;
+
+        Match(RouteMapping route, Map<String, String> params) {
+            this.route = route;
+            this.params = params;
+        }
+
+        public RouteMapping getRoute() {
+            return route;
+        }
+
+        public Map<String, String> getParams() {
+            return params;
+        }
+    }
+
+    private final Node root = new Node();
+
+    public RouteTable(Collection<RouteMapping> routes) {
+        for (RouteMapping route : routes) {
+            add(route);
+        }
+        root.sort();
+    }
+
+    private void add(RouteMapping route) {
+        Node node = root;
+        for (UrlPattern.Segment segment : route.getUrlPattern().getSegments()) {
+            if (segment.literal != null) {
+                node = node.literals.computeIfAbsent(segment.literal, k -> new Node());
+            } else {
+                node = node.params.computeIfAbsent(segment.source, k -> new Edge(segment)).child;
+            }
+        }
+        node.routes.add(route);
+    }
+
+    /**
+     * Cherche la route correspondant au chemin et à la méthode HTTP.
+     *
+     * @return la route et ses paramètres, ou null
+     */
+    public Match find(String httpMethod, String path) {
+        Map<String, String> params = new HashMap<>();
+        int pos = path.startsWith("/") ? 1 : 0;
+        RouteMapping route = find(root, path, pos, httpMethod, params);
+        return route != null ? new Match(route, params) : null;
+    }
+
+    /**
+     * @param pos début du segment courant ; path.length() + 1 une fois le chemin consommé
+     */
+    private static RouteMapping find(Node node, String path, int pos, String httpMethod, Map<String, String> params) {
+        if (pos > path.length()) {
+            for (RouteMapping route : node.routes) {
+                if (route.matchesHttpMethod(httpMethod)) {
+                    return route;
+                }
+            }
+            return null;
+        }
+        int end = path.indexOf('/', pos);
+        if (end < 0) {
+            end = path.length();
+        }
+
+        // Texte fixe d'abord
+        if (!node.literals.isEmpty()) {
+            Node child = node.literals.get(path.substring(pos, end));
+            if (child != null) {
+                RouteMapping route = find(child, path, end + 1, httpMethod, params);
+                if (route != null) {
+                    return route;
+                }
+            }
+        }
+
+        // Puis les paramètres, du plus précis au plus libre
+        for (Edge edge : node.sortedParams) {
+            UrlPattern.Segment segment = edge.segment;
+            if (segment.catchAll) {
+                for (RouteMapping route : edge.child.routes) {
+                    if (route.matchesHttpMethod(httpMethod)) {
+                        params.put(segment.name, path.substring(pos));
+                        return route;
+                    }
+                }
+                continue;
+            }
+            if (segment.matches(path, pos, end, params)) {
+                RouteMapping route = find(edge.child, path, end + 1, httpMethod, params);
+                if (route != null) {
+                    return route;
+                }
+                // Branche abandonnée : retirer ses paramètres
+                removeParams(segment, params);
+            }
+        }
+        return null;
+    }
+
+    private static void removeParams(UrlPattern.Segment segment, Map<String, String> params) {
+        if (segment.compoundNames != null) {
+            for (String name : segment.compoundNames) {
+                params.remove(name);
+            }
+        } else {
+            params.remove(segment.name);
+        }
+    }
+
+    private static final class Node {
+        final Map<String, Node> literals = new HashMap<>();
+        final Map<String, Edge> params = new LinkedHashMap<>();
+        final List<RouteMapping> routes = new ArrayList<>(1);
+        Edge[] sortedParams = new Edge[0];
+
+        void sort() {
+            List<Edge> edges = new ArrayList<>(params.values());
+            // Tri stable : à précision égale, l'ordre de déclaration est conservé
+            edges.sort(Comparator.comparingInt(e -> e.segment.rank()));
+            sortedParams = edges.toArray(new Edge[0]);
+            for (Node child : literals.values()) {
+                child.sort();
+            }
+            for (Edge edge : sortedParams) {
+                edge.child.sort();
+            }
+        }
+    }
+
+    private static final class Edge {
+        final UrlPattern.Segment segment;
+        final Node child = new Node();
+
+        Edge(UrlPattern.Segment segment) {
+            this.segment = segment;
+        }
+    }
+}
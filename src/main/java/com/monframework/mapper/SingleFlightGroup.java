@@ -0,0 +1,90 @@
+package com.monframework.mapper;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.monframework.jfr.CacheEvent;
+
+/**
+ * Exécution partagée des appels identiques en cours (« single-flight »).
+ * Le premier appel pour une clé exécute le contrôleur ; les suivants, arrivés
+ * avant sa fin, reçoivent le même résultat. La clé est retirée dès que
+ * l'appel se termine : aucun résultat n'est conservé au-delà.
+ */
+public final class SingleFlightGroup {
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Exécute l'appel, ou attend celui déjà en cours pour les mêmes arguments.
+     */
+    public Object execute(Object[] args, Callable<Object> call) throws Exception {
+        Key key = new Key(args);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+        CacheEvent.emit("singleflight", null, existing != null);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+        try {
+            Object result = call.call();
+            mine.complete(result);
+            return result;
+        } catch (Throwable t) {
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /** Nombre de requêtes ayant réutilisé un appel en cours. */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /** Nombre d'appels actuellement en cours (taille du registre). */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private static final class Key {
+        private final Object[] args;
+        private final int hash;
+
+        Key(Object[] args) {
+            this.args = args;
+            this.hash = Arrays.deepHashCode(args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && hash == ((Key) o).hash && Arrays.deepEquals(args, ((Key) o).args);
+        }
+    }
+}
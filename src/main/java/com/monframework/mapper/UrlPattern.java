@@ -1,6 +1,7 @@
 package com.monframework.mapper;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -10,45 +11,128 @@ import java.util.regex.Pattern;
 /**
  * Classe pour gérer les patterns d'URL dynamiques avec paramètres.
  * Exemple: /etudiant/{id} ou /users/{userId}/posts/{postId}
+ *
+ * Un paramètre peut porter une contrainte vérifiée pendant le routage
+ * (voir {@link PathConstraint}) :
+ * <pre>
+ * /etudiant/{id:int}
+ * /articles/{slug:[a-z0-9-]+}
+ * /fichiers/{chemin:*}     (reste du chemin, '/' compris ; dernier segment uniquement)
+ * </pre>
  */
 public class UrlPattern {
     private final String pattern;
-    private final Pattern regex;
+    private final List<Segment> segments;
     private final List<String> paramNames;
 
     public UrlPattern(String pattern) {
         this.pattern = pattern;
         this.paramNames = new ArrayList<>();
-        this.regex = compilePattern(pattern);
+        this.segments = compilePattern(pattern);
     }
 
     /**
-     * Convertit un pattern d'URL en regex et extrait les noms des paramètres.
-     * Exemple: /etudiant/{id} -> /etudiant/([^/]+)
+     * Découpe le pattern en segments (séparés par '/') et extrait les noms des paramètres.
+     * Exemple: /etudiant/{id:int} -> "etudiant", {id:int}
      */
-    private Pattern compilePattern(String urlPattern) {
-        // Extraire les noms des paramètres {param}
-        Pattern paramPattern = Pattern.compile("\\{([^}]+)\\}");
-        Matcher matcher = paramPattern.matcher(urlPattern);
-        
-        while (matcher.find()) {
-            paramNames.add(matcher.group(1));
-        }
-        
-        // Remplacer {param} par ([^/]+) pour créer la regex
-        String regexPattern = urlPattern.replaceAll("\\{[^}]+\\}", "([^/]+)");
-        
-        // Échapper les caractères spéciaux et créer le pattern
-        regexPattern = "^" + regexPattern + "$";
-        
-        return Pattern.compile(regexPattern);
+    private List<Segment> compilePattern(String urlPattern) {
+        List<Segment> result = new ArrayList<>();
+        int start = urlPattern.startsWith("/") ? 1 : 0;
+        int depth = 0;
+        for (int i = start; i <= urlPattern.length(); i++) {
+            char c = i < urlPattern.length() ? urlPattern.charAt(i) : '/';
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+            } else if (c == '/' && depth == 0) {
+                result.add(compileSegment(urlPattern.substring(start, i)));
+                start = i + 1;
+            }
+        }
+        if (depth != 0) {
+            throw new IllegalArgumentException("Accolades non fermées dans " + urlPattern);
+        }
+        for (int i = 0; i < result.size() - 1; i++) {
+            if (result.get(i).catchAll) {
+                throw new IllegalArgumentException("{...:*} doit être le dernier segment de " + urlPattern);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private Segment compileSegment(String text) {
+        // Repérer les {param} du segment (une contrainte peut contenir des accolades : \d{4})
+        List<int[]> placeholders = new ArrayList<>(1);
+        int depth = 0;
+        int open = -1;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '{' && depth++ == 0) {
+                open = i;
+            } else if (c == '}' && --depth == 0) {
+                placeholders.add(new int[] { open, i });
+            }
+        }
+        if (placeholders.isEmpty()) {
+            return Segment.literal(text);
+        }
+        if (placeholders.size() == 1) {
+            int[] p = placeholders.get(0);
+            String[] nameAndSpec = splitPlaceholder(text.substring(p[0] + 1, p[1]));
+            paramNames.add(nameAndSpec[0]);
+            if (nameAndSpec[1].equals("*")) {
+                if (p[0] != 0 || p[1] != text.length() - 1) {
+                    throw new IllegalArgumentException("{" + nameAndSpec[0] + ":*} doit occuper tout le segment");
+                }
+                return Segment.catchAll(text, nameAndSpec[0]);
+            }
+            return Segment.param(text, text.substring(0, p[0]), nameAndSpec[0],
+                    PathConstraint.parse(nameAndSpec[1]), text.substring(p[1] + 1));
+        }
+
+        // Plusieurs paramètres dans un même segment (/fichier-{id}.{ext}) : expression régulière
+        StringBuilder regex = new StringBuilder();
+        List<String> names = new ArrayList<>();
+        List<PathConstraint> constraints = new ArrayList<>();
+        int last = 0;
+        for (int[] p : placeholders) {
+            String[] nameAndSpec = splitPlaceholder(text.substring(p[0] + 1, p[1]));
+            if (nameAndSpec[1].equals("*")) {
+                throw new IllegalArgumentException("{" + nameAndSpec[0] + ":*} doit occuper tout le segment");
+            }
+            if (p[0] > last) {
+                regex.append(Pattern.quote(text.substring(last, p[0])));
+            }
+            PathConstraint constraint = PathConstraint.parse(nameAndSpec[1]);
+            regex.append("(?<p").append(names.size()).append('>')
+                 .append(constraint.regex()).append(')');
+            constraints.add(constraint);
+            names.add(nameAndSpec[0]);
+            paramNames.add(nameAndSpec[0]);
+            last = p[1] + 1;
+        }
+        if (last < text.length()) {
+            regex.append(Pattern.quote(text.substring(last)));
+        }
+        return Segment.compound(text, Pattern.compile(regex.toString()), names, constraints);
+    }
+
+    private static String[] splitPlaceholder(String inner) {
+        int colon = inner.indexOf(':');
+        String name = (colon >= 0 ? inner.substring(0, colon) : inner).trim();
+        String spec = colon >= 0 ? inner.substring(colon + 1).trim() : "";
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Paramètre d'URL sans nom: {" + inner + "}");
+        }
+        return new String[] { name, spec };
     }
 
     /**
      * Vérifie si une URL correspond au pattern.
      */
     public boolean matches(String url) {
-        return regex.matcher(url).matches();
+        return match(url, null);
     }
 
     /**
@@ -57,17 +141,66 @@ public class UrlPattern {
      */
     public Map<String, String> extractParams(String url) {
         Map<String, String> params = new HashMap<>();
-        
-        Matcher matcher = regex.matcher(url);
-        if (matcher.matches()) {
-            for (int i = 0; i < paramNames.size(); i++) {
-                params.put(paramNames.get(i), matcher.group(i + 1));
-            }
+        if (!match(url, params)) {
+            params.clear();
         }
-        
         return params;
     }
 
+    private boolean match(String url, Map<String, String> params) {
+        int pos = url.startsWith("/") ? 1 : 0;
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            if (pos > url.length()) {
+                return false;
+            }
+            if (segment.catchAll) {
+                if (params != null) {
+                    params.put(segment.name, url.substring(pos));
+                }
+                return true;
+            }
+            int end = url.indexOf('/', pos);
+            if (end < 0) {
+                end = url.length();
+            }
+            if (!segment.matches(url, pos, end, params)) {
+                return false;
+            }
+            pos = end + 1;
+        }
+        return pos == url.length() + 1;
+    }
+
+    /**
+     * Construit une URL en remplaçant chaque paramètre par sa valeur, ou par
+     * une valeur acceptée par sa contrainte si elle est absente.
+     *
+     * @return l'URL, ou null si un paramètre n'a pas de valeur connue
+     */
+    public String expand(Map<String, String> values) {
+        StringBuilder url = new StringBuilder();
+        for (Segment segment : segments) {
+            url.append('/');
+            if (segment.literal != null) {
+                url.append(segment.literal);
+                continue;
+            }
+            if (segment.compound != null) {
+                return null;
+            }
+            String value = values.get(segment.name);
+            if (value == null) {
+                value = segment.catchAll ? "warmup" : segment.constraint.sample();
+                if (value == null) {
+                    return null;
+                }
+            }
+            url.append(segment.prefix).append(value).append(segment.suffix);
+        }
+        return url.length() == 0 ? "/" : url.toString();
+    }
+
     /**
      * Retourne les noms des paramètres dans l'ordre.
      */
@@ -86,8 +219,119 @@ public class UrlPattern {
         return pattern;
     }
 
+    List<Segment> getSegments() {
+        return segments;
+    }
+
     @Override
     public String toString() {
         return "UrlPattern{pattern='" + pattern + "', params=" + paramNames + "}";
     }
+
+    /**
+     * Segment d'un pattern : texte fixe, paramètre (éventuellement entouré de
+     * texte fixe), paramètres multiples ou reste du chemin.
+     */
+    static final class Segment {
+        final String source;
+        final String literal;
+        final String prefix;
+        final String name;
+        final PathConstraint constraint;
+        final String suffix;
+        final Pattern compound;
+        final List<String> compoundNames;
+        /** Contraintes des paramètres multiples : l'expression ne borne pas la valeur des int et long. */
+        final List<PathConstraint> compoundConstraints;
+        final boolean catchAll;
+
+        private Segment(String source, String literal, String prefix, String name, PathConstraint constraint,
+                        String suffix, Pattern compound, List<String> compoundNames,
+                        List<PathConstraint> compoundConstraints, boolean catchAll) {
+            this.source = source;
+            this.literal = literal;
+            this.prefix = prefix;
+            this.name = name;
+            this.constraint = constraint;
+            this.suffix = suffix;
+            this.compound = compound;
+            this.compoundNames = compoundNames;
+            this.compoundConstraints = compoundConstraints;
+            this.catchAll = catchAll;
+        }
+
+        static Segment literal(String text) {
+            return new Segment(text, text, null, null, null, null, null, null, null, false);
+        }
+
+        static Segment param(String source, String prefix, String name, PathConstraint constraint, String suffix) {
+            return new Segment(source, null, prefix, name, constraint, suffix, null, null, null, false);
+        }
+
+        static Segment compound(String source, Pattern regex, List<String> names, List<PathConstraint> constraints) {
+            return new Segment(source, null, null, null, null, null, regex, names, constraints, false);
+        }
+
+        static Segment catchAll(String source, String name) {
+            return new Segment(source, null, null, name, null, null, null, null, null, true);
+        }
+
+        /**
+         * Ordre d'essai pendant le routage : texte fixe, types prédéfinis,
+         * expressions régulières, paramètre libre, reste du chemin.
+         */
+        int rank() {
+            if (literal != null) {
+                return 0;
+            }
+            if (catchAll) {
+                return 5;
+            }
+            if (compound != null) {
+                return 2;
+            }
+            // Un texte fixe autour du paramètre le rend plus précis qu'un paramètre libre
+            int rank = constraint.rank();
+            return rank == 3 && (!prefix.isEmpty() || !suffix.isEmpty()) ? 2 : rank;
+        }
+
+        /**
+         * Compare path[start, end) au segment et ajoute les paramètres trouvés à params (si non null).
+         */
+        boolean matches(String path, int start, int end, Map<String, String> params) {
+            if (literal != null) {
+                return end - start == literal.length() && path.startsWith(literal, start);
+            }
+            if (compound != null) {
+                Matcher m = compound.matcher(path).region(start, end);
+                if (!m.matches()) {
+                    return false;
+                }
+                for (int i = 0; i < compoundConstraints.size(); i++) {
+                    String group = "p" + i;
+                    if (!compoundConstraints.get(i).accepts(path, m.start(group), m.end(group))) {
+                        return false;
+                    }
+                }
+                if (params != null) {
+                    for (int i = 0; i < compoundNames.size(); i++) {
+                        params.put(compoundNames.get(i), m.group("p" + i));
+                    }
+                }
+                return true;
+            }
+            int valueStart = start + prefix.length();
+            int valueEnd = end - suffix.length();
+            if (valueStart > valueEnd
+                    || !path.startsWith(prefix, start)
+                    || !path.startsWith(suffix, valueEnd)
+                    || !constraint.accepts(path, valueStart, valueEnd)) {
+                return false;
+            }
+            if (params != null) {
+                params.put(name, path.substring(valueStart, valueEnd));
+            }
+            return true;
+        }
+    }
 }
@@ -0,0 +1,55 @@
+package com.monframework.multipart;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Flux qui lève une {@link PayloadTooLargeException} dès que plus de
+ * {@code limit} octets ont été lus, sans lire au-delà de la limite + 1.
+ */
+final class LimitedInputStream extends FilterInputStream {
+    private final long limit;
+    private final String what;
+    private long count;
+
+    LimitedInputStream(InputStream in, long limit, String what) {
+        super(in);
+        this.limit = limit;
+        this.what = what;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            check(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        // Ne jamais demander plus que nécessaire pour détecter le dépassement
+        long allowed = limit - count + 1;
+        int n = super.read(b, off, (int) Math.min(len, Math.max(1, allowed)));
+        if (n > 0) {
+            check(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(Math.min(n, limit - count + 1));
+        check(skipped);
+        return skipped;
+    }
+
+    private void check(long n) {
+        count += n;
+        if (count > limit) {
+            throw new PayloadTooLargeException(what + " dépasse la taille maximale de " + limit + " octets");
+        }
+    }
+}
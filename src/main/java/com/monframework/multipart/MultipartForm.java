@@ -0,0 +1,124 @@
+package com.monframework.multipart;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Formulaire multipart entièrement lu : champs texte et fichiers reçus.
+ * Analysé une seule fois par requête (voir {@link RequestBodies#form}) ;
+ * les fichiers temporaires sont supprimés par {@link #cleanup()} à la fin
+ * de la requête.
+ */
+public final class MultipartForm {
+
+    /** Taille maximale d'un champ texte (hors fichier). */
+    private static final int MAX_FIELD_SIZE = 1024 * 1024;
+
+    private final Map<String, List<String>> fields = new LinkedHashMap<>();
+    private final Map<String, List<UploadedFile>> files = new LinkedHashMap<>();
+
+    private MultipartForm() {
+    }
+
+    /**
+     * Lit toutes les parties. Le nombre de parties est borné par le parser ;
+     * la mémoire occupée par les champs et les fichiers gardés en mémoire est
+     * bornée par maxMemorySize (les fichiers passent alors sur disque).
+     */
+    static MultipartForm parse(MultipartParser parser, MultipartSettings settings, Charset charset) throws IOException {
+        MultipartForm form = new MultipartForm();
+        boolean bounded = settings.getMaxMemorySize() >= 0;
+        long budget = settings.getMaxMemorySize();
+        try {
+            StreamingPart part;
+            while ((part = parser.nextPart()) != null) {
+                String name = part.getName() != null ? part.getName() : "";
+                if (part.isFile()) {
+                    int threshold = bounded
+                            ? (int) Math.min(settings.getMemoryThreshold(), budget)
+                            : settings.getMemoryThreshold();
+                    UploadedFile file = UploadedFile.store(part, settings, threshold);
+                    if (file.isInMemory()) {
+                        budget -= file.getSize();
+                    }
+                    form.files.computeIfAbsent(name, k -> new ArrayList<>(1)).add(file);
+                } else {
+                    int max = bounded ? (int) Math.min(MAX_FIELD_SIZE, budget) : MAX_FIELD_SIZE;
+                    String value = readField(part, charset, max);
+                    budget -= part.getBytesRead();
+                    form.fields.computeIfAbsent(name, k -> new ArrayList<>(1)).add(value);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            form.cleanup();
+            throw e;
+        }
+        return form;
+    }
+
+    private static String readField(StreamingPart part, Charset charset, int max) throws IOException {
+        InputStream in = part.getInputStream();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        int n;
+        while ((n = in.read(chunk, 0, chunk.length)) >= 0) {
+            if (out.size() + n > max) {
+                throw new PayloadTooLargeException(max < MAX_FIELD_SIZE
+                        ? "Formulaire trop volumineux (champ '" + part.getName() + "')"
+                        : "Le champ '" + part.getName() + "' est trop long");
+            }
+            out.write(chunk, 0, n);
+        }
+        return out.toString(charset);
+    }
+
+    public Map<String, List<String>> getFields() {
+        return Collections.unmodifiableMap(fields);
+    }
+
+    public Map<String, List<UploadedFile>> getFiles() {
+        return Collections.unmodifiableMap(files);
+    }
+
+    /** Premier fichier envoyé sous ce nom, ou null. */
+    public UploadedFile getFile(String name) {
+        List<UploadedFile> list = files.get(name);
+        return list == null || list.isEmpty() ? null : list.get(0);
+    }
+
+    /** Tous les fichiers envoyés sous ce nom. */
+    public List<UploadedFile> getFileList(String name) {
+        List<UploadedFile> list = files.get(name);
+        return list == null ? Collections.emptyList() : Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Supprime les fichiers temporaires qui n'ont pas été déplacés.
+     */
+    public void cleanup() {
+        for (List<UploadedFile> list : files.values()) {
+            for (UploadedFile f : list) {
+                f.delete();
+            }
+        }
+    }
+
+    static Charset charsetOf(HttpServletRequest request) {
+        String encoding = request.getCharacterEncoding();
+        try {
+            return encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+        } catch (IllegalArgumentException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+}
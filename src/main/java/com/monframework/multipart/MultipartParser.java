@@ -0,0 +1,276 @@
+package com.monframework.multipart;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.monframework.core.HttpException;
+
+/**
+ * Analyseur multipart/form-data incrémental.
+ *
+ * Le corps est lu par blocs dans un tampon de taille fixe : seule la partie
+ * courante est accessible, sous forme de flux, et la mémoire utilisée reste
+ * constante quelle que soit la taille des fichiers envoyés. La lecture suit le
+ * rythme du consommateur (si le contrôleur lit lentement, le client est
+ * ralenti par TCP).
+ */
+public final class MultipartParser {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADER_SIZE = 16 * 1024;
+
+    private final InputStream in;
+    private final MultipartSettings settings;
+    private final byte[] delimiter;
+    private final byte[] buf;
+    private int pos;
+    private int limit;
+    /** Début de la zone du tampon pas encore examinée par indexOfDelimiter. */
+    private int scanned;
+    private int parts;
+    private boolean streamEnded;
+    private boolean started;
+    private boolean finished;
+    private StreamingPart current;
+
+    public MultipartParser(InputStream in, String boundary, MultipartSettings settings) {
+        this.in = in;
+        this.settings = settings;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.buf = new byte[Math.max(BUFFER_SIZE, delimiter.length * 4)];
+        // Le premier délimiteur n'est pas précédé de CRLF : on l'ajoute pour
+        // n'avoir qu'une seule forme de délimiteur à rechercher
+        buf[0] = '\r';
+        buf[1] = '\n';
+        limit = 2;
+    }
+
+    /**
+     * Extrait le boundary d'un Content-Type multipart, ou null.
+     */
+    public static String boundaryOf(String contentType) {
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/")) {
+            return null;
+        }
+        String value = headerParam(contentType, "boundary");
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Passe à la partie suivante (le reste de la partie courante est ignoré).
+     *
+     * @return la partie suivante, ou null à la fin du corps
+     */
+    public StreamingPart nextPart() throws IOException {
+        if (finished) {
+            return null;
+        }
+        if (current != null) {
+            current.drain();
+            current = null;
+        }
+        if (!started) {
+            started = true;
+            skipPreamble();
+        }
+        // pos est sur le délimiteur
+        pos += delimiter.length;
+        if (!ensure(2)) {
+            throw malformed("fin de flux après un délimiteur");
+        }
+        if (buf[pos] == '-' && buf[pos + 1] == '-') {
+            finished = true;
+            return null;
+        }
+        int maxParts = settings.getMaxParts();
+        if (maxParts >= 0 && ++parts > maxParts) {
+            throw new PayloadTooLargeException("Plus de " + maxParts + " parties dans le corps multipart");
+        }
+        readLine(); // espaces éventuels puis CRLF après le délimiteur
+        Map<String, String> headers = readHeaders();
+        current = new StreamingPart(this, headers, settings.getMaxFileSize());
+        return current;
+    }
+
+    private void skipPreamble() throws IOException {
+        while (true) {
+            int idx = indexOfDelimiter();
+            if (idx >= 0) {
+                pos = idx;
+                return;
+            }
+            // Garder la fin du tampon, qui peut contenir un début de délimiteur
+            pos = Math.max(pos, limit - delimiter.length + 1);
+            if (!fill()) {
+                throw malformed("aucune partie trouvée");
+            }
+        }
+    }
+
+    private Map<String, String> readHeaders() throws IOException {
+        Map<String, String> headers = new LinkedHashMap<>();
+        int total = 0;
+        while (true) {
+            String line = readLine();
+            total += line.length() + 2;
+            if (total > MAX_HEADER_SIZE) {
+                throw malformed("en-têtes de partie trop longs");
+            }
+            if (line.isEmpty()) {
+                return headers;
+            }
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+            }
+        }
+    }
+
+    private String readLine() throws IOException {
+        int start = pos;
+        int i = pos;
+        while (true) {
+            if (i + 1 >= limit) {
+                if (limit - start > MAX_HEADER_SIZE) {
+                    throw malformed("ligne d'en-tête trop longue");
+                }
+                int consumed = i - start;
+                pos = start;
+                if (!fill()) {
+                    throw malformed("fin de flux dans les en-têtes");
+                }
+                start = pos;
+                i = start + consumed;
+                continue;
+            }
+            if (buf[i] == '\r' && buf[i + 1] == '\n') {
+                String line = new String(buf, start, i - start, StandardCharsets.UTF_8);
+                pos = i + 2;
+                return line;
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Lit le contenu de la partie courante. Retourne -1 sur le délimiteur suivant.
+     */
+    int readPart(byte[] b, int off, int len) throws IOException {
+        while (true) {
+            int idx = indexOfDelimiter();
+            int available;
+            if (idx >= 0) {
+                available = idx - pos;
+                if (available == 0) {
+                    return -1;
+                }
+            } else {
+                // Tout sauf la fin qui peut être un délimiteur incomplet
+                available = limit - pos - (delimiter.length - 1);
+                if (available <= 0) {
+                    if (!fill()) {
+                        throw malformed("fin de flux dans une partie");
+                    }
+                    continue;
+                }
+            }
+            int n = Math.min(available, len);
+            System.arraycopy(buf, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+    }
+
+    /**
+     * Position du prochain délimiteur dans le tampon, ou -1. Seuls les octets
+     * arrivés depuis l'appel précédent sont examinés : des lectures d'un octet
+     * ne rescannent pas tout le tampon à chaque appel.
+     */
+    private int indexOfDelimiter() {
+        byte first = delimiter[0];
+        int last = limit - delimiter.length;
+        outer:
+        for (int i = Math.max(pos, scanned); i <= last; i++) {
+            if (buf[i] != first) {
+                continue;
+            }
+            for (int j = 1; j < delimiter.length; j++) {
+                if (buf[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            scanned = i;
+            return i;
+        }
+        scanned = Math.max(pos, last + 1);
+        return -1;
+    }
+
+    private boolean ensure(int n) throws IOException {
+        while (limit - pos < n) {
+            if (!fill()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compacte le tampon puis lit depuis le flux. Retourne false en fin de flux.
+     */
+    private boolean fill() throws IOException {
+        if (streamEnded) {
+            return false;
+        }
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, limit - pos);
+            limit -= pos;
+            scanned = Math.max(0, scanned - pos);
+            pos = 0;
+        }
+        int n = in.read(buf, limit, buf.length - limit);
+        if (n < 0) {
+            streamEnded = true;
+            return false;
+        }
+        limit += n;
+        return true;
+    }
+
+    private static HttpException malformed(String reason) {
+        return new HttpException(400, "Corps multipart invalide: " + reason);
+    }
+
+    /**
+     * Lit un paramètre d'en-tête : name="fichier" ou boundary=abc.
+     */
+    static String headerParam(String header, String param) {
+        if (header == null) {
+            return null;
+        }
+        String lower = header.toLowerCase(Locale.ROOT);
+        int idx = 0;
+        while ((idx = lower.indexOf(param, idx)) >= 0) {
+            int before = idx - 1;
+            while (before >= 0 && lower.charAt(before) == ' ') {
+                before--;
+            }
+            int eq = idx + param.length();
+            if ((before < 0 || lower.charAt(before) == ';') && eq < header.length() && header.charAt(eq) == '=') {
+                int start = eq + 1;
+                if (start < header.length() && header.charAt(start) == '"') {
+                    int end = header.indexOf('"', start + 1);
+                    return header.substring(start + 1, end < 0 ? header.length() : end);
+                }
+                int end = header.indexOf(';', start);
+                return header.substring(start, end < 0 ? header.length() : end).trim();
+            }
+            idx = eq;
+        }
+        return null;
+    }
+}
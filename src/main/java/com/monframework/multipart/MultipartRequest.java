@@ -0,0 +1,61 @@
+package com.monframework.multipart;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+/**
+ * Requête dont les paramètres incluent les champs texte d'un formulaire
+ * multipart, pour que la liaison habituelle (@RequestParam, beans, Map)
+ * fonctionne sans configuration du conteneur.
+ */
+final class MultipartRequest extends HttpServletRequestWrapper {
+    private final MultipartForm form;
+    private Map<String, String[]> parameterMap;
+
+    MultipartRequest(HttpServletRequest request, MultipartForm form) {
+        super(request);
+        this.form = form;
+    }
+
+    MultipartForm getForm() {
+        return form;
+    }
+
+    @Override
+    public String getParameter(String name) {
+        List<String> values = form.getFields().get(name);
+        if (values != null && !values.isEmpty()) {
+            return values.get(0);
+        }
+        return super.getParameter(name);
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        String[] values = getParameterMap().get(name);
+        return values != null ? values.clone() : null;
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        if (parameterMap == null) {
+            Map<String, String[]> merged = new LinkedHashMap<>(super.getParameterMap());
+            for (Map.Entry<String, List<String>> e : form.getFields().entrySet()) {
+                merged.put(e.getKey(), e.getValue().toArray(new String[0]));
+            }
+            parameterMap = Collections.unmodifiableMap(merged);
+        }
+        return parameterMap;
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(getParameterMap().keySet());
+    }
+}
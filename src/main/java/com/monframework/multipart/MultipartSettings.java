@@ -0,0 +1,96 @@
+package com.monframework.multipart;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Limites et seuils utilisés pour lire le corps des requêtes.
+ * Configurables via les paramètres d'initialisation du FrontServlet :
+ * <pre>
+ * multipart.memoryThreshold  taille gardée en mémoire avant écriture sur disque (64 Ko)
+ * multipart.maxFileSize      taille maximale d'une partie (-1 = illimitée)
+ * multipart.maxRequestSize   taille maximale du corps de la requête (100 Mo, -1 = illimitée)
+ * multipart.maxParts         nombre maximal de parties d'un formulaire (100, -1 = illimité)
+ * multipart.maxMemorySize    mémoire totale des champs et petits fichiers d'un formulaire (4 Mo)
+ * multipart.tempDir          répertoire des fichiers temporaires (java.io.tmpdir)
+ * </pre>
+ * Une fois maxMemorySize atteint, les fichiers suivants vont directement sur
+ * disque et un champ texte supplémentaire est refusé (413).
+ */
+public final class MultipartSettings {
+
+    public static final long UNLIMITED = -1;
+
+    private static final long DEFAULT_MAX_REQUEST_SIZE = 100L * 1024 * 1024;
+    private static final int DEFAULT_MAX_PARTS = 100;
+    private static final long DEFAULT_MAX_MEMORY_SIZE = 4L * 1024 * 1024;
+
+    private static volatile MultipartSettings defaults = new MultipartSettings(
+            64 * 1024, UNLIMITED, DEFAULT_MAX_REQUEST_SIZE, DEFAULT_MAX_PARTS, DEFAULT_MAX_MEMORY_SIZE,
+            Paths.get(System.getProperty("java.io.tmpdir")));
+
+    private final int memoryThreshold;
+    private final long maxFileSize;
+    private final long maxRequestSize;
+    private final int maxParts;
+    private final long maxMemorySize;
+    private final Path tempDir;
+
+    public MultipartSettings(int memoryThreshold, long maxFileSize, long maxRequestSize, Path tempDir) {
+        this(memoryThreshold, maxFileSize, maxRequestSize, DEFAULT_MAX_PARTS, DEFAULT_MAX_MEMORY_SIZE, tempDir);
+    }
+
+    public MultipartSettings(int memoryThreshold, long maxFileSize, long maxRequestSize,
+                             int maxParts, long maxMemorySize, Path tempDir) {
+        this.memoryThreshold = memoryThreshold;
+        this.maxFileSize = maxFileSize;
+        this.maxRequestSize = maxRequestSize;
+        this.maxParts = maxParts;
+        this.maxMemorySize = maxMemorySize;
+        this.tempDir = tempDir;
+    }
+
+    public static MultipartSettings getDefault() {
+        return defaults;
+    }
+
+    public static void setDefault(MultipartSettings settings) {
+        defaults = settings;
+    }
+
+    public int getMemoryThreshold() { return memoryThreshold; }
+    public long getMaxFileSize() { return maxFileSize; }
+    public long getMaxRequestSize() { return maxRequestSize; }
+    public int getMaxParts() { return maxParts; }
+    public long getMaxMemorySize() { return maxMemorySize; }
+    public Path getTempDir() { return tempDir; }
+
+    /**
+     * Construit les réglages à partir de valeurs textuelles (null = valeur par défaut).
+     */
+    public static MultipartSettings parse(String memoryThreshold, String maxFileSize, String maxRequestSize, String tempDir) {
+        return parse(memoryThreshold, maxFileSize, maxRequestSize, null, null, tempDir);
+    }
+
+    /**
+     * Idem, avec le nombre de parties et la mémoire totale d'un formulaire.
+     */
+    public static MultipartSettings parse(String memoryThreshold, String maxFileSize, String maxRequestSize,
+                                          String maxParts, String maxMemorySize, String tempDir) {
+        MultipartSettings d = getDefault();
+        return new MultipartSettings(
+                memoryThreshold != null ? Integer.parseInt(memoryThreshold.trim()) : d.memoryThreshold,
+                maxFileSize != null ? Long.parseLong(maxFileSize.trim()) : d.maxFileSize,
+                maxRequestSize != null ? Long.parseLong(maxRequestSize.trim()) : d.maxRequestSize,
+                maxParts != null ? Integer.parseInt(maxParts.trim()) : d.maxParts,
+                maxMemorySize != null ? Long.parseLong(maxMemorySize.trim()) : d.maxMemorySize,
+                tempDir != null ? Paths.get(tempDir.trim()) : d.tempDir);
+    }
+
+    @Override
+    public String toString() {
+        return "MultipartSettings{memoryThreshold=" + memoryThreshold + ", maxFileSize=" + maxFileSize
+                + ", maxRequestSize=" + maxRequestSize + ", maxParts=" + maxParts
+                + ", maxMemorySize=" + maxMemorySize + ", tempDir=" + tempDir + "}";
+    }
+}
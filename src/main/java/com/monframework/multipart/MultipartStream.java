@@ -0,0 +1,40 @@
+package com.monframework.multipart;
+
+import java.io.IOException;
+
+/**
+ * Accès en flux aux parties d'une requête multipart, dans l'ordre d'envoi.
+ * Déclarer un paramètre de ce type dans un contrôleur désactive l'analyse
+ * automatique du formulaire : rien n'est lu avant que le contrôleur ne le demande.
+ *
+ * <pre>
+ * {@code
+ * @POST
+ * @HandleUrl("/import")
+ * public String importer(MultipartStream parts) throws IOException {
+ *     StreamingPart part;
+ *     while ((part = parts.next()) != null) {
+ *         if (part.isFile()) {
+ *             Files.copy(part.getInputStream(), destination);
+ *         }
+ *     }
+ *     return "ok";
+ * }
+ * }
+ * </pre>
+ */
+public final class MultipartStream {
+    private final MultipartParser parser;
+
+    MultipartStream(MultipartParser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Retourne la partie suivante, ou null s'il n'y en a plus.
+     * La partie précédente n'est plus lisible après cet appel.
+     */
+    public StreamingPart next() throws IOException {
+        return parser.nextPart();
+    }
+}
@@ -0,0 +1,16 @@
+package com.monframework.multipart;
+
+import com.monframework.core.HttpException;
+
+/**
+ * Levée lorsqu'un corps de requête ou une partie dépasse la limite configurée.
+ * Se traduit par une réponse 413 (Payload Too Large).
+ */
+public class PayloadTooLargeException extends HttpException {
+
+    private static final long serialVersionUID = 1L;
+
+    public PayloadTooLargeException(String message) {
+        super(413, message);
+    }
+}
@@ -0,0 +1,108 @@
+package com.monframework.multipart;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import com.monframework.core.HttpException;
+
+/**
+ * Accès au corps des requêtes pour la liaison des paramètres :
+ * corps brut, parties multipart en flux, ou formulaire multipart complet.
+ * Les limites de {@link MultipartSettings} sont vérifiées sur Content-Length
+ * avant toute lecture, puis pendant la lecture pour les corps sans longueur.
+ */
+public final class RequestBodies {
+
+    private static final String FORM_ATTRIBUTE = "com.monframework.multipart.form";
+
+    private RequestBodies() {
+    }
+
+    public static boolean isMultipart(HttpServletRequest request) {
+        return request != null && MultipartParser.boundaryOf(request.getContentType()) != null;
+    }
+
+    /**
+     * Flux du corps brut, borné par maxRequestSize.
+     */
+    public static InputStream openBody(HttpServletRequest request, MultipartSettings settings) throws IOException {
+        return openBody(request, settings.getMaxRequestSize());
+    }
+
+    /**
+     * Flux du corps brut, borné à max octets (négatif : sans limite).
+     */
+    public static InputStream openBody(HttpServletRequest request, long max) throws IOException {
+        long length = request.getContentLengthLong();
+        if (max >= 0 && length > max) {
+            throw new PayloadTooLargeException("Corps de " + length + " octets, maximum " + max);
+        }
+        InputStream in = request.getInputStream();
+        return max >= 0 ? new LimitedInputStream(in, max, "Le corps de la requête") : in;
+    }
+
+    /**
+     * Parties du corps multipart, lues à la demande.
+     */
+    public static MultipartStream stream(HttpServletRequest request, MultipartSettings settings) throws IOException {
+        return new MultipartStream(parser(request, settings));
+    }
+
+    /**
+     * Formulaire multipart complet, analysé une seule fois par requête.
+     */
+    public static MultipartForm form(HttpServletRequest request, MultipartSettings settings) throws IOException {
+        if (request instanceof MultipartRequest) {
+            return ((MultipartRequest) request).getForm();
+        }
+        MultipartForm form = (MultipartForm) request.getAttribute(FORM_ATTRIBUTE);
+        if (form == null) {
+            form = MultipartForm.parse(parser(request, settings), settings, MultipartForm.charsetOf(request));
+            request.setAttribute(FORM_ATTRIBUTE, form);
+        }
+        return form;
+    }
+
+    /**
+     * Enveloppe une requête multipart pour exposer ses champs texte via
+     * getParameter. Retourne la requête telle quelle si elle n'est pas multipart.
+     */
+    public static HttpServletRequest withMultipartParameters(HttpServletRequest request, MultipartSettings settings) throws IOException {
+        if (!isMultipart(request) || request instanceof MultipartRequest) {
+            return request;
+        }
+        return new MultipartRequest(request, form(request, settings));
+    }
+
+    /**
+     * Supprime les fichiers temporaires du formulaire éventuellement analysé.
+     */
+    public static void cleanup(HttpServletRequest request) {
+        MultipartForm form = parsedForm(request);
+        if (form != null) {
+            form.cleanup();
+        }
+    }
+
+    /**
+     * Formulaire multipart déjà analysé pour cette requête, ou null.
+     */
+    public static MultipartForm parsedForm(HttpServletRequest request) {
+        if (request == null) {
+            return null;
+        }
+        return request instanceof MultipartRequest
+                ? ((MultipartRequest) request).getForm()
+                : (MultipartForm) request.getAttribute(FORM_ATTRIBUTE);
+    }
+
+    private static MultipartParser parser(HttpServletRequest request, MultipartSettings settings) throws IOException {
+        String boundary = MultipartParser.boundaryOf(request.getContentType());
+        if (boundary == null) {
+            throw new HttpException(415, "Requête multipart attendue (Content-Type: " + request.getContentType() + ")");
+        }
+        return new MultipartParser(openBody(request, settings), boundary, settings);
+    }
+}
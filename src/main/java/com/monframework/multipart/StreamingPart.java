@@ -0,0 +1,92 @@
+package com.monframework.multipart;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Partie d'un corps multipart en cours de lecture.
+ * Le contenu n'est pas mis en mémoire : {@link #getInputStream()} lit
+ * directement le flux de la requête jusqu'au délimiteur suivant. Une partie
+ * n'est lisible que tant que l'on n'a pas demandé la suivante.
+ */
+public final class StreamingPart {
+    private final MultipartParser parser;
+    private final Map<String, String> headers;
+    private final String name;
+    private final String fileName;
+    private final long maxSize;
+    private final PartInputStream stream = new PartInputStream();
+    private long size;
+
+    StreamingPart(MultipartParser parser, Map<String, String> headers, long maxSize) {
+        this.parser = parser;
+        this.headers = headers;
+        this.maxSize = maxSize;
+        String disposition = headers.get("content-disposition");
+        this.name = MultipartParser.headerParam(disposition, "name");
+        this.fileName = MultipartParser.headerParam(disposition, "filename");
+    }
+
+    /** Nom du champ de formulaire. */
+    public String getName() { return name; }
+
+    /** Nom du fichier envoyé, ou null pour un champ texte. */
+    public String getFileName() { return fileName; }
+
+    public boolean isFile() { return fileName != null; }
+
+    public String getContentType() { return headers.get("content-type"); }
+
+    /** En-tête de la partie (nom en minuscules). */
+    public String getHeader(String name) { return headers.get(name.toLowerCase(Locale.ROOT)); }
+
+    /** Nombre d'octets lus jusqu'ici. */
+    public long getBytesRead() { return size; }
+
+    public InputStream getInputStream() {
+        return stream;
+    }
+
+    /**
+     * Ignore le reste du contenu (avant de passer à la partie suivante).
+     */
+    void drain() throws IOException {
+        byte[] skip = new byte[8192];
+        while (stream.read(skip, 0, skip.length) >= 0) {
+            // rien
+        }
+    }
+
+    private final class PartInputStream extends InputStream {
+        private final byte[] one = new byte[1];
+        private boolean ended;
+
+        @Override
+        public int read() throws IOException {
+            int n = read(one, 0, 1);
+            return n < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (ended) {
+                return -1;
+            }
+            if (len == 0) {
+                return 0;
+            }
+            int n = parser.readPart(b, off, len);
+            if (n < 0) {
+                ended = true;
+                return -1;
+            }
+            size += n;
+            if (maxSize >= 0 && size > maxSize) {
+                throw new PayloadTooLargeException("La partie '" + name + "' dépasse la taille maximale de " + maxSize + " octets");
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.monframework.multipart;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Fichier reçu dans un formulaire multipart.
+ * Les petits fichiers restent en mémoire ; au-delà du seuil configuré le
+ * contenu est écrit dans un fichier temporaire via un {@link FileChannel}.
+ * Le fichier temporaire est supprimé à la fin de la requête : utiliser
+ * {@link #transferTo(Path)} pour le conserver.
+ */
+public final class UploadedFile {
+    private final String name;
+    private final String fileName;
+    private final String contentType;
+    private byte[] memory;
+    private Path file;
+    private long size;
+    private boolean moved;
+
+    private UploadedFile(String name, String fileName, String contentType) {
+        this.name = name;
+        this.fileName = fileName;
+        this.contentType = contentType;
+    }
+
+    /**
+     * Lit entièrement une partie : en mémoire jusqu'au seuil, puis sur disque.
+     */
+    static UploadedFile store(StreamingPart part, MultipartSettings settings) throws IOException {
+        return store(part, settings, settings.getMemoryThreshold());
+    }
+
+    /**
+     * Idem avec un seuil mémoire réduit (reste du budget mémoire du formulaire).
+     */
+    static UploadedFile store(StreamingPart part, MultipartSettings settings, int threshold) throws IOException {
+        UploadedFile uploaded = new UploadedFile(part.getName(), part.getFileName(), part.getContentType());
+        InputStream in = part.getInputStream();
+        byte[] chunk = new byte[Math.min(Math.max(threshold, 1024), 64 * 1024)];
+        byte[] mem = new byte[Math.min(threshold, 8192)];
+        int memSize = 0;
+
+        int n;
+        while ((n = in.read(chunk, 0, chunk.length)) >= 0) {
+            if (memSize + n <= threshold) {
+                if (memSize + n > mem.length) {
+                    mem = Arrays.copyOf(mem, Math.min(threshold, Math.max(mem.length * 2, memSize + n)));
+                }
+                System.arraycopy(chunk, 0, mem, memSize, n);
+                memSize += n;
+                continue;
+            }
+            // Seuil dépassé : écrire ce qui est en mémoire puis le reste du flux sur disque
+            uploaded.spill(mem, memSize, chunk, n, in, settings.getTempDir());
+            return uploaded;
+        }
+        uploaded.memory = Arrays.copyOf(mem, memSize);
+        uploaded.size = memSize;
+        return uploaded;
+    }
+
+    private void spill(byte[] mem, int memSize, byte[] chunk, int n, InputStream in, Path tempDir) throws IOException {
+        file = Files.createTempFile(tempDir, "upload-", ".tmp");
+        boolean ok = false;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            long written = writeFully(channel, mem, memSize);
+            ByteBuffer buffer = ByteBuffer.wrap(chunk);
+            int read = n;
+            do {
+                buffer.clear().limit(read);
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer);
+                }
+            } while ((read = in.read(chunk, 0, chunk.length)) >= 0);
+            size = written;
+            ok = true;
+        } finally {
+            if (!ok) {
+                delete();
+            }
+        }
+    }
+
+    private static long writeFully(FileChannel channel, byte[] data, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data, 0, length);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return length;
+    }
+
+    /** Nom du champ de formulaire. */
+    public String getName() { return name; }
+
+    /** Nom du fichier côté client. */
+    public String getFileName() { return fileName; }
+
+    public String getContentType() { return contentType; }
+
+    public long getSize() { return size; }
+
+    /** Indique si le contenu est resté en mémoire (sous le seuil). */
+    public boolean isInMemory() { return memory != null; }
+
+    public InputStream getInputStream() throws IOException {
+        if (memory != null) {
+            return new ByteArrayInputStream(memory);
+        }
+        return Channels.newInputStream(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /**
+     * Contenu complet en mémoire (à éviter pour les gros fichiers).
+     */
+    public byte[] getBytes() throws IOException {
+        return memory != null ? memory.clone() : Files.readAllBytes(file);
+    }
+
+    /**
+     * Déplace (ou écrit) le contenu vers la destination. Le fichier temporaire
+     * est déplacé sans recopie lorsque c'est possible.
+     */
+    public void transferTo(Path target) throws IOException {
+        if (memory != null) {
+            Files.write(target, memory);
+            return;
+        }
+        Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+        // Le contenu est désormais dans la destination : ne plus le supprimer
+        file = target;
+        memory = null;
+        moved = true;
+    }
+
+    /**
+     * Supprime le fichier temporaire éventuel. Appelé à la fin de la requête.
+     */
+    void delete() {
+        if (file != null && !moved) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.err.println("Warning: impossible de supprimer " + file + " : " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "UploadedFile{name='" + name + "', fileName='" + fileName + "', size=" + size
+                + (memory != null ? ", inMemory" : ", file=" + file) + "}";
+    }
+}
@@ -0,0 +1,219 @@
+package com.monframework.replay;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Format du journal de trafic écrit par {@link TrafficRecorder}.
+ *
+ * <pre>
+ * en-tête (16 octets) : magic "MFRL", version (short), réservé (short), début (epoch ms, long)
+ * enregistrement      : longueur (int, écrite en dernier : 0 = fin du journal)
+ *                       décalage depuis le début (ns, long), durée (µs, int), statut (short)
+ *                       méthode, chemin, query, clé de route, corps de formulaire (chaînes)
+ *                       nombre d'en-têtes (varint) puis nom/valeur (chaînes)
+ * chaîne              : varint (longueur UTF-8 + 1, 0 = null) puis les octets
+ * </pre>
+ */
+public final class TrafficLog {
+
+    static final int MAGIC = 0x4D46524C;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    private TrafficLog() {
+    }
+
+    /**
+     * Requête enregistrée.
+     */
+    public static final class Entry {
+        private final long offsetNanos;
+        private final long durationNanos;
+        private final int status;
+        private final String method;
+        private final String path;
+        private final String query;
+        private final String routeKey;
+        private final String formBody;
+        private final Map<String, List<String>> headers;
+
+        Entry(long offsetNanos, long durationNanos, int status, String method, String path, String query,
+              String routeKey, String formBody, Map<String, List<String>> headers) {
+            this.offsetNanos = offsetNanos;
+            this.durationNanos = durationNanos;
+            this.status = status;
+            this.method = method;
+            this.path = path;
+            this.query = query;
+            this.routeKey = routeKey;
+            this.formBody = formBody;
+            this.headers = headers;
+        }
+
+        /** Instant de la requête, en ns depuis le début de l'enregistrement. */
+        public long getOffsetNanos() { return offsetNanos; }
+        /** Durée de traitement mesurée à l'enregistrement. */
+        public long getDurationNanos() { return durationNanos; }
+        public int getStatus() { return status; }
+        public String getMethod() { return method; }
+        public String getPath() { return path; }
+        public String getQuery() { return query; }
+        /** Clé de la route appelée ("GET:/produits/{id}"), ou null. */
+        public String getRouteKey() { return routeKey; }
+        /** Paramètres d'un formulaire POST (application/x-www-form-urlencoded), ou null. */
+        public String getFormBody() { return formBody; }
+        public Map<String, List<String>> getHeaders() { return headers; }
+    }
+
+    /**
+     * Lit toutes les requêtes d'un journal, dans l'ordre d'écriture.
+     * Un enregistrement incomplet (arrêt pendant l'écriture) termine la lecture.
+     */
+    public static List<Entry> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new IOException(file + " n'est pas un journal de trafic");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Version de journal non supportée: " + version);
+            }
+            buffer.position(HEADER_SIZE);
+            List<Entry> entries = new ArrayList<>();
+            while (buffer.remaining() >= 4) {
+                int length = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                ByteBuffer record = buffer.slice(buffer.position(), length);
+                buffer.position(buffer.position() + length);
+                try {
+                    entries.add(decode(record));
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    System.err.println("Warning: enregistrement illisible ignoré à l'octet " + buffer.position());
+                }
+            }
+            entries.sort((a, b) -> Long.compare(a.offsetNanos, b.offsetNanos));
+            return entries;
+        }
+    }
+
+    private static Entry decode(ByteBuffer in) {
+        long offset = in.getLong();
+        long durationNanos = (in.getInt() & 0xFFFFFFFFL) * 1000;
+        int status = in.getShort();
+        String method = readString(in);
+        String path = readString(in);
+        String query = readString(in);
+        String routeKey = readString(in);
+        String formBody = readString(in);
+        int count = readVarint(in);
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String name = readString(in);
+            String value = readString(in);
+            headers.computeIfAbsent(name, k -> new ArrayList<>(1)).add(value);
+        }
+        return new Entry(offset, durationNanos, status, method, path, query, routeKey, formBody,
+                Collections.unmodifiableMap(headers));
+    }
+
+    // ---- Encodage ----
+
+    /**
+     * Tampon d'encodage d'un enregistrement, réutilisé par thread.
+     */
+    static final class Encoder {
+        byte[] bytes = new byte[512];
+        int length;
+
+        void reset() {
+            length = 0;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                byte[] larger = new byte[Math.max(bytes.length * 2, length + extra)];
+                System.arraycopy(bytes, 0, larger, 0, length);
+                bytes = larger;
+            }
+        }
+
+        void writeLong(long v) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[length++] = (byte) (v >>> shift);
+            }
+        }
+
+        void writeInt(int v) {
+            ensure(4);
+            bytes[length++] = (byte) (v >>> 24);
+            bytes[length++] = (byte) (v >>> 16);
+            bytes[length++] = (byte) (v >>> 8);
+            bytes[length++] = (byte) v;
+        }
+
+        void writeShort(int v) {
+            ensure(2);
+            bytes[length++] = (byte) (v >>> 8);
+            bytes[length++] = (byte) v;
+        }
+
+        void writeVarint(int v) {
+            ensure(5);
+            while ((v & ~0x7F) != 0) {
+                bytes[length++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            bytes[length++] = (byte) v;
+        }
+
+        void writeString(String s) {
+            if (s == null) {
+                writeVarint(0);
+                return;
+            }
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            writeVarint(utf8.length + 1);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, bytes, length, utf8.length);
+            length += utf8.length;
+        }
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("varint invalide");
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readVarint(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
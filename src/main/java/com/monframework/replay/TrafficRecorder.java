@@ -0,0 +1,294 @@
+package com.monframework.replay;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import com.monframework.mapper.RouteMapping;
+
+/**
+ * Enregistrement d'un échantillon du trafic réel, rejouable par
+ * {@link TrafficReplayer}. Chaque requête retenue (méthode, chemin, query,
+ * formulaire, en-têtes choisis, statut, durée) est encodée sur le thread de
+ * la requête puis copiée dans un fichier projeté en mémoire : l'écriture
+ * ne fait ni appel système ni verrou, la place étant réservée par un simple
+ * compteur atomique. Une fois le fichier plein, l'enregistrement s'arrête.
+ *
+ * Configuration (désactivé sans record.file) :
+ * <pre>
+ * record.file=/var/tmp/trafic.mfrl
+ * record.sampleRate=0.1            (proportion de requêtes enregistrées)
+ * record.maxMegabytes=64           (taille du fichier)
+ * record.headers=Accept,Accept-Language,Content-Type,User-Agent
+ * record.excludeParams=password,passwd,pwd,secret,token,...
+ * </pre>
+ * Seuls les en-têtes listés sont conservés (jamais Cookie ni Authorization
+ * par défaut). Dans les query strings et formulaires, la valeur des
+ * paramètres de record.excludeParams (noms sans distinction de casse) est
+ * remplacée par {@value #REDACTED} ; les autres paramètres sont conservés tels quels.
+ *
+ * Le fichier est recréé à chaque démarrage : un journal précédent portant le
+ * même nom est écrasé (un avertissement le signale). Le copier avant de
+ * redémarrer, ou changer record.file, pour le conserver.
+ */
+public final class TrafficRecorder implements AutoCloseable {
+
+    private static final String DEFAULT_HEADERS = "Accept,Accept-Language,Content-Type,User-Agent";
+    private static final String DEFAULT_EXCLUDED_PARAMS = "password,passwd,pwd,secret,token,access_token,"
+            + "refresh_token,id_token,api_key,apikey,client_secret,csrf,_csrf,csrf_token";
+    /** Valeur enregistrée à la place d'un paramètre exclu. */
+    static final String REDACTED = "***";
+    private static final ThreadLocal<TrafficLog.Encoder> ENCODER = ThreadLocal.withInitial(TrafficLog.Encoder::new);
+
+    private final Path file;
+    private final double sampleRate;
+    private final String[] headers;
+    private final Set<String> excludedParams;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong position = new AtomicLong(TrafficLog.HEADER_SIZE);
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicBoolean full = new AtomicBoolean();
+    private volatile boolean closed;
+
+    /**
+     * @param excludedParams noms des paramètres dont la valeur n'est pas enregistrée
+     */
+    public TrafficRecorder(Path file, double sampleRate, long maxBytes, List<String> headers,
+                           Collection<String> excludedParams) throws IOException {
+        this.file = file;
+        this.sampleRate = sampleRate;
+        this.headers = headers.toArray(new String[0]);
+        this.excludedParams = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        this.excludedParams.addAll(excludedParams);
+        if (Files.isRegularFile(file) && Files.size(file) > 0) {
+            System.err.println("Warning: journal de trafic existant écrasé : " + file);
+        }
+        int size = (int) Math.min(Integer.MAX_VALUE, Math.max(TrafficLog.HEADER_SIZE + 1024, maxBytes));
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.putInt(0, TrafficLog.MAGIC);
+        buffer.putShort(4, TrafficLog.VERSION);
+        buffer.putLong(8, System.currentTimeMillis());
+    }
+
+    /**
+     * Crée l'enregistreur décrit par la configuration, ou null si record.file est absent.
+     */
+    public static TrafficRecorder fromConfig(Function<String, String> config) {
+        String file = config.apply("record.file");
+        if (file == null || file.isBlank()) {
+            return null;
+        }
+        String sampleRate = config.apply("record.sampleRate");
+        String maxMegabytes = config.apply("record.maxMegabytes");
+        String headerNames = config.apply("record.headers");
+        String excludedParams = config.apply("record.excludeParams");
+        try {
+            TrafficRecorder recorder = new TrafficRecorder(Paths.get(file.trim()),
+                    sampleRate != null ? Double.parseDouble(sampleRate.trim()) : 0.1,
+                    (maxMegabytes != null ? Long.parseLong(maxMegabytes.trim()) : 64) * 1024 * 1024,
+                    splitNames(headerNames != null ? headerNames : DEFAULT_HEADERS),
+                    splitNames(excludedParams != null ? excludedParams : DEFAULT_EXCLUDED_PARAMS));
+            System.out.println("[DEBUG] Enregistrement du trafic dans " + recorder.file
+                    + " (échantillon " + recorder.sampleRate + ")");
+            return recorder;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Warning: enregistrement du trafic impossible dans " + file + " : " + e);
+            return null;
+        }
+    }
+
+    private static List<String> splitNames(String names) {
+        List<String> list = new ArrayList<>();
+        for (String name : names.split(",")) {
+            if (!name.isBlank()) {
+                list.add(name.trim());
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Tire au sort la requête à venir (à appeler avant le traitement, pour en mesurer la durée).
+     */
+    public boolean sample() {
+        return !full.get() && !closed && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * Enregistre une requête retenue par {@link #sample()}.
+     *
+     * @param startNanos    instant de réception (System.nanoTime())
+     * @param route         route appelée, ou null
+     * @param durationNanos durée de traitement
+     */
+    public void record(HttpServletRequest request, String path, RouteMapping route, int status,
+                       long startNanos, long durationNanos) {
+        if (closed) {
+            return;
+        }
+        TrafficLog.Encoder out = ENCODER.get();
+        out.reset();
+        out.writeInt(0);
+        out.writeLong(startNanos - this.startNanos);
+        out.writeInt((int) Math.min(0xFFFFFFFFL, durationNanos / 1000));
+        out.writeShort(status);
+        out.writeString(request.getMethod());
+        out.writeString(path);
+        String formBody = formBody(request);
+        out.writeString(formBody != null ? null : redactQuery(request.getQueryString()));
+        out.writeString(route != null ? route.getRouteKey() : null);
+        out.writeString(formBody);
+        writeHeaders(request, out);
+
+        int length = out.length;
+        long pos = position.getAndAdd(length);
+        if (pos + length > buffer.capacity()) {
+            if (full.compareAndSet(false, true)) {
+                System.err.println("Warning: journal de trafic " + file + " plein (" + recorded.get()
+                        + " requêtes) : enregistrement arrêté");
+            }
+            return;
+        }
+        // Contenu d'abord, longueur ensuite : une longueur nulle marque la fin du journal
+        buffer.put((int) pos + 4, out.bytes, 4, length - 4);
+        buffer.putInt((int) pos, length - 4);
+        recorded.incrementAndGet();
+    }
+
+    /**
+     * Paramètres d'un formulaire urlencoded (query comprise), le corps n'étant plus lisible ensuite.
+     */
+    private String formBody(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType == null
+                || !contentType.toLowerCase(Locale.ROOT).startsWith("application/x-www-form-urlencoded")) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String[]> e : request.getParameterMap().entrySet()) {
+            String name = URLEncoder.encode(e.getKey(), StandardCharsets.UTF_8);
+            for (String value : e.getValue()) {
+                if (sb.length() > 0) {
+                    sb.append('&');
+                }
+                sb.append(name).append('=').append(excludedParams.contains(e.getKey())
+                        ? REDACTED : URLEncoder.encode(value, StandardCharsets.UTF_8));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Query string dont les paramètres exclus sont masqués, le reste étant
+     * conservé octet pour octet.
+     */
+    String redactQuery(String query) {
+        if (query == null || excludedParams.isEmpty()) {
+            return query;
+        }
+        StringBuilder sb = null;
+        int start = 0;
+        while (start <= query.length()) {
+            int end = query.indexOf('&', start);
+            if (end < 0) {
+                end = query.length();
+            }
+            int eq = query.indexOf('=', start);
+            if (eq >= 0 && eq < end && excludedParams.contains(decode(query.substring(start, eq)))) {
+                if (sb == null) {
+                    sb = new StringBuilder(query.length());
+                    sb.append(query, 0, start);
+                }
+                sb.append(query, start, eq + 1).append(REDACTED);
+            } else if (sb != null) {
+                sb.append(query, start, end);
+            }
+            if (sb != null && end < query.length()) {
+                sb.append('&');
+            }
+            start = end + 1;
+        }
+        return sb != null ? sb.toString() : query;
+    }
+
+    private static String decode(String name) {
+        try {
+            return URLDecoder.decode(name, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return name;
+        }
+    }
+
+    private void writeHeaders(HttpServletRequest request, TrafficLog.Encoder out) {
+        int count = 0;
+        for (String name : headers) {
+            Enumeration<String> values = request.getHeaders(name);
+            while (values != null && values.hasMoreElements()) {
+                values.nextElement();
+                count++;
+            }
+        }
+        out.writeVarint(count);
+        for (String name : headers) {
+            Enumeration<String> values = request.getHeaders(name);
+            while (values != null && values.hasMoreElements()) {
+                out.writeString(name);
+                out.writeString(values.nextElement());
+            }
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Nombre de requêtes enregistrées.
+     */
+    public long getRecorded() {
+        return recorded.get();
+    }
+
+    /**
+     * Écrit le journal sur disque et arrête l'enregistrement.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            buffer.force();
+            channel.close();
+            System.out.println("[DEBUG] Journal de trafic fermé : " + recorded.get() + " requêtes dans " + file);
+        } catch (IOException e) {
+            System.err.println("Warning: fermeture du journal de trafic " + file + " : " + e);
+        }
+    }
+}
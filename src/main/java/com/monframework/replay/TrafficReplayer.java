@@ -0,0 +1,324 @@
+package com.monframework.replay;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import com.monframework.core.Dispatcher;
+import com.monframework.mapper.RouteMapping;
+import com.monframework.server.EmbeddedRequest;
+import com.monframework.server.EmbeddedResponse;
+
+/**
+ * Rejoue un journal de {@link TrafficRecorder} et mesure, par route, le débit
+ * et les percentiles de latence.
+ *
+ * Deux cibles possibles : le pipeline du Dispatcher dans ce processus
+ * (--classes, sans réseau, comme le préchauffage), ou une instance démarrée
+ * à part (--target). Les requêtes partent aux instants enregistrés, divisés
+ * par --rate (2 = deux fois plus vite, 0 = au plus vite). La latence est
+ * comptée depuis l'instant prévu : une file d'attente côté rejeu apparaît
+ * donc dans les percentiles au lieu d'être masquée.
+ *
+ * <pre>
+ * java -cp framework.jar:app.jar com.monframework.replay.TrafficReplayer \
+ *      --log trafic.mfrl --classes build/classes [--config app.properties] [--rate 2] [--threads 32]
+ * java -cp framework.jar com.monframework.replay.TrafficReplayer \
+ *      --log trafic.mfrl --target http://localhost:8080 [--rate 1]
+ * </pre>
+ */
+public final class TrafficReplayer {
+
+    /**
+     * Exécute une requête du journal et retourne son statut HTTP et sa route.
+     */
+    @FunctionalInterface
+    interface Target {
+        Result send(TrafficLog.Entry entry) throws Exception;
+    }
+
+    /** Statut obtenu et route appelée. */
+    static final class Result {
+        final int status;
+        final String routeKey;
+
+        Result(int status, String routeKey) {
+            this.status = status;
+            this.routeKey = routeKey;
+        }
+    }
+
+    /**
+     * Mesures d'une route.
+     */
+    static final class RouteReport {
+        private long[] latencies = new long[64];
+        /** Durées mesurées à l'enregistrement, pour comparaison. */
+        private long[] recorded = new long[64];
+        private int count;
+        private int errors;
+
+        synchronized void add(long latencyNanos, boolean error, long recordedNanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+                recorded = Arrays.copyOf(recorded, count * 2);
+            }
+            latencies[count] = latencyNanos;
+            recorded[count++] = recordedNanos;
+            if (error) {
+                errors++;
+            }
+        }
+    }
+
+    private final Target target;
+    private final double rate;
+    private final int threads;
+    private final Map<String, RouteReport> reports = new TreeMap<>();
+
+    TrafficReplayer(Target target, double rate, int threads) {
+        this.target = target;
+        this.rate = rate;
+        this.threads = threads;
+    }
+
+    /**
+     * Cible en processus : chaque requête traverse Dispatcher.service.
+     */
+    static Target inProcess(Dispatcher dispatcher) {
+        return entry -> {
+            byte[] body = entry.getFormBody() != null ? entry.getFormBody().getBytes(StandardCharsets.UTF_8) : null;
+            EmbeddedRequest request = new EmbeddedRequest(entry.getMethod(), entry.getPath(), entry.getQuery(),
+                    "HTTP/1.1", headersFor(entry, body), body != null ? new ByteArrayInputStream(body) : null);
+            EmbeddedResponse response = new EmbeddedResponse();
+            RouteMapping route = dispatcher.service(request, response, entry.getPath(), null);
+            return new Result(response.getStatus(), route != null ? route.getRouteKey() : entry.getRouteKey());
+        };
+    }
+
+    /**
+     * Cible HTTP : instance démarrée à part (serveur embarqué ou conteneur).
+     */
+    static Target http(String baseUrl) {
+        String base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        return entry -> {
+            String query = entry.getQuery();
+            URL url = new URL(base + entry.getPath() + (query != null ? "?" + query : ""));
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod(entry.getMethod());
+            connection.setInstanceFollowRedirects(false);
+            byte[] body = entry.getFormBody() != null ? entry.getFormBody().getBytes(StandardCharsets.UTF_8) : null;
+            for (Map.Entry<String, List<String>> header : headersFor(entry, body).entrySet()) {
+                for (String value : header.getValue()) {
+                    connection.addRequestProperty(header.getKey(), value);
+                }
+            }
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(body.length);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body);
+                }
+            }
+            int status = connection.getResponseCode();
+            // Lire tout le corps pour réutiliser la connexion (keep-alive)
+            InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            if (in != null) {
+                try (InputStream drained = in) {
+                    drained.transferTo(OutputStream.nullOutputStream());
+                }
+            }
+            String key = entry.getRouteKey() != null ? entry.getRouteKey() : entry.getMethod() + ":" + entry.getPath();
+            return new Result(status, key);
+        };
+    }
+
+    private static Map<String, List<String>> headersFor(TrafficLog.Entry entry, byte[] body) {
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(entry.getHeaders());
+        if (body != null) {
+            headers.putIfAbsent("Content-Type", List.of("application/x-www-form-urlencoded"));
+            headers.put("Content-Length", List.of(Integer.toString(body.length)));
+        }
+        return headers;
+    }
+
+    /**
+     * Rejoue les requêtes (bloquant) puis affiche le rapport.
+     */
+    public void run(List<TrafficLog.Entry> entries) throws InterruptedException {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "monframework-replay-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(threads, factory);
+        // Le rejeu commence à la première requête, pas au démarrage de l'enregistrement
+        long first = entries.isEmpty() ? 0 : entries.get(0).getOffsetNanos();
+        long start = System.nanoTime();
+        for (TrafficLog.Entry entry : entries) {
+            long due = rate > 0 ? start + (long) ((entry.getOffsetNanos() - first) / rate) : System.nanoTime();
+            for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            executor.execute(() -> replay(entry, due));
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        printReport(entries.size(), System.nanoTime() - start);
+    }
+
+    private void replay(TrafficLog.Entry entry, long due) {
+        // Au plus vite : la latence est le temps de traitement, sans l'attente dans la file
+        long from = rate > 0 ? due : System.nanoTime();
+        String key;
+        boolean error;
+        try {
+            Result result = target.send(entry);
+            key = result.routeKey != null ? result.routeKey : "(aucune route)";
+            error = result.status >= 500;
+        } catch (Exception e) {
+            key = entry.getRouteKey() != null ? entry.getRouteKey() : "(aucune route)";
+            error = true;
+        }
+        long latency = System.nanoTime() - from;
+        RouteReport report;
+        synchronized (reports) {
+            report = reports.computeIfAbsent(key, k -> new RouteReport());
+        }
+        report.add(latency, error, entry.getDurationNanos());
+    }
+
+    private void printReport(int total, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%nRejeu de %d requêtes en %.2f s (%.1f req/s, rythme %s)%n", total, seconds,
+                total / seconds, rate > 0 ? "x" + rate : "maximal");
+        System.out.printf("%-40s %9s %7s %9s %9s %9s %9s %9s %11s%n",
+                "Route", "Requêtes", "Erreurs", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "p99 enreg.");
+        synchronized (reports) {
+            for (Map.Entry<String, RouteReport> e : reports.entrySet()) {
+                RouteReport r = e.getValue();
+                synchronized (r) {
+                    long[] sorted = Arrays.copyOf(r.latencies, r.count);
+                    Arrays.sort(sorted);
+                    long[] recorded = Arrays.copyOf(r.recorded, r.count);
+                    Arrays.sort(recorded);
+                    System.out.printf("%-40s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %11.2f%n",
+                            e.getKey(), r.count, r.errors, r.count / seconds,
+                            percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                            percentile(sorted, 100), percentile(recorded, 99));
+                }
+            }
+        }
+    }
+
+    /**
+     * Percentile par rang le plus proche, en millisecondes.
+     */
+    static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))] / 1e6;
+    }
+
+    /**
+     * Options : --log (journal, requis), --classes (rejeu en processus) ou
+     * --target (URL de base), --config, --rate (1), --threads (16).
+     */
+    public static void main(String[] args) throws Exception {
+        Path log = null;
+        Path classes = null;
+        String targetUrl = null;
+        double rate = 1;
+        int threads = 16;
+        Properties properties = new Properties();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) {
+                usage("valeur manquante pour " + arg);
+            }
+            switch (arg) {
+                case "--log":
+                    log = Paths.get(args[++i]);
+                    break;
+                case "--classes":
+                    classes = Paths.get(args[++i]);
+                    break;
+                case "--target":
+                    targetUrl = args[++i];
+                    break;
+                case "--config":
+                    try (InputStream in = Files.newInputStream(Paths.get(args[++i]))) {
+                        properties.load(in);
+                    }
+                    break;
+                case "--rate":
+                    rate = Double.parseDouble(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    usage("option inconnue " + arg);
+            }
+        }
+        if (log == null || !Files.isRegularFile(log)) {
+            usage("--log doit désigner un journal de trafic");
+        }
+        if ((classes == null) == (targetUrl == null)) {
+            usage("indiquer soit --classes, soit --target");
+        }
+
+        List<TrafficLog.Entry> entries = TrafficLog.read(log);
+        System.out.println("[DEBUG] " + entries.size() + " requêtes lues dans " + log);
+
+        Dispatcher dispatcher = null;
+        Target target;
+        if (classes != null) {
+            Function<String, String> config = name -> System.getProperty(name, properties.getProperty(name));
+            ClassLoader loader = new URLClassLoader(new URL[] { classes.toUri().toURL() },
+                    TrafficReplayer.class.getClassLoader());
+            Thread.currentThread().setContextClassLoader(loader);
+            dispatcher = Dispatcher.scan(classes, loader, config);
+            target = inProcess(dispatcher);
+        } else {
+            target = http(targetUrl);
+        }
+        try {
+            new TrafficReplayer(target, rate, threads).run(entries);
+        } finally {
+            if (dispatcher != null) {
+                dispatcher.shutdown();
+            }
+        }
+    }
+
+    private static void usage(String error) {
+        System.err.println("Erreur: " + error);
+        System.err.println("Usage: TrafficReplayer --log <journal> (--classes <répertoire> | --target <url>)"
+                + " [--config fichier.properties] [--rate 1] [--threads 16]");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,350 @@
+package com.monframework.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import com.monframework.core.Dispatcher;
+import com.monframework.core.HttpException;
+import com.monframework.multipart.RequestBodies;
+
+/**
+ * Point d'entrée "batch" : plusieurs requêtes dans un seul appel HTTP.
+ *
+ * Le corps (POST) contient une sous-requête par ligne :
+ * <pre>
+ * GET /catalogue/produits/42
+ * GET /panier?details=true
+ * POST /stats/vue?page=accueil
+ * </pre>
+ * Chaque sous-requête passe par le routage et la liaison habituels (limites
+ * comprises) ; elles s'exécutent en parallèle et les résultats sont envoyés
+ * au fil de l'eau, une ligne JSON par sous-requête terminée :
+ * <pre>
+ * {"index":1,"method":"GET","path":"/panier?details=true","status":200,"contentType":"...","millis":1.42,"body":"..."}
+ * </pre>
+ * Un corps qui n'est pas du texte (image, PDF...) est transmis en base64,
+ * signalé par "bodyEncoding":"base64". Les sous-requêtes encore en cours à
+ * l'expiration de batch.timeoutMillis sont interrompues et signalées en 504.
+ *
+ * Activé par batch.path ; options batch.maxRequests (20), batch.threads
+ * (16, ignoré avec les threads virtuels) et batch.timeoutMillis (30000).
+ * Le corps est limité à maxRequests lignes de 8 Ko (lignes vides et
+ * commentaires compris) : au-delà, la lecture s'arrête sur un 413.
+ * Les en-têtes de la requête batch (cookies, authentification...) sont
+ * transmis à chaque sous-requête. Les flux SSE et les résultats différés
+ * (Deferred) ne peuvent pas être appelés en batch : la sous-requête reçoit 400.
+ */
+public final class BatchEndpoint {
+
+    /** Attribut marquant une sous-requête, pour que le Dispatcher refuse les routes à réponse prolongée. */
+    public static final String SUB_REQUEST_ATTRIBUTE = "framework.batch.subRequest";
+
+    private static final int MAX_BODY_LINE = 8 * 1024;
+
+    private final Dispatcher dispatcher;
+    private final String path;
+    private final int maxRequests;
+    private final long timeoutMillis;
+    private final ExecutorService executor;
+
+    public BatchEndpoint(Dispatcher dispatcher, String path, int maxRequests, int threads, long timeoutMillis) {
+        this.dispatcher = dispatcher;
+        this.path = path;
+        this.maxRequests = maxRequests;
+        this.timeoutMillis = timeoutMillis;
+        this.executor = newExecutor(threads);
+    }
+
+    /**
+     * Crée le point d'entrée décrit par la configuration, ou null si batch.path est absent.
+     */
+    public static BatchEndpoint fromConfig(Dispatcher dispatcher, Function<String, String> config) {
+        String path = config.apply("batch.path");
+        if (path == null || path.isBlank()) {
+            return null;
+        }
+        String maxRequests = config.apply("batch.maxRequests");
+        String threads = config.apply("batch.threads");
+        String timeout = config.apply("batch.timeoutMillis");
+        BatchEndpoint endpoint = new BatchEndpoint(dispatcher, path.trim(),
+                maxRequests != null ? Integer.parseInt(maxRequests.trim()) : 20,
+                threads != null ? Integer.parseInt(threads.trim()) : 16,
+                timeout != null ? Long.parseLong(timeout.trim()) : 30_000);
+        System.out.println("[DEBUG] Batch activé sur POST " + endpoint.path);
+        return endpoint;
+    }
+
+    /**
+     * Threads virtuels si disponibles, sinon un pool borné : une file pleine
+     * fait échouer la sous-requête (503) plutôt que de bloquer la requête batch.
+     */
+    private static ExecutorService newExecutor(int threads) {
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(threads * 16), r -> {
+                        Thread t = new Thread(r, "monframework-batch-" + counter.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public boolean matches(String method, String resourcePath) {
+        return path.equals(resourcePath) && "POST".equalsIgnoreCase(method);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Exécute les sous-requêtes et envoie leurs résultats dans l'ordre où elles se terminent.
+     */
+    public void handle(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        List<String[]> targets = readTargets(request);
+        Map<String, List<String>> headers = forwardedHeaders(request);
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("application/x-ndjson; charset=UTF-8");
+        PrintWriter out = response.getWriter();
+
+        BlockingQueue<Result> results = new ArrayBlockingQueue<>(targets.size());
+        boolean[] done = new boolean[targets.size()];
+        Future<?>[] running = new Future<?>[targets.size()];
+        for (int i = 0; i < targets.size(); i++) {
+            int index = i;
+            String[] target = targets.get(i);
+            try {
+                running[i] = executor.submit(() -> results.add(new Result(index, execute(index, target[0], target[1], headers))));
+            } catch (RejectedExecutionException e) {
+                results.add(new Result(index, resultLine(index, target[0], target[1],
+                        HttpServletResponse.SC_SERVICE_UNAVAILABLE, "text/plain; charset=UTF-8", 0, "Batch saturé")));
+            }
+        }
+
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000L;
+        try {
+            for (int received = 0; received < targets.size(); received++) {
+                Result result = results.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (result == null) {
+                    break;
+                }
+                done[result.index] = true;
+                out.println(result.line);
+                // Envoyer chaque résultat dès qu'il est prêt
+                response.flushBuffer();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Délai dépassé : les sous-requêtes encore en cours sont interrompues
+        // (elles libèrent threads et jetons de limite) puis signalées en 504
+        for (int i = 0; i < done.length; i++) {
+            if (!done[i] && running[i] != null) {
+                running[i].cancel(true);
+            }
+        }
+        for (int i = 0; i < done.length; i++) {
+            if (!done[i]) {
+                String[] target = targets.get(i);
+                out.println(resultLine(i, target[0], target[1], HttpServletResponse.SC_GATEWAY_TIMEOUT,
+                        "text/plain; charset=UTF-8", 0, "Délai du batch dépassé"));
+            }
+        }
+        out.flush();
+    }
+
+    private List<String[]> readTargets(HttpServletRequest request) throws IOException {
+        List<String[]> targets = new ArrayList<>();
+        // Flux borné : une ligne sans fin ou des lignes vides à répétition
+        // s'arrêtent à la limite au lieu d'être lues en mémoire
+        long maxBody = (long) maxRequests * (MAX_BODY_LINE + 2);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                RequestBodies.openBody(request, maxBody), StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (line.length() > MAX_BODY_LINE) {
+                throw new HttpException(400, "Sous-requête trop longue");
+            }
+            int space = line.indexOf(' ');
+            String method = space > 0 ? line.substring(0, space).toUpperCase(Locale.ROOT) : "GET";
+            String target = space > 0 ? line.substring(space + 1).trim() : line;
+            if (!target.startsWith("/")) {
+                throw new HttpException(400, "Sous-requête invalide: " + line);
+            }
+            targets.add(new String[] { method, target });
+            if (targets.size() > maxRequests) {
+                throw new HttpException(413, "Trop de sous-requêtes (max " + maxRequests + ")");
+            }
+        }
+        if (targets.isEmpty()) {
+            throw new HttpException(400, "Aucune sous-requête");
+        }
+        return targets;
+    }
+
+    private static Map<String, List<String>> forwardedHeaders(HttpServletRequest request) {
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        Enumeration<String> names = request.getHeaderNames();
+        while (names != null && names.hasMoreElements()) {
+            String name = names.nextElement();
+            String lower = name.toLowerCase(Locale.ROOT);
+            if (lower.startsWith("content-") || lower.equals("transfer-encoding") || lower.equals("expect")) {
+                continue;
+            }
+            List<String> values = new ArrayList<>(1);
+            Enumeration<String> e = request.getHeaders(name);
+            while (e.hasMoreElements()) {
+                values.add(e.nextElement());
+            }
+            headers.put(name, values);
+        }
+        return headers;
+    }
+
+    /**
+     * Exécute une sous-requête dans le Dispatcher (thread du pool).
+     */
+    private String execute(int index, String method, String target, Map<String, List<String>> headers) {
+        int q = target.indexOf('?');
+        String subPath = q >= 0 ? target.substring(0, q) : target;
+        String query = q >= 0 ? target.substring(q + 1) : null;
+        if (subPath.equals(path)) {
+            return resultLine(index, method, target, HttpServletResponse.SC_BAD_REQUEST,
+                    "text/plain; charset=UTF-8", 0, "Batch imbriqué interdit");
+        }
+        EmbeddedRequest sub = new EmbeddedRequest(method, subPath, query, "HTTP/1.1", headers, null);
+        sub.setAttribute(SUB_REQUEST_ATTRIBUTE, Boolean.TRUE);
+        EmbeddedResponse subResponse = new EmbeddedResponse();
+        long start = System.nanoTime();
+        try {
+            dispatcher.service(sub, subResponse, subPath, null);
+        } catch (Exception e) {
+            return resultLine(index, method, target, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    "text/plain; charset=UTF-8", System.nanoTime() - start, e.getClass().getName() + ": " + e.getMessage());
+        }
+        String contentType = subResponse.getContentType();
+        if (isText(contentType)) {
+            return resultLine(index, method, target, subResponse.getStatus(), contentType,
+                    System.nanoTime() - start, subResponse.getBodyAsString());
+        }
+        return resultLine(index, method, target, subResponse.getStatus(), contentType, System.nanoTime() - start,
+                Base64.getEncoder().encodeToString(subResponse.getBody()), true);
+    }
+
+    /**
+     * Corps transmissible tel quel dans une chaîne JSON (texte, JSON, XML,
+     * formulaire) ; sans Content-Type, le corps est supposé textuel.
+     */
+    private static boolean isText(String contentType) {
+        if (contentType == null) {
+            return true;
+        }
+        int semicolon = contentType.indexOf(';');
+        String type = (semicolon >= 0 ? contentType.substring(0, semicolon) : contentType).trim().toLowerCase(Locale.ROOT);
+        return type.startsWith("text/") || type.endsWith("/json") || type.endsWith("+json")
+                || type.endsWith("/xml") || type.endsWith("+xml") || type.equals("application/x-ndjson")
+                || type.equals("application/javascript") || type.equals("application/x-www-form-urlencoded");
+    }
+
+    private static String resultLine(int index, String method, String target, int status,
+                                     String contentType, long nanos, String body) {
+        return resultLine(index, method, target, status, contentType, nanos, body, false);
+    }
+
+    private static String resultLine(int index, String method, String target, int status,
+                                     String contentType, long nanos, String body, boolean base64) {
+        StringBuilder sb = new StringBuilder(64 + (body != null ? body.length() : 0));
+        sb.append("{\"index\":").append(index)
+          .append(",\"method\":");
+        appendJsonString(sb, method);
+        sb.append(",\"path\":");
+        appendJsonString(sb, target);
+        sb.append(",\"status\":").append(status)
+          .append(",\"contentType\":");
+        appendJsonString(sb, contentType);
+        sb.append(",\"millis\":").append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0))
+          .append(",\"body\":");
+        appendJsonString(sb, body);
+        if (base64) {
+            sb.append(",\"bodyEncoding\":\"base64\"");
+        }
+        return sb.append('}').toString();
+    }
+
+    private static void appendJsonString(StringBuilder sb, String s) {
+        if (s == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Ligne de résultat d'une sous-requête terminée.
+     */
+    private static final class Result {
+        final int index;
+        final String line;
+
+        Result(int index, String line) {
+            this.index = index;
+            this.line = line;
+        }
+    }
+}
@@ -0,0 +1,690 @@
+package com.monframework.server;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.RequestDispatcher;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpUpgradeHandler;
+import jakarta.servlet.http.Part;
+
+import com.monframework.core.HttpException;
+import com.monframework.multipart.PayloadTooLargeException;
+
+/**
+ * Requête HTTP du serveur embarqué, exposée aux contrôleurs via l'API servlet.
+ *
+ * Seul ce dont le framework a besoin est pris en charge : en-têtes, paramètres
+ * (query string et formulaire urlencoded, analysés à la demande), attributs et
+ * corps en flux. Pas de session, de JSP ni de traitement asynchrone.
+ *
+ * Peut aussi être construite directement pour appeler le {@code Dispatcher}
+ * sans passer par le réseau.
+ */
+public class EmbeddedRequest implements HttpServletRequest {
+
+    /** Taille maximale d'un formulaire application/x-www-form-urlencoded. */
+    private static final int MAX_FORM_SIZE = 2 * 1024 * 1024;
+
+    private final String method;
+    private final String requestUri;
+    private final String queryString;
+    private final String protocol;
+    private final Map<String, List<String>> headers;
+    private final InputStream body;
+    private final Map<String, Object> attributes = new HashMap<>();
+    private InetSocketAddress localAddress;
+    private InetSocketAddress remoteAddress;
+    private String characterEncoding;
+    private Map<String, String[]> parameters;
+    private ServletInputStream inputStream;
+    private BufferedReader reader;
+
+    /**
+     * @param requestUri  chemin de la requête, non décodé
+     * @param queryString query string sans le '?', ou null
+     * @param headers     en-têtes (noms insensibles à la casse)
+     * @param body        corps de la requête (flux vide si absent)
+     */
+    public EmbeddedRequest(String method, String requestUri, String queryString, String protocol,
+                           Map<String, List<String>> headers, InputStream body) {
+        this.method = method;
+        this.requestUri = requestUri;
+        this.queryString = queryString;
+        this.protocol = protocol;
+        this.headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (headers != null) {
+            this.headers.putAll(headers);
+        }
+        this.body = body != null ? body : InputStream.nullInputStream();
+    }
+
+    /**
+     * Requête GET sans corps, pour un appel interne (ex: "/produits?page=2").
+     */
+    public static EmbeddedRequest get(String target) {
+        int q = target.indexOf('?');
+        String path = q >= 0 ? target.substring(0, q) : target;
+        String query = q >= 0 ? target.substring(q + 1) : null;
+        return new EmbeddedRequest("GET", path, query, "HTTP/1.1", null, null);
+    }
+
+    void setConnectionInfo(InetSocketAddress local, InetSocketAddress remote) {
+        this.localAddress = local;
+        this.remoteAddress = remote;
+    }
+
+    // ---- Paramètres ----
+
+    private Map<String, String[]> parameters() {
+        if (parameters == null) {
+            Map<String, List<String>> values = new LinkedHashMap<>();
+            Charset charset = charset();
+            if (queryString != null) {
+                parseUrlEncoded(queryString, charset, values);
+            }
+            if (isFormBody()) {
+                parseUrlEncoded(readForm(), charset, values);
+            }
+            Map<String, String[]> result = new LinkedHashMap<>();
+            for (Map.Entry<String, List<String>> e : values.entrySet()) {
+                result.put(e.getKey(), e.getValue().toArray(new String[0]));
+            }
+            parameters = Collections.unmodifiableMap(result);
+        }
+        return parameters;
+    }
+
+    private boolean isFormBody() {
+        String contentType = getContentType();
+        return inputStream == null && reader == null && contentType != null
+                && contentType.toLowerCase(Locale.ROOT).startsWith("application/x-www-form-urlencoded");
+    }
+
+    private String readForm() {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            int n;
+            while ((n = body.read(chunk)) != -1) {
+                if (out.size() + n > MAX_FORM_SIZE) {
+                    throw new PayloadTooLargeException("Formulaire trop volumineux (max " + MAX_FORM_SIZE + " octets)");
+                }
+                out.write(chunk, 0, n);
+            }
+            return out.toString(StandardCharsets.ISO_8859_1);
+        } catch (IOException e) {
+            throw new HttpException(400, "Lecture du formulaire impossible: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Décode "a=1&b=2&a=3" dans values (ordre de première apparition conservé).
+     */
+    static void parseUrlEncoded(String encoded, Charset charset, Map<String, List<String>> values) {
+        int start = 0;
+        int length = encoded.length();
+        while (start < length) {
+            int amp = encoded.indexOf('&', start);
+            int end = amp < 0 ? length : amp;
+            if (end > start) {
+                int eq = encoded.indexOf('=', start);
+                String name;
+                String value;
+                if (eq >= 0 && eq < end) {
+                    name = decode(encoded.substring(start, eq), charset);
+                    value = decode(encoded.substring(eq + 1, end), charset);
+                } else {
+                    name = decode(encoded.substring(start, end), charset);
+                    value = "";
+                }
+                values.computeIfAbsent(name, k -> new ArrayList<>(1)).add(value);
+            }
+            start = end + 1;
+        }
+    }
+
+    private static String decode(String s, Charset charset) {
+        if (s.indexOf('%') < 0 && s.indexOf('+') < 0) {
+            return s;
+        }
+        try {
+            return URLDecoder.decode(s, charset);
+        } catch (IllegalArgumentException e) {
+            throw new HttpException(400, "Paramètre mal encodé: " + s);
+        }
+    }
+
+    private Charset charset() {
+        String encoding = getCharacterEncoding();
+        try {
+            return encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+        } catch (IllegalArgumentException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    @Override
+    public String getParameter(String name) {
+        String[] values = parameters().get(name);
+        return values != null && values.length > 0 ? values[0] : null;
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(parameters().keySet());
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        String[] values = parameters().get(name);
+        return values != null ? values.clone() : null;
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        return parameters();
+    }
+
+    // ---- En-têtes ----
+
+    @Override
+    public String getHeader(String name) {
+        List<String> values = headers.get(name);
+        return values != null && !values.isEmpty() ? values.get(0) : null;
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        List<String> values = headers.get(name);
+        return Collections.enumeration(values != null ? values : Collections.emptyList());
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        return Collections.enumeration(headers.keySet());
+    }
+
+    @Override
+    public long getDateHeader(String name) {
+        String value = getHeader(name);
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Date invalide dans l'en-tête " + name + ": " + value);
+        }
+    }
+
+    @Override
+    public int getIntHeader(String name) {
+        String value = getHeader(name);
+        return value != null ? Integer.parseInt(value.trim()) : -1;
+    }
+
+    @Override
+    public Cookie[] getCookies() {
+        List<String> values = headers.get("Cookie");
+        if (values == null) {
+            return null;
+        }
+        List<Cookie> cookies = new ArrayList<>();
+        for (String header : values) {
+            for (String pair : header.split(";")) {
+                int eq = pair.indexOf('=');
+                if (eq <= 0) {
+                    continue;
+                }
+                try {
+                    cookies.add(new Cookie(pair.substring(0, eq).trim(), pair.substring(eq + 1).trim()));
+                } catch (IllegalArgumentException e) {
+                    // Nom de cookie invalide : ignoré
+                }
+            }
+        }
+        return cookies.isEmpty() ? null : cookies.toArray(new Cookie[0]);
+    }
+
+    // ---- Corps ----
+
+    @Override
+    public String getCharacterEncoding() {
+        if (characterEncoding == null) {
+            String contentType = getContentType();
+            if (contentType != null) {
+                int idx = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+                if (idx >= 0) {
+                    String value = contentType.substring(idx + 8);
+                    int semi = value.indexOf(';');
+                    characterEncoding = (semi >= 0 ? value.substring(0, semi) : value).trim().replace("\"", "");
+                }
+            }
+        }
+        return characterEncoding;
+    }
+
+    @Override
+    public void setCharacterEncoding(String env) throws UnsupportedEncodingException {
+        if (!Charset.isSupported(env)) {
+            throw new UnsupportedEncodingException(env);
+        }
+        this.characterEncoding = env;
+    }
+
+    @Override
+    public int getContentLength() {
+        long length = getContentLengthLong();
+        return length > Integer.MAX_VALUE ? -1 : (int) length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        String value = getHeader("Content-Length");
+        return value != null ? Long.parseLong(value.trim()) : -1;
+    }
+
+    @Override
+    public String getContentType() {
+        return getHeader("Content-Type");
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (reader != null) {
+            throw new IllegalStateException("getReader() a déjà été appelé");
+        }
+        if (inputStream == null) {
+            inputStream = new BodyInputStream(body);
+        }
+        return inputStream;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        if (inputStream != null) {
+            throw new IllegalStateException("getInputStream() a déjà été appelé");
+        }
+        if (reader == null) {
+            reader = new BufferedReader(new InputStreamReader(body, charset()));
+        }
+        return reader;
+    }
+
+    // ---- Requête ----
+
+    @Override
+    public String getMethod() {
+        return method;
+    }
+
+    @Override
+    public String getRequestURI() {
+        return requestUri;
+    }
+
+    @Override
+    public StringBuffer getRequestURL() {
+        StringBuffer url = new StringBuffer("http://");
+        String host = getHeader("Host");
+        url.append(host != null ? host : getServerName() + ":" + getServerPort());
+        return url.append(requestUri);
+    }
+
+    @Override
+    public String getQueryString() {
+        return queryString;
+    }
+
+    @Override
+    public String getProtocol() {
+        return protocol;
+    }
+
+    @Override
+    public String getScheme() {
+        return "http";
+    }
+
+    @Override
+    public String getContextPath() {
+        return "";
+    }
+
+    @Override
+    public String getServletPath() {
+        return "";
+    }
+
+    @Override
+    public String getPathInfo() {
+        return URLDecoder.decode(requestUri.replace("+", "%2B"), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String getPathTranslated() {
+        return null;
+    }
+
+    @Override
+    public boolean isSecure() {
+        return false;
+    }
+
+    @Override
+    public String getServerName() {
+        String host = getHeader("Host");
+        if (host != null) {
+            int colon = host.lastIndexOf(':');
+            return colon > 0 && host.indexOf(']') < colon ? host.substring(0, colon) : host;
+        }
+        return getLocalName();
+    }
+
+    @Override
+    public int getServerPort() {
+        return getLocalPort();
+    }
+
+    @Override
+    public String getRemoteAddr() {
+        return remoteAddress != null ? remoteAddress.getAddress().getHostAddress() : "127.0.0.1";
+    }
+
+    @Override
+    public String getRemoteHost() {
+        return getRemoteAddr();
+    }
+
+    @Override
+    public int getRemotePort() {
+        return remoteAddress != null ? remoteAddress.getPort() : 0;
+    }
+
+    @Override
+    public String getLocalName() {
+        return localAddress != null ? localAddress.getHostString() : "localhost";
+    }
+
+    @Override
+    public String getLocalAddr() {
+        return localAddress != null ? localAddress.getAddress().getHostAddress() : "127.0.0.1";
+    }
+
+    @Override
+    public int getLocalPort() {
+        return localAddress != null ? localAddress.getPort() : 0;
+    }
+
+    @Override
+    public Locale getLocale() {
+        String language = getHeader("Accept-Language");
+        if (language == null || language.isBlank()) {
+            return Locale.getDefault();
+        }
+        int end = language.length();
+        for (int i = 0; i < language.length(); i++) {
+            char c = language.charAt(i);
+            if (c == ',' || c == ';') {
+                end = i;
+                break;
+            }
+        }
+        return Locale.forLanguageTag(language.substring(0, end).trim());
+    }
+
+    @Override
+    public Enumeration<Locale> getLocales() {
+        return Collections.enumeration(List.of(getLocale()));
+    }
+
+    // ---- Attributs ----
+
+    @Override
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        return Collections.enumeration(attributes.keySet());
+    }
+
+    @Override
+    public void setAttribute(String name, Object o) {
+        if (o == null) {
+            attributes.remove(name);
+        } else {
+            attributes.put(name, o);
+        }
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        attributes.remove(name);
+    }
+
+    // ---- Non pris en charge hors conteneur ----
+
+    /**
+     * Pas de moteur JSP : retourne null (le Dispatcher renvoie alors une erreur 500).
+     */
+    @Override
+    public RequestDispatcher getRequestDispatcher(String path) {
+        return null;
+    }
+
+    @Override
+    public ServletContext getServletContext() {
+        return null;
+    }
+
+    @Override
+    @Deprecated
+    public String getRealPath(String path) {
+        return null;
+    }
+
+    @Override
+    public String getAuthType() {
+        return null;
+    }
+
+    @Override
+    public String getRemoteUser() {
+        return null;
+    }
+
+    @Override
+    public boolean isUserInRole(String role) {
+        return false;
+    }
+
+    @Override
+    public Principal getUserPrincipal() {
+        return null;
+    }
+
+    @Override
+    public boolean authenticate(HttpServletResponse response) {
+        return false;
+    }
+
+    @Override
+    public void login(String username, String password) throws ServletException {
+        throw new ServletException("Authentification non prise en charge par le serveur embarqué");
+    }
+
+    @Override
+    public void logout() {
+    }
+
+    @Override
+    public String getRequestedSessionId() {
+        return null;
+    }
+
+    @Override
+    public HttpSession getSession(boolean create) {
+        if (create) {
+            throw new IllegalStateException("Sessions non prises en charge par le serveur embarqué");
+        }
+        return null;
+    }
+
+    @Override
+    public HttpSession getSession() {
+        return getSession(true);
+    }
+
+    @Override
+    public String changeSessionId() {
+        throw new IllegalStateException("Aucune session");
+    }
+
+    @Override
+    public boolean isRequestedSessionIdValid() {
+        return false;
+    }
+
+    @Override
+    public boolean isRequestedSessionIdFromCookie() {
+        return false;
+    }
+
+    @Override
+    public boolean isRequestedSessionIdFromURL() {
+        return false;
+    }
+
+    @Override
+    @Deprecated
+    public boolean isRequestedSessionIdFromUrl() {
+        return false;
+    }
+
+    @Override
+    public Collection<Part> getParts() throws ServletException {
+        throw new ServletException("Utiliser UploadedFile ou MultipartStream avec le serveur embarqué");
+    }
+
+    @Override
+    public Part getPart(String name) throws ServletException {
+        throw new ServletException("Utiliser UploadedFile ou MultipartStream avec le serveur embarqué");
+    }
+
+    @Override
+    public <T extends HttpUpgradeHandler> T upgrade(Class<T> handlerClass) throws ServletException {
+        throw new ServletException("Upgrade non pris en charge par le serveur embarqué");
+    }
+
+    @Override
+    public AsyncContext startAsync() {
+        throw new IllegalStateException("Traitement asynchrone non pris en charge par le serveur embarqué");
+    }
+
+    @Override
+    public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse) {
+        throw new IllegalStateException("Traitement asynchrone non pris en charge par le serveur embarqué");
+    }
+
+    @Override
+    public boolean isAsyncStarted() {
+        return false;
+    }
+
+    @Override
+    public boolean isAsyncSupported() {
+        return false;
+    }
+
+    @Override
+    public AsyncContext getAsyncContext() {
+        throw new IllegalStateException("Traitement asynchrone non démarré");
+    }
+
+    @Override
+    public DispatcherType getDispatcherType() {
+        return DispatcherType.REQUEST;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + requestUri + (queryString != null ? "?" + queryString : "");
+    }
+
+    /**
+     * Corps de la requête en lecture bloquante.
+     */
+    private static final class BodyInputStream extends ServletInputStream {
+        private final InputStream in;
+        private boolean finished;
+
+        BodyInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            finished = b < 0;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            finished = n < 0;
+            return n;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new IllegalStateException("Lecture non bloquante non prise en charge");
+        }
+    }
+}
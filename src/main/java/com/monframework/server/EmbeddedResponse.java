@@ -0,0 +1,594 @@
+package com.monframework.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Réponse HTTP du serveur embarqué.
+ *
+ * Le corps est accumulé dans un tampon : à la fin du traitement, la réponse
+ * est envoyée en une fois avec un Content-Length. Si le tampon déborde ou si
+ * le contrôleur appelle flushBuffer(), la réponse est validée et la suite est
+ * envoyée en Transfer-Encoding: chunked.
+ *
+ * Sans connexion (constructeur sans argument), tout reste en mémoire : utile
+ * pour appeler le {@code Dispatcher} en interne et lire le résultat.
+ */
+public class EmbeddedResponse implements HttpServletResponse {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+    private static final byte[] CRLF = { '\r', '\n' };
+
+    private final OutputStream connection;
+    private final String protocol;
+    private final boolean headRequest;
+    private boolean keepAlive;
+    private int status = SC_OK;
+    private final Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private String contentType;
+    private String characterEncoding;
+    private Locale locale = Locale.getDefault();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private boolean committed;
+    private boolean chunked;
+    private boolean finished;
+    private BodyOutputStream outputStream;
+    private PrintWriter writer;
+
+    /**
+     * Réponse en mémoire, sans connexion.
+     */
+    public EmbeddedResponse() {
+        this(null, "HTTP/1.1", false, false);
+    }
+
+    EmbeddedResponse(OutputStream connection, String protocol, boolean keepAlive, boolean headRequest) {
+        this.connection = connection;
+        this.protocol = protocol;
+        this.keepAlive = keepAlive;
+        this.headRequest = headRequest;
+    }
+
+    boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * Corps de la réponse (réponse en mémoire uniquement).
+     */
+    public byte[] getBody() {
+        flushWriter();
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Corps de la réponse décodé selon son encodage.
+     */
+    public String getBodyAsString() {
+        flushWriter();
+        return buffer.toString(charset());
+    }
+
+    // ---- Envoi ----
+
+    /**
+     * Termine la réponse : envoie ce qui reste du corps (ou le tout, avec son
+     * Content-Length, si rien n'a encore été envoyé).
+     */
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        flushWriter();
+        finished = true;
+        if (connection == null) {
+            committed = true;
+            return;
+        }
+        if (!committed) {
+            if (!headers.containsKey("Content-Length") && bodyAllowed()) {
+                setHeaderValue("Content-Length", Integer.toString(buffer.size()));
+            }
+            writeHead();
+            if (!headRequest && bodyAllowed()) {
+                buffer.writeTo(connection);
+            }
+        } else if (chunked) {
+            writeChunk();
+            connection.write('0');
+            connection.write(CRLF);
+            connection.write(CRLF);
+        } else {
+            buffer.writeTo(connection);
+        }
+        buffer.reset();
+    }
+
+    private boolean bodyAllowed() {
+        return status >= 200 && status != SC_NO_CONTENT && status != SC_NOT_MODIFIED;
+    }
+
+    private void writeHead() throws IOException {
+        committed = true;
+        if (!keepAlive) {
+            setHeaderValue("Connection", "close");
+        }
+        if (contentType != null) {
+            setHeaderValue("Content-Type", getContentType());
+        }
+        StringBuilder head = new StringBuilder(256);
+        head.append(protocol).append(' ').append(status).append(' ').append(reasonPhrase(status)).append("\r\n");
+        for (Map.Entry<String, List<String>> e : headers.entrySet()) {
+            for (String value : e.getValue()) {
+                head.append(e.getKey()).append(": ").append(value).append("\r\n");
+            }
+        }
+        head.append("\r\n");
+        connection.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private void writeChunk() throws IOException {
+        if (buffer.size() == 0) {
+            return;
+        }
+        if (!headRequest && bodyAllowed()) {
+            connection.write(Integer.toHexString(buffer.size()).getBytes(StandardCharsets.ISO_8859_1));
+            connection.write(CRLF);
+            buffer.writeTo(connection);
+            connection.write(CRLF);
+        }
+        buffer.reset();
+    }
+
+    private void flushWriter() {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        flushWriter();
+        sendBuffer();
+    }
+
+    /**
+     * Valide la réponse si besoin et envoie le contenu du tampon.
+     */
+    private void sendBuffer() throws IOException {
+        if (connection == null) {
+            committed = true;
+            return;
+        }
+        if (!committed) {
+            if (!headers.containsKey("Content-Length") && bodyAllowed()) {
+                if ("HTTP/1.1".equals(protocol)) {
+                    chunked = true;
+                    setHeaderValue("Transfer-Encoding", "chunked");
+                } else {
+                    // HTTP/1.0 : corps délimité par la fermeture de la connexion
+                    keepAlive = false;
+                }
+            }
+            writeHead();
+        }
+        if (chunked) {
+            writeChunk();
+        } else {
+            if (!headRequest) {
+                buffer.writeTo(connection);
+            }
+            buffer.reset();
+        }
+        connection.flush();
+    }
+
+    private Charset charset() {
+        try {
+            return characterEncoding != null ? Charset.forName(characterEncoding) : StandardCharsets.ISO_8859_1;
+        } catch (IllegalArgumentException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    static String reasonPhrase(int status) {
+        switch (status) {
+            case 100: return "Continue";
+            case 200: return "OK";
+            case 201: return "Created";
+            case 202: return "Accepted";
+            case 204: return "No Content";
+            case 206: return "Partial Content";
+            case 301: return "Moved Permanently";
+            case 302: return "Found";
+            case 303: return "See Other";
+            case 304: return "Not Modified";
+            case 307: return "Temporary Redirect";
+            case 308: return "Permanent Redirect";
+            case 400: return "Bad Request";
+            case 401: return "Unauthorized";
+            case 403: return "Forbidden";
+            case 404: return "Not Found";
+            case 405: return "Method Not Allowed";
+            case 406: return "Not Acceptable";
+            case 408: return "Request Timeout";
+            case 409: return "Conflict";
+            case 412: return "Precondition Failed";
+            case 413: return "Payload Too Large";
+            case 415: return "Unsupported Media Type";
+            case 429: return "Too Many Requests";
+            case 431: return "Request Header Fields Too Large";
+            case 500: return "Internal Server Error";
+            case 501: return "Not Implemented";
+            case 502: return "Bad Gateway";
+            case 503: return "Service Unavailable";
+            case 504: return "Gateway Timeout";
+            case 505: return "HTTP Version Not Supported";
+            default: return "Status";
+        }
+    }
+
+    // ---- Corps ----
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() a déjà été appelé");
+        }
+        if (outputStream == null) {
+            outputStream = new BodyOutputStream();
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() a déjà été appelé");
+            }
+            if (characterEncoding == null) {
+                characterEncoding = "ISO-8859-1";
+            }
+            outputStream = new BodyOutputStream();
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, charset()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setBufferSize(int size) {
+        if (buffer.size() > 0) {
+            throw new IllegalStateException("Contenu déjà écrit");
+        }
+        this.bufferSize = size;
+    }
+
+    @Override
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (committed) {
+            throw new IllegalStateException("Réponse déjà validée");
+        }
+        flushWriter();
+        buffer.reset();
+    }
+
+    @Override
+    public void reset() {
+        resetBuffer();
+        headers.clear();
+        status = SC_OK;
+        contentType = null;
+        if (writer == null) {
+            characterEncoding = null;
+        }
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    // ---- Statut et en-têtes ----
+
+    @Override
+    public void setStatus(int sc) {
+        if (!committed) {
+            this.status = sc;
+        }
+    }
+
+    @Override
+    @Deprecated
+    public void setStatus(int sc, String sm) {
+        setStatus(sc);
+    }
+
+    @Override
+    public int getStatus() {
+        return status;
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        resetBuffer();
+        setStatus(sc);
+        setContentType("text/plain; charset=UTF-8");
+        getWriter().println(msg != null ? msg : "Erreur " + sc);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        sendError(sc, null);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        resetBuffer();
+        setStatus(SC_FOUND);
+        setHeader("Location", location);
+    }
+
+    private void setHeaderValue(String name, String value) {
+        List<String> values = new ArrayList<>(1);
+        values.add(value);
+        headers.put(name, values);
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (committed) {
+            return;
+        }
+        if ("Content-Type".equalsIgnoreCase(name)) {
+            setContentType(value);
+        } else if (value == null) {
+            headers.remove(name);
+        } else {
+            setHeaderValue(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (committed || value == null) {
+            return;
+        }
+        if ("Content-Type".equalsIgnoreCase(name)) {
+            setContentType(value);
+            return;
+        }
+        headers.computeIfAbsent(name, k -> new ArrayList<>(1)).add(value);
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        setHeader(name, Integer.toString(value));
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        addHeader(name, Integer.toString(value));
+    }
+
+    @Override
+    public void setDateHeader(String name, long date) {
+        setHeader(name, formatDate(date));
+    }
+
+    @Override
+    public void addDateHeader(String name, long date) {
+        addHeader(name, formatDate(date));
+    }
+
+    /** Format HTTP (jour sur deux chiffres, contrairement à RFC_1123_DATE_TIME). */
+    private static final DateTimeFormatter HTTP_DATE =
+            DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.ROOT);
+
+    private static String formatDate(long date) {
+        return HTTP_DATE.format(Instant.ofEpochMilli(date).atZone(ZoneOffset.UTC));
+    }
+
+    @Override
+    public boolean containsHeader(String name) {
+        return headers.containsKey(name) || ("Content-Type".equalsIgnoreCase(name) && contentType != null);
+    }
+
+    @Override
+    public String getHeader(String name) {
+        if ("Content-Type".equalsIgnoreCase(name)) {
+            return getContentType();
+        }
+        List<String> values = headers.get(name);
+        return values != null && !values.isEmpty() ? values.get(0) : null;
+    }
+
+    @Override
+    public Collection<String> getHeaders(String name) {
+        List<String> values = headers.get(name);
+        return values != null ? Collections.unmodifiableList(values) : Collections.emptyList();
+    }
+
+    @Override
+    public Collection<String> getHeaderNames() {
+        return Collections.unmodifiableSet(headers.keySet());
+    }
+
+    @Override
+    public void addCookie(Cookie cookie) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(cookie.getName()).append('=').append(cookie.getValue() != null ? cookie.getValue() : "");
+        if (cookie.getPath() != null) {
+            sb.append("; Path=").append(cookie.getPath());
+        }
+        if (cookie.getDomain() != null) {
+            sb.append("; Domain=").append(cookie.getDomain());
+        }
+        if (cookie.getMaxAge() >= 0) {
+            sb.append("; Max-Age=").append(cookie.getMaxAge());
+        }
+        if (cookie.getSecure()) {
+            sb.append("; Secure");
+        }
+        if (cookie.isHttpOnly()) {
+            sb.append("; HttpOnly");
+        }
+        addHeader("Set-Cookie", sb.toString());
+    }
+
+    // ---- Type de contenu ----
+
+    @Override
+    public void setContentType(String type) {
+        if (committed) {
+            return;
+        }
+        if (type == null) {
+            contentType = null;
+            return;
+        }
+        int idx = type.toLowerCase(Locale.ROOT).indexOf("charset=");
+        if (idx >= 0) {
+            String value = type.substring(idx + 8);
+            int semi = value.indexOf(';');
+            // L'encodage ne change plus une fois le writer obtenu
+            if (writer == null) {
+                characterEncoding = (semi >= 0 ? value.substring(0, semi) : value).trim().replace("\"", "");
+            }
+            int start = type.lastIndexOf(';', idx);
+            type = type.substring(0, start >= 0 ? start : idx).trim();
+        }
+        contentType = type;
+    }
+
+    @Override
+    public String getContentType() {
+        if (contentType == null) {
+            return null;
+        }
+        return characterEncoding != null ? contentType + "; charset=" + characterEncoding : contentType;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return characterEncoding != null ? characterEncoding : "ISO-8859-1";
+    }
+
+    @Override
+    public void setCharacterEncoding(String charset) {
+        if (!committed && writer == null) {
+            this.characterEncoding = charset;
+        }
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        setHeader("Content-Length", Long.toString(len));
+    }
+
+    @Override
+    public void setLocale(Locale loc) {
+        if (!committed && loc != null) {
+            this.locale = loc;
+            setHeader("Content-Language", loc.toLanguageTag());
+        }
+    }
+
+    @Override
+    public Locale getLocale() {
+        return locale;
+    }
+
+    // ---- Sans objet hors conteneur ----
+
+    @Override
+    public String encodeURL(String url) {
+        return url;
+    }
+
+    @Override
+    public String encodeRedirectURL(String url) {
+        return url;
+    }
+
+    @Override
+    @Deprecated
+    public String encodeUrl(String url) {
+        return url;
+    }
+
+    @Override
+    @Deprecated
+    public String encodeRedirectUrl(String url) {
+        return url;
+    }
+
+    /**
+     * Écrit dans le tampon ; au-delà de bufferSize, la réponse est validée et
+     * le tampon envoyé (si une connexion est présente).
+     */
+    private final class BodyOutputStream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            buffer.write(b);
+            if (connection != null && buffer.size() >= bufferSize) {
+                sendBuffer();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            buffer.write(b, off, len);
+            if (connection != null && buffer.size() >= bufferSize) {
+                sendBuffer();
+            }
+        }
+
+        @Override
+        public void flush() {
+            // Le flush du writer ne valide pas la réponse : seul flushBuffer() le fait
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new IllegalStateException("Écriture non bloquante non prise en charge");
+        }
+    }
+}
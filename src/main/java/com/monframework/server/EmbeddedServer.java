@@ -0,0 +1,356 @@
+package com.monframework.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.monframework.core.Dispatcher;
+import com.monframework.mapper.RouteMapping;
+import com.monframework.replay.TrafficRecorder;
+import com.monframework.trace.FrameworkStats;
+import com.monframework.warmup.WarmupRunner;
+
+/**
+ * Serveur HTTP/1.1 embarqué : exécute le même pipeline que le FrontServlet
+ * (routage, liaison, rendu) sans conteneur de servlets.
+ *
+ * Un thread accepte les connexions via NIO ; chaque connexion est ensuite
+ * traitée en lecture bloquante par son propre thread, virtuel si la JVM le
+ * permet (Java 21+), sinon issu d'un pool de threads classiques. Au-delà de
+ * server.maxConnections connexions ouvertes (1000 par défaut), les nouvelles
+ * reçoivent un 503 et sont fermées aussitôt.
+ *
+ * Le serveur fait partie du jar du framework (paquetage server), pas d'un
+ * module de lancement séparé : le projet n'a qu'un module Maven. Il n'ajoute
+ * aucune dépendance, mais l'API servlet (portée provided) doit figurer dans
+ * le classpath de lancement.
+ *
+ * <pre>
+ * java -cp framework.jar:jakarta.servlet-api.jar:app.jar com.monframework.server.EmbeddedServer \
+ *      --port 8080 --classes build/classes --config app.properties
+ * </pre>
+ */
+public class EmbeddedServer {
+
+    private final Dispatcher dispatcher;
+    private final InetSocketAddress address;
+    private int idleTimeoutMillis = 30_000;
+    private int maxConnections = 1000;
+    private volatile TrafficRecorder recorder;
+    private ServerSocketChannel serverChannel;
+    private Selector selector;
+    private Thread acceptor;
+    private ExecutorService workers;
+    private volatile boolean running;
+    private final Set<HttpConnection> connections = ConcurrentHashMap.newKeySet();
+
+    private static final byte[] OVERLOADED_RESPONSE = ("HTTP/1.1 503 Service Unavailable\r\n"
+            + "Content-Type: text/plain; charset=UTF-8\r\nContent-Length: 20\r\n"
+            + "Retry-After: 1\r\nConnection: close\r\n\r\nTrop de connexions\r\n")
+            .getBytes(StandardCharsets.US_ASCII);
+
+    public EmbeddedServer(Dispatcher dispatcher, int port) {
+        this(dispatcher, new InetSocketAddress(port));
+    }
+
+    public EmbeddedServer(Dispatcher dispatcher, InetSocketAddress address) {
+        this.dispatcher = dispatcher;
+        this.address = address;
+    }
+
+    /**
+     * Délai après lequel une connexion inactive est fermée (30 s par défaut).
+     */
+    public void setIdleTimeout(int millis) {
+        this.idleTimeoutMillis = millis;
+    }
+
+    /**
+     * Nombre maximal de connexions ouvertes simultanément (1000 par défaut).
+     */
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    /**
+     * Enregistre un échantillon des requêtes traitées (null : désactivé).
+     */
+    public void setRecorder(TrafficRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    public Dispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Ouvre le port et commence à accepter les connexions.
+     */
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, 1024);
+        serverChannel.configureBlocking(false);
+        selector = Selector.open();
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        workers = newConnectionExecutor(maxConnections);
+        running = true;
+        acceptor = new Thread(this::acceptLoop, "monframework-acceptor");
+        acceptor.start();
+    }
+
+    /**
+     * Port effectivement ouvert (utile avec le port 0).
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Arrête d'accepter les connexions et ferme celles en cours.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            acceptor.join(1000);
+            serverChannel.close();
+            selector.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Warning: fermeture du serveur embarqué: " + e);
+        }
+        for (HttpConnection connection : connections) {
+            connection.close();
+        }
+        workers.shutdown();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isAcceptable()) {
+                        acceptAll();
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Warning: erreur d'acceptation: " + e);
+                }
+            }
+        }
+    }
+
+    private void acceptAll() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            // Lecture bloquante dans le thread de la connexion
+            channel.configureBlocking(true);
+            Socket socket = channel.socket();
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(idleTimeoutMillis);
+            if (connections.size() >= maxConnections) {
+                rejectConnection(socket);
+                continue;
+            }
+            HttpConnection connection = new HttpConnection(this, socket);
+            connections.add(connection);
+            try {
+                workers.execute(connection);
+            } catch (RuntimeException e) {
+                connections.remove(connection);
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * Répond 503 à une connexion en trop puis la ferme (la réponse tient
+     * dans le tampon d'envoi du socket : l'écriture ne bloque pas).
+     */
+    private static void rejectConnection(Socket socket) {
+        try (Socket s = socket) {
+            s.getOutputStream().write(OVERLOADED_RESPONSE);
+        } catch (IOException e) {
+            // Client déjà parti : rien à signaler
+        }
+    }
+
+    void connectionClosed(HttpConnection connection) {
+        connections.remove(connection);
+    }
+
+    /**
+     * Passe la requête au Dispatcher ; une erreur non gérée donne une 500
+     * si la réponse n'est pas encore partie.
+     */
+    void handle(EmbeddedRequest request, EmbeddedResponse response) {
+        TrafficRecorder recorder = this.recorder;
+        boolean sampled = recorder != null && recorder.sample();
+        long start = sampled ? System.nanoTime() : 0;
+        RouteMapping route = null;
+        try {
+            route = dispatcher.service(request, response, request.getRequestURI(), null);
+        } catch (Exception e) {
+            System.err.println("Erreur lors du traitement de " + request + ":");
+            e.printStackTrace();
+            if (!response.isCommitted()) {
+                response.reset();
+                response.setStatus(500);
+                response.setContentType("text/plain; charset=UTF-8");
+                PrintWriter out = response.getWriter();
+                out.println("Erreur interne");
+                out.println(e.getClass().getName() + ": " + e.getMessage());
+            }
+        }
+        if (sampled) {
+            try {
+                recorder.record(request, request.getRequestURI(), route, response.getStatus(), start, System.nanoTime() - start);
+            } catch (RuntimeException e) {
+                System.err.println("Warning: enregistrement du trafic impossible pour " + request.getRequestURI() + " : " + e);
+            }
+        }
+    }
+
+    /**
+     * Un thread virtuel par connexion si la JVM en fournit (Java 21+), sinon
+     * un pool sans file de maxThreads threads classiques créés à la demande.
+     */
+    static ExecutorService newConnectionExecutor(int maxThreads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            ThreadFactory factory = r -> {
+                Thread t = new Thread(r, "monframework-http-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            };
+            return new ThreadPoolExecutor(0, maxThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), factory);
+        }
+    }
+
+    /**
+     * Lance le serveur sur les contrôleurs d'un répertoire de classes.
+     *
+     * Options : --port (8080), --classes (répertoire des contrôleurs, requis),
+     * --config (fichier properties : multipart.*, limit.*, trace.*, warmup.*, batch.*, record.*...).
+     * Les propriétés système de même nom sont prioritaires.
+     */
+    public static void main(String[] args) throws Exception {
+        long startNanos = System.nanoTime();
+        int port = 8080;
+        Path classes = null;
+        Properties properties = new Properties();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 >= args.length) {
+                usage("valeur manquante pour " + arg);
+            }
+            switch (arg) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--classes":
+                    classes = Paths.get(args[++i]);
+                    break;
+                case "--config":
+                    try (InputStream in = Files.newInputStream(Paths.get(args[++i]))) {
+                        properties.load(in);
+                    }
+                    break;
+                default:
+                    usage("option inconnue " + arg);
+            }
+        }
+        if (classes == null || !Files.isDirectory(classes)) {
+            usage("--classes doit désigner un répertoire de classes");
+        }
+
+        Function<String, String> config = name -> System.getProperty(name, properties.getProperty(name));
+        ClassLoader loader = new URLClassLoader(new URL[] { classes.toUri().toURL() },
+                EmbeddedServer.class.getClassLoader());
+        Thread.currentThread().setContextClassLoader(loader);
+
+        Dispatcher dispatcher = Dispatcher.scan(classes, loader, config);
+        // Préchauffage avant d'ouvrir le port
+        WarmupRunner warmup = WarmupRunner.fromConfig(dispatcher, config);
+        if (warmup != null) {
+            warmup.run(loader);
+        }
+        EmbeddedServer server = new EmbeddedServer(dispatcher, port);
+        String idle = config.apply("server.idleTimeoutMillis");
+        if (idle != null) {
+            server.setIdleTimeout(Integer.parseInt(idle.trim()));
+        }
+        String maxConnections = config.apply("server.maxConnections");
+        if (maxConnections != null) {
+            server.setMaxConnections(Integer.parseInt(maxConnections.trim()));
+        }
+        TrafficRecorder recorder = TrafficRecorder.fromConfig(config);
+        server.setRecorder(recorder);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            if (recorder != null) {
+                recorder.close();
+            }
+            dispatcher.shutdown();
+            FrameworkStats.unregister();
+        }, "monframework-shutdown"));
+
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        System.out.println("[DEBUG] Serveur embarqué prêt sur le port " + server.getPort()
+                + " (" + dispatcher.getRouteMap().size() + " routes, " + elapsedMillis + " ms)");
+    }
+
+    private static void usage(String error) {
+        System.err.println("Erreur: " + error);
+        System.err.println("Usage: EmbeddedServer --classes <répertoire> [--port 8080] [--config fichier.properties]");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,469 @@
+package com.monframework.server;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.monframework.core.HttpException;
+
+/**
+ * Une connexion HTTP/1.1 du serveur embarqué, traitée par un seul thread.
+ *
+ * Les requêtes sont lues dans un tampon propre à la connexion : les requêtes
+ * envoyées à la suite (pipelining) y restent et sont traitées dans l'ordre,
+ * leurs réponses n'étant envoyées sur le réseau qu'une fois le tampon vide.
+ */
+final class HttpConnection implements Runnable {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_HEAD_SIZE = 16 * 1024;
+    /** Au-delà, un corps non lu par le contrôleur n'est pas consommé : la connexion est fermée. */
+    private static final long MAX_DRAIN = 1024 * 1024;
+    private static final byte[] CONTINUE = "HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    private final EmbeddedServer server;
+    private final Socket socket;
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private InputStream in;
+    private OutputStream out;
+    /** Des réponses attendent dans le tampon de sortie. */
+    private boolean pendingOutput;
+
+    HttpConnection(EmbeddedServer server, Socket socket) {
+        this.server = server;
+        this.socket = socket;
+    }
+
+    @Override
+    public void run() {
+        try (Socket s = socket) {
+            in = s.getInputStream();
+            out = new BufferedOutputStream(s.getOutputStream(), BUFFER_SIZE);
+            while (server.isRunning() && handleNext()) {
+                // Requête suivante sur la même connexion
+            }
+            out.flush();
+        } catch (SocketTimeoutException e) {
+            // Connexion inactive : fermée
+        } catch (IOException | HttpException e) {
+            // Client parti, ou corps de requête invalide après la réponse
+        } finally {
+            server.connectionClosed(this);
+        }
+    }
+
+    void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Déjà fermée
+        }
+    }
+
+    /**
+     * Lit et traite une requête.
+     *
+     * @return false si la connexion doit être fermée
+     */
+    private boolean handleNext() throws IOException {
+        EmbeddedRequest request;
+        EmbeddedResponse response;
+        InputStream body;
+        boolean keepAlive;
+        try {
+            String head = readHead();
+            if (head == null) {
+                return false;
+            }
+            int lineEnd = head.indexOf("\r\n");
+            String requestLine = lineEnd >= 0 ? head.substring(0, lineEnd) : head;
+            int sp1 = requestLine.indexOf(' ');
+            int sp2 = requestLine.lastIndexOf(' ');
+            if (sp1 <= 0 || sp2 <= sp1) {
+                throw new HttpException(400, "Ligne de requête invalide");
+            }
+            String method = requestLine.substring(0, sp1);
+            String target = requestLine.substring(sp1 + 1, sp2);
+            String protocol = requestLine.substring(sp2 + 1);
+            if (!protocol.equals("HTTP/1.1") && !protocol.equals("HTTP/1.0")) {
+                throw new HttpException(505, "Version HTTP non prise en charge: " + protocol);
+            }
+            if (target.isEmpty() || target.charAt(0) != '/') {
+                throw new HttpException(400, "Cible de requête invalide: " + target);
+            }
+            Map<String, List<String>> headers = parseHeaders(head, lineEnd);
+
+            String connection = first(headers, "Connection");
+            keepAlive = protocol.equals("HTTP/1.1")
+                    ? !"close".equalsIgnoreCase(connection)
+                    : "keep-alive".equalsIgnoreCase(connection);
+
+            body = openBody(headers);
+            if ("100-continue".equalsIgnoreCase(first(headers, "Expect")) && protocol.equals("HTTP/1.1")) {
+                out.write(CONTINUE);
+                out.flush();
+            }
+
+            int q = target.indexOf('?');
+            String path = q >= 0 ? target.substring(0, q) : target;
+            String query = q >= 0 ? target.substring(q + 1) : null;
+            request = new EmbeddedRequest(method, path, query, protocol, headers, body);
+            request.setConnectionInfo((InetSocketAddress) socket.getLocalSocketAddress(),
+                    (InetSocketAddress) socket.getRemoteSocketAddress());
+            response = new EmbeddedResponse(out, protocol, keepAlive, method.equals("HEAD"));
+        } catch (HttpException e) {
+            // Requête illisible : répondre puis fermer, la suite du flux n'est plus fiable
+            EmbeddedResponse error = new EmbeddedResponse(out, "HTTP/1.1", false, false);
+            error.sendError(e.getStatus(), e.getMessage());
+            error.finish();
+            return false;
+        }
+
+        server.handle(request, response);
+        response.finish();
+
+        // Consommer le reste du corps pour retrouver le début de la requête suivante
+        if (!response.isKeepAlive() || !drain(body)) {
+            return false;
+        }
+        pendingOutput = true;
+        if (pos == limit) {
+            // Plus de requête en attente : envoyer les réponses
+            out.flush();
+            pendingOutput = false;
+        }
+        return true;
+    }
+
+    /**
+     * Lit l'en-tête d'une requête (jusqu'à la ligne vide).
+     *
+     * @return l'en-tête sans la ligne vide finale, ou null si le client a fermé
+     */
+    private String readHead() throws IOException {
+        // Lignes vides tolérées entre deux requêtes
+        while (true) {
+            if (pos == limit && !fill()) {
+                return null;
+            }
+            if (buf[pos] == '\r' || buf[pos] == '\n') {
+                pos++;
+            } else {
+                break;
+            }
+        }
+        int scanned = pos;
+        while (true) {
+            for (int i = scanned; i + 3 < limit; i++) {
+                if (buf[i] == '\r' && buf[i + 1] == '\n' && buf[i + 2] == '\r' && buf[i + 3] == '\n') {
+                    String head = new String(buf, pos, i - pos, StandardCharsets.ISO_8859_1);
+                    pos = i + 4;
+                    return head;
+                }
+            }
+            if (limit - pos >= MAX_HEAD_SIZE) {
+                throw new HttpException(431, "En-têtes de requête trop longs");
+            }
+            scanned = Math.max(pos, limit - 3);
+            int before = pos;
+            if (!fill()) {
+                throw new HttpException(400, "Fin de flux dans les en-têtes");
+            }
+            scanned -= before - pos;
+        }
+    }
+
+    private static Map<String, List<String>> parseHeaders(String head, int lineEnd) {
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        int start = lineEnd < 0 ? head.length() : lineEnd + 2;
+        while (start < head.length()) {
+            int end = head.indexOf("\r\n", start);
+            if (end < 0) {
+                end = head.length();
+            }
+            int colon = head.indexOf(':', start);
+            if (colon <= start || colon > end) {
+                throw new HttpException(400, "En-tête invalide");
+            }
+            String name = head.substring(start, colon);
+            if (name.indexOf(' ') >= 0 || name.indexOf('\t') >= 0) {
+                throw new HttpException(400, "Nom d'en-tête invalide: " + name);
+            }
+            headers.computeIfAbsent(name, k -> new ArrayList<>(1)).add(head.substring(colon + 1, end).trim());
+            start = end + 2;
+        }
+        return headers;
+    }
+
+    private static String first(Map<String, List<String>> headers, String name) {
+        List<String> values = headers.get(name);
+        return values != null ? values.get(0) : null;
+    }
+
+    private InputStream openBody(Map<String, List<String>> headers) {
+        List<String> transferEncodings = headers.get("Transfer-Encoding");
+        List<String> lengths = headers.get("Content-Length");
+        if (transferEncodings != null) {
+            // Les deux en-têtes ensemble : un intermédiaire pourrait découper le
+            // flux autrement que nous (request smuggling)
+            if (lengths != null) {
+                throw new HttpException(400, "Transfer-Encoding et Content-Length ensemble");
+            }
+            // Seul "chunked", une seule fois, est pris en charge : toutes les valeurs sont vérifiées
+            List<String> codings = new ArrayList<>(1);
+            for (String value : transferEncodings) {
+                for (String coding : value.split(",")) {
+                    if (!coding.isBlank()) {
+                        codings.add(coding.trim().toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+            if (codings.isEmpty() || !codings.get(codings.size() - 1).equals("chunked")) {
+                throw new HttpException(400, "Transfer-Encoding sans chunked final: " + transferEncodings);
+            }
+            if (codings.size() > 1) {
+                throw new HttpException(501, "Transfer-Encoding non pris en charge: " + transferEncodings);
+            }
+            return new ChunkedBody();
+        }
+        if (lengths == null) {
+            return InputStream.nullInputStream();
+        }
+        long length;
+        try {
+            length = Long.parseLong(lengths.get(0).trim());
+        } catch (NumberFormatException e) {
+            throw new HttpException(400, "Content-Length invalide");
+        }
+        for (String other : lengths) {
+            if (!other.trim().equals(lengths.get(0).trim())) {
+                throw new HttpException(400, "Content-Length contradictoires");
+            }
+        }
+        if (length < 0) {
+            throw new HttpException(400, "Content-Length invalide");
+        }
+        return length == 0 ? InputStream.nullInputStream() : new FixedLengthBody(length);
+    }
+
+    /**
+     * Ignore la partie du corps que le contrôleur n'a pas lue.
+     *
+     * @return false si le reste est trop long (la connexion sera fermée)
+     */
+    private static boolean drain(InputStream body) throws IOException {
+        if (body.read() < 0) {
+            return true;
+        }
+        byte[] scratch = new byte[4096];
+        long skipped = 1;
+        int n;
+        while ((n = body.read(scratch)) >= 0) {
+            skipped += n;
+            if (skipped > MAX_DRAIN) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remplit le tampon (après compactage). Envoie d'abord les réponses en
+     * attente : le client peut attendre l'une d'elles avant d'écrire la suite.
+     */
+    private boolean fill() throws IOException {
+        if (pendingOutput) {
+            out.flush();
+            pendingOutput = false;
+        }
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        }
+        if (limit == buf.length) {
+            return true;
+        }
+        int n = in.read(buf, limit, buf.length - limit);
+        if (n < 0) {
+            return false;
+        }
+        limit += n;
+        return true;
+    }
+
+    private int readFromBuffer(byte[] b, int off, int len) throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        int n = Math.min(len, limit - pos);
+        System.arraycopy(buf, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    private int readByte() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buf[pos++] & 0xff;
+    }
+
+    /**
+     * Corps délimité par Content-Length.
+     */
+    private final class FixedLengthBody extends InputStream {
+        private long remaining;
+
+        FixedLengthBody(long length) {
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = readByte();
+            if (b < 0) {
+                throw new IOException("Corps de requête incomplet");
+            }
+            remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            if (len == 0) {
+                return 0;
+            }
+            int n = readFromBuffer(b, off, (int) Math.min(len, remaining));
+            if (n < 0) {
+                throw new IOException("Corps de requête incomplet");
+            }
+            remaining -= n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(limit - pos, remaining);
+        }
+    }
+
+    /**
+     * Corps en Transfer-Encoding: chunked.
+     */
+    private final class ChunkedBody extends InputStream {
+        private long chunkRemaining;
+        private boolean started;
+        private boolean eof;
+
+        @Override
+        public int read() throws IOException {
+            if (!nextChunk()) {
+                return -1;
+            }
+            int b = readByte();
+            if (b < 0) {
+                throw new IOException("Corps de requête incomplet");
+            }
+            chunkRemaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!nextChunk()) {
+                return -1;
+            }
+            int n = readFromBuffer(b, off, (int) Math.min(len, chunkRemaining));
+            if (n < 0) {
+                throw new IOException("Corps de requête incomplet");
+            }
+            chunkRemaining -= n;
+            return n;
+        }
+
+        /**
+         * Se place sur un bloc non vide. Retourne false à la fin du corps.
+         */
+        private boolean nextChunk() throws IOException {
+            if (eof) {
+                return false;
+            }
+            if (chunkRemaining > 0) {
+                return true;
+            }
+            if (started) {
+                expectCrlf();
+            }
+            started = true;
+            String line = readLine();
+            int semi = line.indexOf(';');
+            String size = (semi >= 0 ? line.substring(0, semi) : line).trim();
+            try {
+                chunkRemaining = Long.parseLong(size, 16);
+            } catch (NumberFormatException e) {
+                throw new HttpException(400, "Taille de bloc invalide: " + size);
+            }
+            if (chunkRemaining < 0) {
+                throw new HttpException(400, "Taille de bloc invalide: " + size);
+            }
+            if (chunkRemaining == 0) {
+                // Trailers ignorés jusqu'à la ligne vide
+                while (!readLine().isEmpty()) {
+                    // ignoré
+                }
+                eof = true;
+                return false;
+            }
+            return true;
+        }
+
+        private void expectCrlf() throws IOException {
+            if (readByte() != '\r' || readByte() != '\n') {
+                throw new HttpException(400, "Bloc mal terminé");
+            }
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder sb = new StringBuilder(16);
+            while (true) {
+                int b = readByte();
+                if (b < 0) {
+                    throw new IOException("Corps de requête incomplet");
+                }
+                if (b == '\n') {
+                    int len = sb.length();
+                    if (len > 0 && sb.charAt(len - 1) == '\r') {
+                        sb.setLength(len - 1);
+                    }
+                    return sb.toString();
+                }
+                if (sb.length() > 1024) {
+                    throw new HttpException(400, "Ligne de bloc trop longue");
+                }
+                sb.append((char) b);
+            }
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.monframework.sse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import com.monframework.annotation.EventStream;
+
+/**
+ * Flux Server-Sent Events vers un client, reçu en paramètre par le contrôleur :
+ * <pre>
+ * {@code
+ * @HandleUrl("/tableau/live")
+ * public void live(EventSink sink) { tableau.abonner(sink); }
+ * }
+ * </pre>
+ * La méthode rend la main aussitôt ; la connexion reste ouverte et les
+ * événements envoyés ensuite, depuis n'importe quel thread, sont écrits dans
+ * l'ordre.
+ *
+ * Dans un conteneur, l'écriture est non bloquante (traitement asynchrone et
+ * WriteListener) : une connexion inactive ne retient aucun thread. Hors
+ * traitement asynchrone (serveur embarqué), le thread de la connexion attend
+ * les événements.
+ *
+ * Chaque connexion a une file bornée ; un client trop lent perd des
+ * événements ou est déconnecté selon {@link EventStream#overflow()}.
+ */
+public final class EventSink {
+
+    /** Attribut de requête portant le flux ouvert par le contrôleur. */
+    public static final String REQUEST_ATTRIBUTE = "framework.eventSink";
+
+    private static final byte[] OPEN = ":\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final ArrayBlockingQueue<byte[]> queue;
+    private final EventStream.Overflow overflow;
+    private final long heartbeatNanos;
+    private final long retryMillis;
+    private final AtomicLong dropped = new AtomicLong();
+    private final List<Runnable> closeCallbacks = new ArrayList<>(1);
+    private volatile long lastWriteNanos = System.nanoTime();
+    private volatile boolean closed;
+
+    // Mode asynchrone
+    private AsyncContext asyncContext;
+    private ServletOutputStream out;
+    private boolean dirty;
+    private boolean completed;
+
+    EventSink(int queueCapacity, EventStream.Overflow overflow, int heartbeatSeconds, long retryMillis) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.overflow = overflow;
+        this.heartbeatNanos = TimeUnit.SECONDS.toNanos(heartbeatSeconds);
+        this.retryMillis = retryMillis;
+    }
+
+    /**
+     * Crée le flux d'une requête (appelé lors de la liaison des paramètres).
+     */
+    public static EventSink open(HttpServletRequest request, EventStream settings) {
+        EventSink sink = settings != null
+                ? new EventSink(settings.queueCapacity(), settings.overflow(), settings.heartbeatSeconds(), settings.retryMillis())
+                : new EventSink(256, EventStream.Overflow.DROP_OLDEST, 15, -1);
+        request.setAttribute(REQUEST_ATTRIBUTE, sink);
+        return sink;
+    }
+
+    /**
+     * Flux ouvert par le contrôleur pour cette requête, ou null.
+     */
+    public static EventSink openedBy(HttpServletRequest request) {
+        Object sink = request.getAttribute(REQUEST_ATTRIBUTE);
+        return sink instanceof EventSink ? (EventSink) sink : null;
+    }
+
+    // ---- API du contrôleur ----
+
+    /**
+     * Envoie un événement sans nom (reçu par onmessage côté navigateur).
+     *
+     * @return false si le flux est fermé ou si l'événement a été ignoré (file pleine)
+     */
+    public boolean send(String data) {
+        return send(null, null, data);
+    }
+
+    /**
+     * Envoie un événement nommé.
+     */
+    public boolean send(String event, String data) {
+        return send(event, null, data);
+    }
+
+    /**
+     * Envoie un événement complet (id repris par Last-Event-ID à la reconnexion).
+     */
+    public boolean send(String event, String id, String data) {
+        return enqueue(frame(event, id, data));
+    }
+
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * Nombre d'événements perdus faute de place dans la file.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Appelé une fois à la fermeture du flux (client parti, close(), client trop lent).
+     */
+    public void onClose(Runnable callback) {
+        boolean runNow;
+        synchronized (closeCallbacks) {
+            runNow = closed;
+            if (!runNow) {
+                closeCallbacks.add(callback);
+            }
+        }
+        if (runNow) {
+            callback.run();
+        }
+    }
+
+    /**
+     * Termine le flux après l'envoi des événements en attente.
+     */
+    public void close() {
+        if (markClosed()) {
+            wakeUp();
+        }
+    }
+
+    // ---- Envoi ----
+
+    static byte[] frame(String event, String id, String data) {
+        StringBuilder sb = new StringBuilder(32 + (data != null ? data.length() : 0));
+        if (id != null) {
+            sb.append("id: ").append(singleLine(id)).append('\n');
+        }
+        if (event != null) {
+            sb.append("event: ").append(singleLine(event)).append('\n');
+        }
+        String body = data != null ? data : "";
+        int start = 0;
+        while (true) {
+            int nl = body.indexOf('\n', start);
+            int end = nl < 0 ? body.length() : nl;
+            int lineEnd = end > start && body.charAt(end - 1) == '\r' ? end - 1 : end;
+            sb.append("data: ").append(body, start, lineEnd).append('\n');
+            if (nl < 0) {
+                break;
+            }
+            start = nl + 1;
+        }
+        return sb.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String singleLine(String value) {
+        if (value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Retour à la ligne interdit dans un nom ou un id d'événement");
+        }
+        return value;
+    }
+
+    private boolean enqueue(byte[] frame) {
+        if (closed) {
+            return false;
+        }
+        if (!queue.offer(frame)) {
+            switch (overflow) {
+                case DROP_NEWEST:
+                    dropped.incrementAndGet();
+                    return false;
+                case DISCONNECT:
+                    dropped.addAndGet(queue.size() + 1L);
+                    queue.clear();
+                    close();
+                    return false;
+                default:
+                    // Garder les événements les plus récents
+                    while (!queue.offer(frame)) {
+                        if (queue.poll() != null) {
+                            dropped.incrementAndGet();
+                        }
+                    }
+            }
+        }
+        lastWriteNanos = System.nanoTime();
+        wakeUp();
+        return true;
+    }
+
+    /**
+     * Ajoute un commentaire de maintien si rien n'a été envoyé depuis l'intervalle configuré.
+     */
+    void heartbeat(long now) {
+        if (heartbeatNanos > 0 && now - lastWriteNanos >= heartbeatNanos && !closed) {
+            lastWriteNanos = now;
+            // File pleine : des données partent déjà, le maintien est inutile
+            if (queue.offer(HEARTBEAT)) {
+                wakeUp();
+            }
+        }
+    }
+
+    private boolean markClosed() {
+        List<Runnable> callbacks;
+        synchronized (closeCallbacks) {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            callbacks = new ArrayList<>(closeCallbacks);
+            closeCallbacks.clear();
+        }
+        SseHeartbeats.unregister(this);
+        for (Runnable callback : callbacks) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                System.err.println("Warning: erreur dans onClose d'un EventSink: " + e);
+            }
+        }
+        return true;
+    }
+
+    private void wakeUp() {
+        boolean async;
+        synchronized (this) {
+            async = asyncContext != null;
+        }
+        if (async) {
+            drain();
+        }
+        // Mode bloquant : le thread de la connexion attend sur la file
+    }
+
+    // ---- Attachement à la réponse ----
+
+    /**
+     * Ouvre la réponse text/event-stream et commence à envoyer les événements.
+     * En mode bloquant, ne rend la main qu'à la fermeture du flux.
+     */
+    public void attach(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("text/event-stream; charset=UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        // Désactive la mise en tampon des proxys (nginx)
+        response.setHeader("X-Accel-Buffering", "no");
+        if (retryMillis >= 0) {
+            queue.offer(("retry: " + retryMillis + "\n\n").getBytes(StandardCharsets.UTF_8));
+        }
+        if (!closed) {
+            SseHeartbeats.register(this);
+        }
+
+        if (request.isAsyncSupported()) {
+            attachAsync(request, response);
+        } else {
+            runBlocking(response);
+        }
+    }
+
+    private void attachAsync(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        AsyncContext context = request.startAsync();
+        context.setTimeout(0);
+        context.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                markClosed();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                close();
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                markClosed();
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        ServletOutputStream stream = response.getOutputStream();
+        synchronized (this) {
+            this.out = stream;
+            // Premier envoi : valide les en-têtes sans attendre un événement
+            this.dirty = true;
+            this.asyncContext = context;
+        }
+        stream.setWriteListener(new WriteListener() {
+            @Override
+            public void onWritePossible() {
+                drain();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                markClosed();
+                complete();
+            }
+        });
+    }
+
+    private void drain() {
+        if (!writeAvailable()) {
+            // Client parti : fermer hors du verrou, les callbacks onClose
+            // peuvent appeler du code applicatif
+            markClosed();
+            complete();
+        }
+    }
+
+    /**
+     * Écrit tant que la sortie l'accepte ; le conteneur rappelle
+     * onWritePossible() quand elle redevient disponible.
+     *
+     * @return false si l'écriture a échoué
+     */
+    private synchronized boolean writeAvailable() {
+        if (out == null || completed) {
+            return true;
+        }
+        try {
+            while (out.isReady()) {
+                byte[] frame = queue.poll();
+                if (frame == null) {
+                    if (dirty) {
+                        dirty = false;
+                        out.flush();
+                        continue;
+                    }
+                    if (closed) {
+                        complete();
+                    }
+                    return true;
+                }
+                out.write(frame);
+                dirty = true;
+            }
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            return false;
+        }
+    }
+
+    private synchronized void complete() {
+        if (!completed && asyncContext != null) {
+            completed = true;
+            queue.clear();
+            try {
+                asyncContext.complete();
+            } catch (IllegalStateException e) {
+                // Déjà terminé par le conteneur
+            }
+        }
+    }
+
+    /**
+     * Mode bloquant : le thread courant écrit les événements jusqu'à la fermeture.
+     */
+    private void runBlocking(HttpServletResponse response) throws IOException {
+        ServletOutputStream stream = response.getOutputStream();
+        try {
+            stream.write(OPEN);
+            response.flushBuffer();
+            while (true) {
+                byte[] frame = queue.poll(1, TimeUnit.SECONDS);
+                if (frame == null) {
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+                do {
+                    stream.write(frame);
+                } while ((frame = queue.poll()) != null);
+                response.flushBuffer();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // Client parti
+        } finally {
+            markClosed();
+            queue.clear();
+        }
+    }
+}
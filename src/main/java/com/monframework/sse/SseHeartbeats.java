@@ -0,0 +1,71 @@
+package com.monframework.sse;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minuterie partagée des commentaires de maintien : une seule tâche par
+ * seconde parcourt les flux ouverts, au lieu d'une tâche planifiée par
+ * connexion. Arrêtée par {@link #stop()} (Dispatcher.shutdown) : son thread
+ * retiendrait sinon le ClassLoader de l'application après un redéploiement.
+ */
+public final class SseHeartbeats {
+
+    private static final Set<EventSink> SINKS = ConcurrentHashMap.newKeySet();
+    private static ScheduledExecutorService timer;
+
+    private SseHeartbeats() {
+    }
+
+    static void register(EventSink sink) {
+        SINKS.add(sink);
+        startTimer();
+    }
+
+    static void unregister(EventSink sink) {
+        SINKS.remove(sink);
+    }
+
+    private static synchronized void startTimer() {
+        if (timer != null) {
+            return;
+        }
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "monframework-sse-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleAtFixedRate(SseHeartbeats::tick, 1, 1, TimeUnit.SECONDS);
+        timer = executor;
+    }
+
+    /**
+     * Arrête la minuterie ; le prochain flux ouvert la relance.
+     */
+    public static synchronized void stop() {
+        if (timer != null) {
+            timer.shutdownNow();
+            timer = null;
+        }
+        SINKS.clear();
+    }
+
+    private static void tick() {
+        long now = System.nanoTime();
+        for (EventSink sink : SINKS) {
+            if (!sink.isOpen()) {
+                SINKS.remove(sink);
+                continue;
+            }
+            try {
+                sink.heartbeat(now);
+            } catch (RuntimeException e) {
+                // Une erreur ne doit pas arrêter la minuterie des autres flux
+                System.err.println("Warning: maintien SSE: " + e);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.monframework.trace;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Mesure des octets alloués par requête, via
+ * {@code com.sun.management.ThreadMXBean.getCurrentThreadAllocatedBytes()}.
+ *
+ * Désactivée par défaut ; peut être activée à chaud (paramètre
+ * {@code accounting.enabled}, MBean {@code com.monframework:type=FrameworkStats}
+ * ou {@link #setEnabled(boolean)}) le temps d'identifier les routes qui
+ * génèrent le plus de déchets, puis désactivée.
+ */
+public final class AllocationAccounting {
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+    private static volatile boolean enabled;
+
+    private AllocationAccounting() {
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) bean;
+            if (sun.isThreadAllocatedMemorySupported()) {
+                return sun;
+            }
+        }
+        return null;
+    }
+
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Active ou désactive la mesure. Sans support de la JVM, reste désactivée.
+     */
+    public static void setEnabled(boolean on) {
+        if (on && THREADS == null) {
+            System.err.println("Warning: mesure des allocations non supportée par cette JVM");
+            return;
+        }
+        if (on && !THREADS.isThreadAllocatedMemoryEnabled()) {
+            THREADS.setThreadAllocatedMemoryEnabled(true);
+        }
+        enabled = on;
+    }
+
+    /**
+     * Octets alloués par le thread courant depuis son démarrage.
+     */
+    static long currentThreadAllocatedBytes() {
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,121 @@
+package com.monframework.trace;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Réponse qui compte les octets écrits dans le corps (y compris par une JSP
+ * lors d'un forward). Utilisée uniquement quand la mesure des allocations est active.
+ */
+public final class CountingResponse extends HttpServletResponseWrapper {
+    private CountingOutputStream stream;
+    private PrintWriter writer;
+
+    public CountingResponse(HttpServletResponse response) {
+        super(response);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() a déjà été appelé");
+        }
+        return stream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (stream != null) {
+                throw new IllegalStateException("getOutputStream() a déjà été appelé");
+            }
+            Charset charset = Charset.forName(getCharacterEncoding());
+            writer = new PrintWriter(new OutputStreamWriter(stream(), charset), false);
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        super.flushBuffer();
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (writer != null) {
+            writer.flush();
+        }
+        super.resetBuffer();
+        if (stream != null) {
+            stream.count = 0;
+        }
+    }
+
+    /**
+     * Vide le writer éventuel puis retourne le nombre d'octets écrits.
+     */
+    public long finish() {
+        if (writer != null) {
+            writer.flush();
+        }
+        return stream != null ? stream.count : 0;
+    }
+
+    private CountingOutputStream stream() throws IOException {
+        if (stream == null) {
+            stream = new CountingOutputStream(super.getOutputStream());
+        }
+        return stream;
+    }
+
+    private static final class CountingOutputStream extends ServletOutputStream {
+        private final ServletOutputStream out;
+        long count;
+
+        CountingOutputStream(ServletOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return out.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            out.setWriteListener(listener);
+        }
+    }
+}
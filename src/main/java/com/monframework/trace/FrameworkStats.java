@@ -0,0 +1,72 @@
+package com.monframework.trace;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Implémentation du MBean {@link FrameworkStatsMXBean}.
+ */
+public final class FrameworkStats implements FrameworkStatsMXBean {
+
+    private static final String OBJECT_NAME = "com.monframework:type=FrameworkStats";
+
+    private final Supplier<Map<String, RouteStats>> routes;
+
+    public FrameworkStats(Supplier<Map<String, RouteStats>> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * Enregistre le MBean (remplace une instance précédente, par exemple après
+     * un redéploiement).
+     */
+    public static void register(FrameworkStats stats) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(stats, name);
+        } catch (JMException | SecurityException e) {
+            System.err.println("Warning: MBean " + OBJECT_NAME + " non enregistré : " + e);
+        }
+    }
+
+    public static void unregister() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException | SecurityException e) {
+            // ignore
+        }
+    }
+
+    @Override
+    public boolean isAllocationAccounting() {
+        return AllocationAccounting.isEnabled();
+    }
+
+    @Override
+    public void setAllocationAccounting(boolean enabled) {
+        AllocationAccounting.setEnabled(enabled);
+    }
+
+    @Override
+    public Map<String, String> getRouteStats() {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (Map.Entry<String, RouteStats> e : routes.get().entrySet()) {
+            result.put(e.getKey(), e.getValue().toString());
+        }
+        return result;
+    }
+}
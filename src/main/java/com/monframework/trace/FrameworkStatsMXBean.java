@@ -0,0 +1,17 @@
+package com.monframework.trace;
+
+import java.util.Map;
+
+/**
+ * Interface JMX ({@code com.monframework:type=FrameworkStats}) : statistiques
+ * par route et activation à chaud de la mesure des allocations.
+ */
+public interface FrameworkStatsMXBean {
+
+    boolean isAllocationAccounting();
+
+    void setAllocationAccounting(boolean enabled);
+
+    /** Statistiques par clé de route (METHODE:/url). */
+    Map<String, String> getRouteStats();
+}
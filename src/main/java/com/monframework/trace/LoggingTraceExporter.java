@@ -0,0 +1,13 @@
+package com.monframework.trace;
+
+/**
+ * Exportateur de démonstration : écrit chaque trace échantillonnée sur la
+ * sortie standard, au format du journal des requêtes lentes.
+ */
+public class LoggingTraceExporter implements TraceExporter {
+
+    @Override
+    public void export(RequestTrace trace) {
+        System.out.println("[TRACE] " + trace.describe());
+    }
+}
@@ -0,0 +1,280 @@
+package com.monframework.trace;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Mesure des étapes d'une requête. Une instance est allouée une fois par
+ * thread et réutilisée : mesurer une requête ne coûte que quelques appels à
+ * {@link System#nanoTime()}, sans allocation.
+ *
+ * Les identifiants suivent le format W3C Trace Context
+ * ({@code traceparent: 00-<trace-id>-<span-id>-<flags>}) : un traceparent
+ * reçu est repris, sinon un nouvel identifiant est généré.
+ */
+public final class RequestTrace {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = ThreadLocal.withInitial(RequestTrace::new);
+    private static final Stage[] STAGES = Stage.values();
+
+    private final long[] stageNanos = new long[STAGES.length];
+    private final long[] stageBytes = new long[STAGES.length];
+    private boolean active;
+    private boolean traced;
+    private boolean accounting;
+    private long lastBytes;
+    private long responseBytes;
+    private long startNanos;
+    private long lastNanos;
+    private long totalNanos;
+    private long traceIdHigh;
+    private long traceIdLow;
+    private long spanId;
+    private long parentSpanId;
+    private boolean sampled;
+    private String method;
+    private String path;
+    private String routeKey;
+    private int status;
+    /** Trace propre au thread, rendue par finishDelegate(). */
+    private RequestTrace previous;
+
+    private RequestTrace() {
+    }
+
+    /**
+     * Démarre la mesure d'une requête sur le thread courant.
+     *
+     * @param traceparent en-tête traceparent reçu (peut être null)
+     * @param sampleRate  proportion de requêtes échantillonnées (0 à 1)
+     * @param traced      journal des requêtes lentes et export actifs
+     * @param accounting  mesure des octets alloués par étape
+     */
+    static RequestTrace start(String method, String path, String traceparent, double sampleRate,
+                              boolean traced, boolean accounting) {
+        RequestTrace t = CURRENT.get();
+        Arrays.fill(t.stageNanos, 0);
+        Arrays.fill(t.stageBytes, 0);
+        t.traced = traced;
+        t.accounting = accounting;
+        t.responseBytes = 0;
+        t.method = method;
+        t.path = path;
+        t.routeKey = null;
+        t.status = 0;
+        t.totalNanos = 0;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (!t.parseTraceparent(traceparent)) {
+            t.traceIdHigh = random.nextLong();
+            t.traceIdLow = random.nextLong();
+            t.parentSpanId = 0;
+            t.sampled = sampleRate > 0 && random.nextDouble() < sampleRate;
+        }
+        t.spanId = random.nextLong();
+        t.active = true;
+        if (accounting) {
+            t.lastBytes = AllocationAccounting.currentThreadAllocatedBytes();
+        }
+        t.startNanos = System.nanoTime();
+        t.lastNanos = t.startNanos;
+        return t;
+    }
+
+    /**
+     * Trace en cours sur ce thread, ou null si aucune requête n'est mesurée.
+     */
+    public static RequestTrace current() {
+        RequestTrace t = CURRENT.get();
+        return t.active ? t : null;
+    }
+
+    /**
+     * Termine l'étape donnée pour la trace du thread courant, s'il y en a une.
+     */
+    public static void markCurrent(Stage stage) {
+        RequestTrace t = CURRENT.get();
+        if (t.active) {
+            t.mark(stage);
+        }
+    }
+
+    /**
+     * Démarre sur le thread courant une trace déléguée pour le compte de
+     * parent (méthode du contrôleur exécutée sur un autre thread que la
+     * requête). Ses étapes sont reportées dans parent par {@link #mergeInto}.
+     */
+    public static RequestTrace startDelegate(RequestTrace parent) {
+        RequestTrace t = new RequestTrace();
+        t.previous = CURRENT.get();
+        t.traced = parent.traced;
+        t.accounting = parent.accounting;
+        t.traceIdHigh = parent.traceIdHigh;
+        t.traceIdLow = parent.traceIdLow;
+        t.spanId = parent.spanId;
+        t.parentSpanId = parent.parentSpanId;
+        t.sampled = parent.sampled;
+        t.method = parent.method;
+        t.path = parent.path;
+        t.routeKey = parent.routeKey;
+        t.active = true;
+        if (t.accounting) {
+            t.lastBytes = AllocationAccounting.currentThreadAllocatedBytes();
+        }
+        t.startNanos = System.nanoTime();
+        t.lastNanos = t.startNanos;
+        CURRENT.set(t);
+        return t;
+    }
+
+    /**
+     * Termine la trace déléguée et rend au thread sa propre trace.
+     */
+    public void finishDelegate() {
+        active = false;
+        CURRENT.set(previous);
+        previous = null;
+    }
+
+    /**
+     * Reporte les étapes de cette trace déléguée (terminée) dans parent.
+     * Appelé par le thread de la requête : l'attente du délégué n'est pas
+     * comptée une seconde fois.
+     */
+    public void mergeInto(RequestTrace parent) {
+        for (int i = 0; i < stageNanos.length; i++) {
+            parent.stageNanos[i] += stageNanos[i];
+            parent.stageBytes[i] += stageBytes[i];
+        }
+        parent.lastNanos = System.nanoTime();
+        if (parent.accounting) {
+            parent.lastBytes = AllocationAccounting.currentThreadAllocatedBytes();
+        }
+    }
+
+    /**
+     * Attribue à l'étape le temps écoulé (et les octets alloués, si la mesure
+     * est active) depuis la marque précédente.
+     */
+    public void mark(Stage stage) {
+        long now = System.nanoTime();
+        stageNanos[stage.ordinal()] += now - lastNanos;
+        lastNanos = now;
+        if (accounting) {
+            long bytes = AllocationAccounting.currentThreadAllocatedBytes();
+            stageBytes[stage.ordinal()] += bytes - lastBytes;
+            lastBytes = bytes;
+        }
+    }
+
+    /**
+     * Nombre d'octets écrits dans le corps de la réponse (mesure des allocations active).
+     */
+    public void setResponseBytes(long responseBytes) {
+        this.responseBytes = responseBytes;
+    }
+
+    void finish(String routeKey, int status) {
+        this.totalNanos = System.nanoTime() - startNanos;
+        this.routeKey = routeKey;
+        this.status = status;
+    }
+
+    void deactivate() {
+        active = false;
+    }
+
+    /**
+     * Reprend l'identifiant d'un en-tête traceparent valide.
+     * Le format est vérifié par position, sans découper la chaîne.
+     */
+    private boolean parseTraceparent(String header) {
+        if (header == null || header.length() < 55 || header.charAt(2) != '-'
+                || header.charAt(35) != '-' || header.charAt(52) != '-') {
+            return false;
+        }
+        try {
+            traceIdHigh = Long.parseUnsignedLong(header, 3, 19, 16);
+            traceIdLow = Long.parseUnsignedLong(header, 19, 35, 16);
+            parentSpanId = Long.parseUnsignedLong(header, 36, 52, 16);
+            int flags = Integer.parseInt(header, 53, 55, 16);
+            sampled = (flags & 1) != 0;
+            return (traceIdHigh | traceIdLow) != 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public long getStageNanos(Stage stage) { return stageNanos[stage.ordinal()]; }
+    public long getTotalNanos() { return totalNanos; }
+    public long getStageBytes(Stage stage) { return stageBytes[stage.ordinal()]; }
+    public long getResponseBytes() { return responseBytes; }
+    public boolean isTraced() { return traced; }
+    public boolean isAccounting() { return accounting; }
+
+    /** Octets alloués sur l'ensemble des étapes mesurées. */
+    public long getAllocatedBytes() {
+        long total = 0;
+        for (long b : stageBytes) {
+            total += b;
+        }
+        return total;
+    }
+    public boolean isSampled() { return sampled; }
+    public String getMethod() { return method; }
+    public String getPath() { return path; }
+    public String getRouteKey() { return routeKey; }
+    public int getStatus() { return status; }
+
+    public String getTraceId() {
+        return hex16(traceIdHigh) + hex16(traceIdLow);
+    }
+
+    public String getSpanId() {
+        return hex16(spanId);
+    }
+
+    /** Span parent reçu dans traceparent, ou null. */
+    public String getParentSpanId() {
+        return parentSpanId == 0 ? null : hex16(parentSpanId);
+    }
+
+    /**
+     * En-tête traceparent à propager aux appels sortants faits pendant la requête.
+     */
+    public String traceparent() {
+        return "00-" + getTraceId() + "-" + getSpanId() + (sampled ? "-01" : "-00");
+    }
+
+    /**
+     * Ligne structurée clé=valeur décrivant la requête et ses étapes.
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("method=").append(method)
+          .append(" path=").append(path)
+          .append(" route=").append(routeKey)
+          .append(" status=").append(status)
+          .append(" totalMs=").append(millis(totalNanos));
+        for (Stage s : STAGES) {
+            sb.append(' ').append(s.label()).append("Ms=").append(millis(stageNanos[s.ordinal()]));
+        }
+        if (accounting) {
+            sb.append(" allocatedBytes=").append(getAllocatedBytes());
+            for (Stage s : STAGES) {
+                sb.append(' ').append(s.label()).append("Bytes=").append(stageBytes[s.ordinal()]);
+            }
+            sb.append(" responseBytes=").append(responseBytes);
+        }
+        sb.append(" traceparent=").append(traceparent());
+        return sb.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3f", nanos / 1e6);
+    }
+
+    private static String hex16(long v) {
+        String s = Long.toHexString(v);
+        return s.length() == 16 ? s : "0000000000000000".substring(s.length()) + s;
+    }
+}
@@ -0,0 +1,73 @@
+package com.monframework.trace;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs cumulés d'une route : nombre d'appels, durée totale et maximale,
+ * requêtes lentes. Basés sur LongAdder, sans contention entre threads.
+ */
+public final class RouteStats {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder slowCount = new LongAdder();
+    private final LongAdder accountedCount = new LongAdder();
+    private final LongAdder bindingBytes = new LongAdder();
+    private final LongAdder invokeBytes = new LongAdder();
+    private final LongAdder renderBytes = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder responseBytes = new LongAdder();
+
+    void record(long durationNanos, boolean slow) {
+        count.increment();
+        totalNanos.add(durationNanos);
+        maxNanos.accumulate(durationNanos);
+        if (slow) {
+            slowCount.increment();
+        }
+    }
+
+    /**
+     * Ajoute les octets alloués et écrits d'une requête mesurée.
+     */
+    void recordAllocation(RequestTrace trace) {
+        accountedCount.increment();
+        bindingBytes.add(trace.getStageBytes(Stage.BINDING));
+        invokeBytes.add(trace.getStageBytes(Stage.CONSTRUCT) + trace.getStageBytes(Stage.INVOKE));
+        renderBytes.add(trace.getStageBytes(Stage.RENDER));
+        allocatedBytes.add(trace.getAllocatedBytes());
+        responseBytes.add(trace.getResponseBytes());
+    }
+
+    public long getCount() { return count.sum(); }
+    public long getTotalNanos() { return totalNanos.sum(); }
+    public long getMaxNanos() { return maxNanos.get(); }
+    public long getSlowCount() { return slowCount.sum(); }
+
+    /** Nombre de requêtes mesurées par la mesure des allocations. */
+    public long getAccountedCount() { return accountedCount.sum(); }
+    public long getBindingBytes() { return bindingBytes.sum(); }
+    public long getInvokeBytes() { return invokeBytes.sum(); }
+    public long getRenderBytes() { return renderBytes.sum(); }
+    public long getAllocatedBytes() { return allocatedBytes.sum(); }
+    public long getResponseBytes() { return responseBytes.sum(); }
+
+    public double getMeanMillis() {
+        long n = getCount();
+        return n == 0 ? 0 : getTotalNanos() / 1e6 / n;
+    }
+
+    @Override
+    public String toString() {
+        String s = String.format("count=%d meanMs=%.2f maxMs=%.2f slow=%d",
+                getCount(), getMeanMillis(), getMaxNanos() / 1e6, getSlowCount());
+        long n = getAccountedCount();
+        if (n > 0) {
+            s += String.format(" accounted=%d allocBytes/req=%d (binding=%d invoke=%d render=%d) responseBytes/req=%d",
+                    n, getAllocatedBytes() / n, getBindingBytes() / n, getInvokeBytes() / n,
+                    getRenderBytes() / n, getResponseBytes() / n);
+        }
+        return s;
+    }
+}
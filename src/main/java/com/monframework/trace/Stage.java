@@ -0,0 +1,29 @@
+package com.monframework.trace;
+
+/**
+ * Étapes du traitement d'une requête mesurées par {@link RequestTrace}.
+ */
+public enum Stage {
+    /** Recherche d'une ressource statique (getResource). */
+    STATIC_PROBE("static"),
+    /** Recherche de la route. */
+    ROUTING("routing"),
+    /** Liaison des paramètres. */
+    BINDING("binding"),
+    /** Création du contrôleur. */
+    CONSTRUCT("construct"),
+    /** Exécution de la méthode du contrôleur. */
+    INVOKE("invoke"),
+    /** Écriture de la réponse ou forward vers la JSP. */
+    RENDER("render");
+
+    private final String label;
+
+    Stage(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+}
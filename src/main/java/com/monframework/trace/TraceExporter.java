@@ -0,0 +1,16 @@
+package com.monframework.trace;
+
+/**
+ * Reçoit les traces échantillonnées. Appelé sur le thread de la requête, à la
+ * fin du traitement : l'objet {@link RequestTrace} est réutilisé par la
+ * requête suivante du même thread, l'exportateur doit donc copier ce dont il
+ * a besoin sans conserver de référence.
+ *
+ * Configuré par le paramètre d'initialisation {@code trace.exporter}
+ * (nom d'une classe avec constructeur sans argument).
+ */
+@FunctionalInterface
+public interface TraceExporter {
+
+    void export(RequestTrace trace);
+}
@@ -0,0 +1,88 @@
+package com.monframework.trace;
+
+/**
+ * Configuration et points d'entrée du traçage des requêtes.
+ * Paramètres d'initialisation du FrontServlet :
+ * <pre>
+ * trace.enabled              active la mesure des étapes (false)
+ * trace.sampleRate           proportion de requêtes exportées, de 0 à 1 (0.01)
+ * trace.slowMillis           seuil du journal des requêtes lentes (1000)
+ * trace.slowMillis.GET:/url  seuil propre à une route
+ * trace.exporter             classe implémentant TraceExporter
+ * </pre>
+ */
+public final class Tracing {
+
+    private static volatile boolean enabled;
+    private static volatile double sampleRate = 0.01;
+    private static volatile long defaultSlowNanos = 1_000_000_000L;
+    private static volatile TraceExporter exporter;
+
+    private Tracing() {
+    }
+
+    public static void configure(boolean enabled, double sampleRate, long slowMillis, TraceExporter exporter) {
+        Tracing.sampleRate = sampleRate;
+        Tracing.defaultSlowNanos = slowMillis * 1_000_000L;
+        Tracing.exporter = exporter;
+        Tracing.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static long getDefaultSlowNanos() {
+        return defaultSlowNanos;
+    }
+
+    /**
+     * Démarre la mesure d'une requête, ou retourne null si ni le traçage ni la
+     * mesure des allocations ({@link AllocationAccounting}) ne sont actifs.
+     */
+    public static RequestTrace begin(String method, String path, String traceparent) {
+        boolean traced = enabled;
+        boolean accounting = AllocationAccounting.isEnabled();
+        if (!traced && !accounting) {
+            return null;
+        }
+        return RequestTrace.start(method, path, traceparent, sampleRate, traced, accounting);
+    }
+
+    /**
+     * Termine la mesure : met à jour les statistiques de la route, écrit le
+     * journal des requêtes lentes et exporte la trace si elle est échantillonnée.
+     *
+     * @param slowNanos seuil de lenteur de la route (négatif = seuil par défaut)
+     * @param stats     statistiques de la route (null si aucune route)
+     */
+    public static void end(RequestTrace trace, String routeKey, RouteStats stats, long slowNanos, int status) {
+        try {
+            trace.finish(routeKey, status);
+            long threshold = slowNanos >= 0 ? slowNanos : defaultSlowNanos;
+            boolean slow = trace.getTotalNanos() > threshold;
+            if (stats != null) {
+                stats.record(trace.getTotalNanos(), slow);
+                if (trace.isAccounting()) {
+                    stats.recordAllocation(trace);
+                }
+            }
+            if (!trace.isTraced()) {
+                return;
+            }
+            if (slow) {
+                System.err.println("[SLOW] " + trace.describe());
+            }
+            TraceExporter e = exporter;
+            if (e != null && trace.isSampled()) {
+                try {
+                    e.export(trace);
+                } catch (RuntimeException ex) {
+                    System.err.println("Warning: échec de l'export de trace: " + ex);
+                }
+            }
+        } finally {
+            trace.deactivate();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.monframework.warmup;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.monframework.annotation.Warmup;
+import com.monframework.binding.ArgumentResolvers;
+import com.monframework.binding.ConverterRegistry;
+import com.monframework.core.Dispatcher;
+import com.monframework.mapper.RouteMapping;
+import com.monframework.server.EmbeddedRequest;
+import com.monframework.server.EmbeddedResponse;
+
+/**
+ * Préchauffage au démarrage : initialise les classes des contrôleurs puis
+ * rejoue des requêtes d'exemple dans le Dispatcher, sans réseau, pour que les
+ * premiers vrais clients trouvent les classes chargées, la réflexion résolue
+ * et le code de dispatch déjà compilé par le JIT.
+ *
+ * Configuration :
+ * <pre>
+ * warmup.enabled=true
+ * warmup.iterations=100          (appels par URL d'exemple)
+ * warmup.maxMillis=10000         (durée maximale de la phase de rejeu)
+ * warmup.GET:/produits/{id}=/produits/42,/produits/7?details=true
+ * </pre>
+ * Les URLs d'une route viennent, par ordre de priorité, du paramètre
+ * warmup.METHODE:/url, de l'annotation {@link Warmup}, sinon du pattern de la
+ * route (GET uniquement).
+ *
+ * Les appels rejoués ne passent pas par les limites de charge et ne comptent
+ * pas dans les statistiques des routes. Les vues JSP d'un ModelView ne sont
+ * pas rendues (la requête rejouée n'a pas de RequestDispatcher) : seuls le
+ * contrôleur et le pipeline du Dispatcher sont préchauffés.
+ */
+public final class WarmupRunner {
+
+    private final Dispatcher dispatcher;
+    private final Function<String, String> config;
+    private final int iterations;
+    private final long maxMillis;
+
+    public WarmupRunner(Dispatcher dispatcher, Function<String, String> config, int iterations, long maxMillis) {
+        this.dispatcher = dispatcher;
+        this.config = config;
+        this.iterations = iterations;
+        this.maxMillis = maxMillis;
+    }
+
+    /**
+     * Crée le préchauffage décrit par la configuration, ou null si warmup.enabled n'est pas true.
+     */
+    public static WarmupRunner fromConfig(Dispatcher dispatcher, Function<String, String> config) {
+        if (!Boolean.parseBoolean(config.apply("warmup.enabled"))) {
+            return null;
+        }
+        String iterations = config.apply("warmup.iterations");
+        String maxMillis = config.apply("warmup.maxMillis");
+        return new WarmupRunner(dispatcher, config,
+                iterations != null ? Integer.parseInt(iterations.trim()) : 100,
+                maxMillis != null ? Long.parseLong(maxMillis.trim()) : 10_000);
+    }
+
+    /**
+     * Exécute le préchauffage (bloquant).
+     *
+     * @param loader ClassLoader des contrôleurs
+     */
+    public void run(ClassLoader loader) {
+        long start = System.nanoTime();
+
+        // 1. Initialiser les contrôleurs et résoudre leurs méthodes
+        Map<RouteMapping, List<String>> samples = new LinkedHashMap<>();
+        for (RouteMapping route : dispatcher.getRouteMap().values()) {
+            try {
+                route.prepare(loader);
+            } catch (Exception e) {
+                System.err.println("Warning: préchauffage de " + route.getRouteKey() + " impossible: " + e);
+                continue;
+            }
+            List<String> urls = samplesFor(route);
+            if (!urls.isEmpty()) {
+                samples.put(route, urls);
+            }
+        }
+        long prepared = System.nanoTime();
+        System.out.println("[DEBUG] Warmup: " + dispatcher.getRouteMap().size() + " routes initialisées en "
+                + (prepared - start) / 1_000_000 + " ms");
+
+        // 2. Rejouer les URLs d'exemple, toutes routes mélangées à chaque tour
+        Map<String, long[]> firstAndLast = new LinkedHashMap<>();
+        long deadline = prepared + maxMillis * 1_000_000L;
+        int rounds = 0;
+        for (; rounds < iterations && System.nanoTime() < deadline; rounds++) {
+            for (Map.Entry<RouteMapping, List<String>> entry : samples.entrySet()) {
+                RouteMapping route = entry.getKey();
+                for (String url : entry.getValue()) {
+                    long t0 = System.nanoTime();
+                    int status = replay(route.getHttpMethod(), url);
+                    long elapsed = System.nanoTime() - t0;
+                    long[] timings = firstAndLast.computeIfAbsent(route.getRouteKey(), k -> new long[] { elapsed, 0 });
+                    timings[1] = elapsed;
+                    if (rounds == 0 && status >= 400) {
+                        System.err.println("Warning: warmup " + route.getHttpMethod() + " " + url + " -> " + status);
+                    }
+                }
+            }
+        }
+
+        for (Map.Entry<String, long[]> e : firstAndLast.entrySet()) {
+            System.out.println("[DEBUG] Warmup " + e.getKey() + " : 1er appel " + formatMillis(e.getValue()[0])
+                    + ", dernier " + formatMillis(e.getValue()[1]));
+        }
+        System.out.println("[DEBUG] Warmup terminé: " + samples.size() + " routes rejouées " + rounds
+                + " fois en " + (System.nanoTime() - prepared) / 1_000_000 + " ms");
+    }
+
+    private int replay(String method, String url) {
+        int q = url.indexOf('?');
+        String path = q >= 0 ? url.substring(0, q) : url;
+        String query = q >= 0 ? url.substring(q + 1) : null;
+        EmbeddedRequest request = new EmbeddedRequest(method, path, query, "HTTP/1.1", null, null);
+        request.setAttribute(Dispatcher.WARMUP_ATTRIBUTE, Boolean.TRUE);
+        EmbeddedResponse response = new EmbeddedResponse();
+        try {
+            dispatcher.service(request, response, path, null);
+            return response.getStatus();
+        } catch (Exception e) {
+            return 500;
+        }
+    }
+
+    private List<String> samplesFor(RouteMapping route) {
+        String configured = config.apply("warmup." + route.getRouteKey());
+        List<String> urls = new ArrayList<>();
+        if (configured != null) {
+            for (String url : configured.split(",")) {
+                if (!url.isBlank()) {
+                    urls.add(url.trim());
+                }
+            }
+            return urls;
+        }
+        Method method = route.getMethod();
+        Warmup warmup = method != null ? method.getAnnotation(Warmup.class) : null;
+        if (warmup != null) {
+            urls.addAll(List.of(warmup.value()));
+        } else if ("GET".equalsIgnoreCase(route.getHttpMethod()) && method != null
+                // Flux SSE et long-poll : un rejeu attendrait la fin du flux ou le délai du Deferred
+                && !RouteMapping.isLongLived(method)) {
+            String derived = deriveSample(route, method);
+            if (derived != null) {
+                urls.add(derived);
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * Construit une URL à partir du pattern de la route : chaque {param} et
+     * chaque paramètre simple de la méthode reçoit une valeur de son type.
+     *
+     * @return l'URL, ou null si un paramètre n'a pas de valeur d'exemple
+     */
+    static String deriveSample(RouteMapping route, Method method) {
+        List<String> urlParams = route.getUrlPattern().getParamNames();
+        Map<String, String> values = new LinkedHashMap<>();
+        StringBuilder query = new StringBuilder();
+        for (Parameter parameter : method.getParameters()) {
+            String name = ArgumentResolvers.parameterName(parameter);
+            Class<?> type = parameter.getType();
+            if (!ConverterRegistry.getDefault().canConvert(type)) {
+                continue;
+            }
+            String value = sampleValue(type);
+            if (urlParams.contains(name)) {
+                values.put(name, value);
+            } else if (type.isPrimitive()) {
+                // Paramètre requis : sans lui, la requête s'arrêterait à la liaison (400)
+                query.append(query.length() == 0 ? '?' : '&').append(name).append('=').append(value);
+            }
+        }
+        String url = route.getUrlPattern().expand(values);
+        return url != null ? url + query : null;
+    }
+
+    private static String sampleValue(Class<?> type) {
+        Class<?> wrapped = ConverterRegistry.wrap(type);
+        if (Number.class.isAssignableFrom(wrapped)) {
+            return "1";
+        }
+        if (wrapped == Boolean.class) {
+            return "true";
+        }
+        if (wrapped == Character.class) {
+            return "a";
+        }
+        if (type == java.util.UUID.class) {
+            return "00000000-0000-0000-0000-000000000000";
+        }
+        if (type == LocalDate.class) {
+            return "2000-01-01";
+        }
+        if (type == LocalDateTime.class) {
+            return "2000-01-01T00:00";
+        }
+        if (type == LocalTime.class) {
+            return "00:00";
+        }
+        if (type.isEnum() && type.getEnumConstants().length > 0) {
+            return ((Enum<?>) type.getEnumConstants()[0]).name();
+        }
+        return "warmup";
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.3f ms", nanos / 1_000_000.0);
+    }
+}